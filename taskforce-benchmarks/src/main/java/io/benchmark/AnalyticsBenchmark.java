@@ -0,0 +1,87 @@
+package io.benchmark;
+
+import io.rental.Booking;
+import io.rental.Car;
+import io.rental.CarRentalCompany;
+import io.rental.analytics.GroupUsage;
+import io.rental.analytics.RentalAnalytics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Utilization and revenue reports over the whole history of a fleet: summing the analytics rollups against
+ * streaming over a copy of every booking, as reports did before the analytics existed. Every car gets
+ * {@code years} of three day rentals with a day off between them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class AnalyticsBenchmark {
+
+    @Param({"1000"})
+    public int cars;
+
+    @Param({"3"})
+    public int years;
+
+    private CarRentalCompany company;
+    private RentalAnalytics analytics;
+    private LocalDate from;
+    private LocalDate to;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        company = new CarRentalCompany();
+        analytics = RentalAnalytics.attach(company);
+        to = LocalDate.now().minusDays(1);
+        from = to.minusYears(years);
+        List<Booking> bookings = new ArrayList<>();
+        for (int i = 0; i < cars; i++) {
+            Car car = Fleets.car(i);
+            company.addCar(car);
+            for (LocalDate day = from.plusDays(i % 4); day.plusDays(2).isBefore(to); day = day.plusDays(4)) {
+                bookings.add(Fleets.booking(car, day, day.plusDays(2)));
+            }
+        }
+        company.importBookings(bookings);
+    }
+
+    @Benchmark
+    public Map<String, GroupUsage> rollups() {
+        return analytics.usage(from, to);
+    }
+
+    @Benchmark
+    public Map<String, Double> streamOverBookings() {
+        int fromDay = (int) from.toEpochDay();
+        int toDay = (int) to.toEpochDay();
+        Map<String, Double> revenue = new HashMap<>();
+        for (Booking booking : new ArrayList<>(company.getBookings())) {
+            int days = Math.min(toDay, booking.getEndDay()) - Math.max(fromDay, booking.getStartDay()) + 1;
+            if (days > 0 && !booking.isMaintenance()) {
+                revenue.merge(booking.getCar().getRentalGroup(), booking.getDailyCost() * days, Double::sum);
+            }
+        }
+        return revenue;
+    }
+}
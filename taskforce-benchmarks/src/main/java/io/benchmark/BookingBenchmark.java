@@ -0,0 +1,90 @@
+package io.benchmark;
+
+import io.rental.BookingException;
+import io.rental.Car;
+import io.rental.metrics.RentalMetrics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Booking throughput, single threaded and with every available thread booking the same few cars.
+ * Each booking takes the next free day of a car, so bookings never clash and the schedules grow
+ * during the run like they would in production.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+public class BookingBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Bookings {
+
+        // number of cars the booking threads compete for
+        @Param({"1", "16", "1024"})
+        public int hotCars;
+
+        // record latencies, lock waits and rejections into RentalMetrics while booking
+        @Param({"false", "true"})
+        public boolean metrics;
+
+        private RentalMetrics rentalMetrics;
+
+        private final AtomicLong sequence = new AtomicLong();
+
+        private Car[] cars;
+
+        private LocalDate firstDate;
+
+        @Setup(Level.Trial)
+        public void setUp(FleetState fleet) {
+            cars = new Car[Math.min(hotCars, fleet.cars)];
+            for (int i = 0; i < cars.length; i++) {
+                cars[i] = Fleets.car(i);
+            }
+            // well clear of the bookings made while building the fleet
+            firstDate = LocalDate.now().plusDays(4L * fleet.bookingsPerCar + 10);
+            rentalMetrics = metrics ? new RentalMetrics() : null;
+            fleet.company.setMetrics(rentalMetrics);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown(FleetState fleet) {
+            fleet.company.setMetrics(null);
+        }
+
+        void book(FleetState fleet) throws BookingException {
+            long n = sequence.getAndIncrement();
+            LocalDate day = firstDate.plusDays(n / cars.length);
+            fleet.company.addBooking(Fleets.booking(cars[(int) (n % cars.length)], day, day));
+        }
+    }
+
+    @Benchmark
+    public void addBooking(FleetState fleet, Bookings bookings) throws BookingException {
+        bookings.book(fleet);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public void addBookingContended(FleetState fleet, Bookings bookings) throws BookingException {
+        bookings.book(fleet);
+    }
+}
@@ -0,0 +1,51 @@
+package io.benchmark;
+
+import io.utils.DatePeriod;
+import io.utils.DatePeriodUtil;
+import io.utils.EpochDayPeriod;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a single overlap check between two date periods.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DatePeriodBenchmark {
+
+    private final DatePeriod base = new DatePeriod(LocalDate.of(2023, 1, 14), LocalDate.of(2023, 2, 5));
+    private final DatePeriod overlapping = new DatePeriod(LocalDate.of(2023, 2, 4), LocalDate.of(2023, 2, 6));
+    private final DatePeriod after = new DatePeriod(LocalDate.of(2023, 2, 6), LocalDate.of(2023, 2, 12));
+
+    private final long packedBase = base.toEpochDayPeriod();
+    private final long packedOverlapping = overlapping.toEpochDayPeriod();
+
+    @Benchmark
+    public boolean areOverlapping() {
+        return DatePeriodUtil.areOverlapping(base, overlapping);
+    }
+
+    @Benchmark
+    public boolean areNotOverlapping() {
+        return DatePeriodUtil.areOverlapping(base, after);
+    }
+
+    @Benchmark
+    public boolean areOverlappingPacked() {
+        return EpochDayPeriod.areOverlapping(packedBase, packedOverlapping);
+    }
+}
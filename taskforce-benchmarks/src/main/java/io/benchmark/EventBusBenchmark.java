@@ -0,0 +1,109 @@
+package io.benchmark;
+
+import io.rental.BookingException;
+import io.rental.Car;
+import io.rental.CarRentalCompany;
+import io.rental.events.OverflowPolicy;
+import io.rental.events.RentalEventBus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Booking throughput with subscribers attached to the event bus, against none. Every subscriber only counts
+ * the events it gets; the slow variant sleeps for every batch, so its queue overflows and the booking threads
+ * run into the overflow policy.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class EventBusBenchmark {
+
+    @Param({"0", "4"})
+    public int subscribers;
+
+    @Param({"false", "true"})
+    public boolean slowSubscribers;
+
+    @Param({"DROP_OLDEST"})
+    public OverflowPolicy overflowPolicy;
+
+    private static final int CARS = 1024;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final LongAdder received = new LongAdder();
+
+    private CarRentalCompany company;
+    private RentalEventBus bus;
+    private Car[] cars;
+    private LocalDate firstDate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        company = new CarRentalCompany();
+        cars = new Car[CARS];
+        for (int i = 0; i < CARS; i++) {
+            cars[i] = Fleets.car(i);
+            company.addCar(cars[i]);
+        }
+        firstDate = LocalDate.now().plusDays(1);
+        bus = RentalEventBus.attach(company);
+        for (int i = 0; i < subscribers; i++) {
+            bus.subscribe(events -> {
+                received.add(events.size());
+                if (slowSubscribers) {
+                    sleep();
+                }
+            }, RentalEventBus.DEFAULT_CAPACITY, overflowPolicy, RentalEventBus.DEFAULT_MAX_BATCH);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        bus.close();
+    }
+
+    @Benchmark
+    public void addBooking() throws BookingException {
+        book();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public void addBookingContended() throws BookingException {
+        book();
+    }
+
+    private void book() throws BookingException {
+        long n = sequence.getAndIncrement();
+        LocalDate day = firstDate.plusDays(n / CARS);
+        company.addBooking(Fleets.booking(cars[(int) (n % CARS)], day, day));
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(10);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package io.benchmark;
+
+import io.rental.CarRentalCompany;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * A synthetic fleet shared by all benchmark threads, sized through JMH parameters.
+ */
+@State(Scope.Benchmark)
+public class FleetState {
+
+    @Param({"100", "10000", "1000000"})
+    public int cars;
+
+    @Param({"10"})
+    public int bookingsPerCar;
+
+    public CarRentalCompany company;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        company = Fleets.build(cars, bookingsPerCar);
+    }
+}
@@ -0,0 +1,67 @@
+package io.benchmark;
+
+import io.rental.Booking;
+import io.rental.BookingException;
+import io.rental.Car;
+import io.rental.CarRentalCompany;
+import io.rental.Renter;
+
+import java.time.LocalDate;
+
+/**
+ * Builds synthetic fleets for the benchmarks.
+ * Cars are spread over {@link #MAKES} makes with {@link #MODELS_PER_MAKE} models each and every car gets
+ * the requested number of future bookings, two days long with a gap of two days between them.
+ */
+public final class Fleets {
+    public static final int MAKES = 10;
+    public static final int MODELS_PER_MAKE = 10;
+    public static final int RENTAL_GROUPS = 8;
+
+    static final Renter RENTER = new Renter("Hydrogen", "Joe", "HYDRO010190JX8NM", LocalDate.of(1990, 1, 1));
+
+    private Fleets() {
+    }
+
+    public static String make(int i) {
+        return "Make" + (i % MAKES);
+    }
+
+    public static String model(int i) {
+        return "Model" + ((i / MAKES) % MODELS_PER_MAKE);
+    }
+
+    public static Car car(int i) {
+        return new Car(make(i), model(i), String.format("CAR%07d", i), "G" + (i % RENTAL_GROUPS), 50 + (i % 50));
+    }
+
+    public static Booking booking(Car car, LocalDate startDate, LocalDate endDate) {
+        return Booking.builder()
+                .car(car)
+                .renter(RENTER)
+                .startDate(startDate)
+                .endDate(endDate)
+                .dailyCost(car.getCostPerDay())
+                .build();
+    }
+
+    public static CarRentalCompany build(int cars, int bookingsPerCar) {
+        CarRentalCompany company = new CarRentalCompany();
+        LocalDate tomorrow = LocalDate.now().plusDays(1);
+        for (int i = 0; i < cars; i++) {
+            Car car = car(i);
+            company.addCar(car);
+            // stagger the first booking so that every day has some rentals starting
+            LocalDate startDate = tomorrow.plusDays(i % 4);
+            for (int b = 0; b < bookingsPerCar; b++) {
+                try {
+                    company.addBooking(booking(car, startDate, startDate.plusDays(1)));
+                } catch (BookingException e) {
+                    throw new IllegalStateException(e);
+                }
+                startDate = startDate.plusDays(4);
+            }
+        }
+        return company;
+    }
+}
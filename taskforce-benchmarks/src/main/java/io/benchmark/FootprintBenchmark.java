@@ -0,0 +1,37 @@
+package io.benchmark;
+
+import io.rental.Booking;
+import io.rental.Car;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bytes a booking takes on the heap, read from the gc.alloc.rate.norm figure of the GC profiler that
+ * {@link BenchmarkRunner} attaches. The renter and the car are shared, as they are between the bookings of a fleet.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FootprintBenchmark {
+    private final Car car = Fleets.car(1);
+    private final LocalDate startDate = LocalDate.now();
+    private final LocalDate endDate = startDate.plusDays(1);
+
+    @Benchmark
+    public Booking booking() {
+        return Fleets.booking(car, startDate, endDate);
+    }
+}
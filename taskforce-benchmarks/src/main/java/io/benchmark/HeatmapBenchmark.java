@@ -0,0 +1,84 @@
+package io.benchmark;
+
+import io.rental.CarRentalCompany;
+import io.rental.Criteria;
+import io.rental.analytics.AvailabilityHeatmap;
+import io.rental.analytics.AvailabilityMatrix;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Free cars per rental group on each of the next 90 days: one availableCars search per group and day, as
+ * planners did before the heatmap, against sweeping the bookings once and against reading a heatmap that is
+ * kept up to date.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class HeatmapBenchmark {
+    private static final int DAYS = 90;
+
+    @Param({"50000"})
+    public int cars;
+
+    @Param({"10"})
+    public int bookingsPerCar;
+
+    private CarRentalCompany company;
+    private AvailabilityHeatmap heatmap;
+    private LocalDate from;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        company = Fleets.build(cars, bookingsPerCar);
+        heatmap = AvailabilityHeatmap.attach(company, AvailabilityHeatmap.Grouping.RENTAL_GROUP, 2 * DAYS);
+        from = LocalDate.now();
+    }
+
+    @Benchmark
+    public Map<String, int[]> searchPerGroupAndDay() {
+        Map<String, int[]> freeCars = new HashMap<>();
+        for (int group = 0; group < Fleets.RENTAL_GROUPS; group++) {
+            Criteria criteria = new Criteria();
+            criteria.setRentalGroup("G" + group);
+            int[] free = new int[DAYS];
+            for (int day = 0; day < DAYS; day++) {
+                criteria.setFromDate(from.plusDays(day));
+                criteria.setToDate(from.plusDays(day));
+                free[day] = company.matchingCars(criteria).size();
+            }
+            freeCars.put(criteria.getRentalGroup(), free);
+        }
+        return freeCars;
+    }
+
+    @Benchmark
+    public AvailabilityMatrix sweep() {
+        AvailabilityHeatmap swept = AvailabilityHeatmap.attach(company, AvailabilityHeatmap.Grouping.RENTAL_GROUP, DAYS);
+        company.removeListener(swept);
+        return swept.freeCars(from, DAYS);
+    }
+
+    @Benchmark
+    public AvailabilityMatrix heatmap() {
+        return heatmap.freeCars(from, DAYS);
+    }
+}
@@ -0,0 +1,115 @@
+package io.benchmark;
+
+import io.rental.Booking;
+import io.rental.BookingException;
+import io.rental.Car;
+import io.rental.CarRentalCompany;
+import io.rental.importer.FleetImporter;
+import io.rental.importer.ImportReport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to load a historical fleet: one restoreBooking per row against the streaming importer reading the
+ * same history as CSV and in the binary format. Every car gets a year of back-to-back bookings in the past.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+public class ImportBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class History {
+
+        @Param({"1000"})
+        public int cars;
+
+        @Param({"1000"})
+        public int bookingsPerCar;
+
+        private Car[] fleet;
+        private byte[] csv;
+        private byte[] binary;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            fleet = new Car[cars];
+            StringBuilder rows = new StringBuilder();
+            for (int i = 0; i < cars; i++) {
+                fleet[i] = Fleets.car(i);
+                Car car = fleet[i];
+                rows.append(String.join(",", "car", car.getMake(), car.getModel(), car.getRegistrationNumber(),
+                        car.getRentalGroup(), String.valueOf(car.getCostPerDay()))).append('\n');
+            }
+            // rows come in date order across the fleet, like an export of a booking system would
+            for (int b = 0; b < bookingsPerCar; b++) {
+                for (Car car : fleet) {
+                    LocalDate day = firstDay().plusDays(b);
+                    rows.append(String.join(",", "booking", car.getRegistrationNumber(), day.toString(), day.toString(),
+                            String.valueOf(car.getCostPerDay()))).append('\n');
+                }
+            }
+            csv = rows.toString().getBytes(StandardCharsets.UTF_8);
+
+            CarRentalCompany company = new CarRentalCompany();
+            new FleetImporter(company).importCsv(reader());
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            FleetImporter.exportBinary(company, bytes);
+            binary = bytes.toByteArray();
+        }
+
+        private LocalDate firstDay() {
+            return LocalDate.now().minusDays(bookingsPerCar + 1L);
+        }
+
+        private InputStreamReader reader() {
+            return new InputStreamReader(new ByteArrayInputStream(csv), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Benchmark
+    public CarRentalCompany restoreBookingPerRow(History history) throws BookingException {
+        CarRentalCompany company = new CarRentalCompany();
+        for (Car car : history.fleet) {
+            company.addCar(car);
+        }
+        for (int b = 0; b < history.bookingsPerCar; b++) {
+            LocalDate day = history.firstDay().plusDays(b);
+            for (Car car : history.fleet) {
+                Booking booking = Fleets.booking(car, day, day);
+                company.restoreBooking(booking);
+            }
+        }
+        return company;
+    }
+
+    @Benchmark
+    public ImportReport importCsv(History history) throws IOException {
+        return new FleetImporter(new CarRentalCompany()).importCsv(history.reader());
+    }
+
+    @Benchmark
+    public ImportReport importBinary(History history) throws IOException {
+        return new FleetImporter(new CarRentalCompany()).importBinary(new ByteArrayInputStream(history.binary));
+    }
+}
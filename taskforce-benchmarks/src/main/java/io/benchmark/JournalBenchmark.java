@@ -0,0 +1,163 @@
+package io.benchmark;
+
+import io.rental.Booking;
+import io.rental.BookingException;
+import io.rental.Car;
+import io.rental.CarRentalCompany;
+import io.rental.journal.BookingJournal;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Booking throughput with the journal attached, and the time to restart from a journal of a million bookings.
+ */
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+public class JournalBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class JournaledCompany {
+
+        // 0 fsyncs every booking, otherwise bookings are fsynced in groups every interval; either way a booking
+        // returns once it is durable, so only concurrent bookings share an fsync
+        @Param({"0", "5"})
+        public long syncIntervalMillis;
+
+        @Param({"1024"})
+        public int cars;
+
+        private final AtomicLong sequence = new AtomicLong();
+        private Path directory;
+        private CarRentalCompany company;
+        private BookingJournal journal;
+        private Car[] fleet;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            directory = Files.createTempDirectory("journal-benchmark");
+            company = new CarRentalCompany();
+            journal = BookingJournal.open(directory, company, syncIntervalMillis);
+            for (int i = 0; i < cars; i++) {
+                company.addCar(Fleets.car(i));
+            }
+            fleet = company.getCars().toArray(new Car[0]);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            journal.close();
+            delete(directory);
+        }
+
+        void book() throws BookingException {
+            long n = sequence.getAndIncrement();
+            LocalDate day = LocalDate.now().plusDays(1 + n / cars);
+            company.addBooking(Fleets.booking(fleet[(int) (n % cars)], day, day));
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Journal {
+
+        @Param({"1000000"})
+        public int bookings;
+
+        // whether the journal is compacted into a snapshot before the restart
+        @Param({"false", "true"})
+        public boolean snapshot;
+
+        private Path directory;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException, BookingException {
+            directory = Files.createTempDirectory("journal-benchmark");
+            CarRentalCompany company = new CarRentalCompany();
+            int cars = Math.max(1, bookings / 1000);
+            // every change waits for its fsync, so the history is written a day's bookings per batch
+            try (BookingJournal journal = BookingJournal.open(directory, company, 0)) {
+                for (int i = 0; i < cars; i++) {
+                    company.addCar(Fleets.car(i));
+                }
+                Car[] fleet = company.getCars().toArray(new Car[0]);
+                LocalDate tomorrow = LocalDate.now().plusDays(1);
+                List<Booking> batch = new ArrayList<>(cars);
+                for (int n = 0; n < bookings; n++) {
+                    LocalDate day = tomorrow.plusDays(n / cars);
+                    batch.add(Fleets.booking(fleet[n % cars], day, day));
+                    if (batch.size() == cars || n == bookings - 1) {
+                        company.addBookings(batch);
+                        batch.clear();
+                    }
+                }
+                if (snapshot) {
+                    journal.snapshot();
+                }
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            delete(directory);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Warmup(iterations = 3, time = 2)
+    @Measurement(iterations = 5, time = 2)
+    public void addBooking(JournaledCompany company) throws BookingException {
+        company.book();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Warmup(iterations = 3, time = 2)
+    @Measurement(iterations = 5, time = 2)
+    @Threads(Threads.MAX)
+    public void addBookingContended(JournaledCompany company) throws BookingException {
+        company.book();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 5)
+    public CarRentalCompany recover(Journal journal) throws IOException {
+        CarRentalCompany company = new CarRentalCompany();
+        BookingJournal.open(journal.directory, company, 100).close();
+        return company;
+    }
+
+    private static void delete(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package io.benchmark;
+
+import io.rental.Booking;
+import io.rental.BookingException;
+import io.rental.Car;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Searches and upcoming rental reads running while other threads keep booking, to show how much
+ * readers suffer from concurrent writers.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+public class MixedWorkloadBenchmark {
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(3)
+    public List<Car> search(FleetState fleet) throws BookingException {
+        LocalDate startDate = LocalDate.now().plusDays(10);
+        return fleet.company.availableCars(Fleets.make(0), Fleets.model(0), startDate, startDate.plusDays(3));
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public List<Booking> upcoming(FleetState fleet) {
+        return fleet.company.upcomingRentals();
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(2)
+    public void book(FleetState fleet, BookingBenchmark.Bookings bookings) throws BookingException {
+        bookings.book(fleet);
+    }
+}
@@ -0,0 +1,69 @@
+package io.benchmark;
+
+import io.rental.Car;
+import io.rental.Criteria;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Broad searches ("anything in group G0 for a month") checked on the calling thread against the fork/join
+ * search with 1 to all available cores; the ratio of the scores is the parallel speedup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class ParallelSearchBenchmark {
+
+    // 0 searches sequentially on the calling thread, -1 uses every available core
+    @Param({"0", "2", "4", "-1"})
+    public int parallelism;
+
+    private ForkJoinPool pool;
+    private Criteria criteria;
+
+    @Setup(Level.Trial)
+    public void setUp(FleetState fleet) {
+        if (parallelism == 0) {
+            fleet.company.setParallelSearchThreshold(Integer.MAX_VALUE);
+        } else {
+            pool = new ForkJoinPool(parallelism < 0 ? Runtime.getRuntime().availableProcessors() : parallelism);
+            fleet.company.setSearchPool(pool);
+            fleet.company.setParallelSearchThreshold(0);
+        }
+        criteria = new Criteria();
+        criteria.setRentalGroup("G0");
+        criteria.setFromDate(LocalDate.now().plusDays(10));
+        criteria.setToDate(criteria.getFromDate().plusDays(30));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    @Benchmark
+    public List<Car> broadSearch(FleetState fleet) {
+        return fleet.company.matchingCars(criteria);
+    }
+}
@@ -0,0 +1,68 @@
+package io.benchmark;
+
+import io.utils.OrdinalDictionary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registration number to car ordinal for every car of a fleet: the boxed concurrent map the mapped store
+ * used against the open addressing dictionary. Lookups use copies of the plates, as requests do.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class RegistrationLookupBenchmark {
+
+    @Param({"50000"})
+    public int cars;
+
+    private final Map<String, Integer> map = new ConcurrentHashMap<>();
+    private final OrdinalDictionary<Object> dictionary = new OrdinalDictionary<>();
+    private String[] plates;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        plates = new String[cars];
+        for (int i = 0; i < cars; i++) {
+            String plate = String.format("XX%06d ABC", i);
+            map.put(plate, i);
+            dictionary.add(plate, null);
+            plates[i] = new String(plate);
+        }
+    }
+
+    @Benchmark
+    public long concurrentHashMap() {
+        long sum = 0;
+        for (String plate : plates) {
+            sum += map.get(plate);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long ordinalDictionary() {
+        long sum = 0;
+        for (String plate : plates) {
+            sum += dictionary.ordinalOf(plate);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,56 @@
+package io.benchmark;
+
+import io.rental.BookingException;
+import io.rental.Car;
+import io.rental.Booking;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single threaded read paths: availability search, upcoming rentals and blended pricing.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Thread)
+public class SearchBenchmark {
+
+    private LocalDate startDate;
+    private LocalDate endDate;
+
+    @Setup
+    public void setUp() {
+        startDate = LocalDate.now().plusDays(10);
+        endDate = startDate.plusDays(3);
+    }
+
+    @Benchmark
+    public List<Car> availableCars(FleetState fleet) throws BookingException {
+        return fleet.company.availableCars(Fleets.make(0), Fleets.model(0), startDate, endDate);
+    }
+
+    @Benchmark
+    public List<Booking> upcomingRentals(FleetState fleet) {
+        return fleet.company.upcomingRentals();
+    }
+
+    @Benchmark
+    public Map<String, Double> getBlendedPrice(FleetState fleet) {
+        return fleet.company.getBlendedPrice();
+    }
+}
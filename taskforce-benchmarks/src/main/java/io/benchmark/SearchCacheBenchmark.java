@@ -0,0 +1,73 @@
+package io.benchmark;
+
+import io.rental.BookingException;
+import io.rental.Car;
+import io.rental.SearchCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Repetitive search traffic, a handful of make, model and date windows queried over and over, with and
+ * without the search cache.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+@Threads(4)
+@State(Scope.Benchmark)
+public class SearchCacheBenchmark {
+    private static final int HOT_WINDOWS = 16;
+
+    @Param({"false", "true"})
+    public boolean cached;
+
+    private SearchCache searchCache;
+    private LocalDate[] startDates;
+
+    @Setup(Level.Trial)
+    public void setUp(FleetState fleet) {
+        if (cached) {
+            searchCache = new SearchCache(10_000, Duration.ofMinutes(10));
+            fleet.company.setSearchCache(searchCache);
+        }
+        startDates = new LocalDate[HOT_WINDOWS];
+        for (int i = 0; i < HOT_WINDOWS; i++) {
+            startDates[i] = LocalDate.now().plusDays(10 + 7 * i);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown(FleetState fleet) {
+        if (searchCache != null) {
+            fleet.company.setSearchCache(null);
+        }
+    }
+
+    @Benchmark
+    public List<Car> hotSearch(FleetState fleet) throws BookingException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int model = random.nextInt(4);
+        LocalDate startDate = startDates[random.nextInt(HOT_WINDOWS)];
+        return fleet.company.availableCars(Fleets.make(model), Fleets.model(model), startDate, startDate.plusDays(3));
+    }
+}
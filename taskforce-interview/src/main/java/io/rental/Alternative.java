@@ -0,0 +1,68 @@
+package io.rental;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A way to rent when the requested car is not free, see
+ * {@link CarRentalCompany#suggestAlternatives(String, String, LocalDate, LocalDate, int, int)}. The proposed
+ * bookings are not made yet, add a renter and book them with {@link CarRentalCompany#addBookings}.
+ */
+public final class Alternative {
+
+    public enum Kind {
+        /** the requested model on the requested dates */
+        AVAILABLE,
+        /** another model of the same rental group on the requested dates */
+        OTHER_MODEL,
+        /** the requested model for as many days, starting earlier or later */
+        SHIFTED_DATES,
+        /** two cars of the model or group, one after the other, covering the requested dates */
+        SPLIT_RENTAL
+    }
+
+    private final Kind kind;
+    private final List<Booking> bookings;
+    private final int penalty;
+
+    Alternative(Kind kind, List<Booking> bookings, int penalty) {
+        this.kind = kind;
+        this.bookings = Collections.unmodifiableList(bookings);
+        this.penalty = penalty;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * @return proposed bookings in date order, at the cars' daily cost and without a renter
+     */
+    public List<Booking> getBookings() {
+        return bookings;
+    }
+
+    /**
+     * @return how far the alternative is from the request, lower is closer
+     */
+    public int getPenalty() {
+        return penalty;
+    }
+
+    /**
+     * @return cost of the whole rental at the cars' daily cost
+     */
+    public double getTotalCost() {
+        double total = 0;
+        for (Booking booking : bookings) {
+            total += booking.getDailyCost() * (booking.getEndDay() - booking.getStartDay() + 1);
+        }
+        return total;
+    }
+
+    @Override
+    public String toString() {
+        return kind + " " + bookings;
+    }
+}
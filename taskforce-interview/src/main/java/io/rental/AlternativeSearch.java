@@ -0,0 +1,169 @@
+package io.rental;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Finds alternatives to a rental request from the fleet index and the gaps in the cars' schedules.
+ * Candidates are the cars of the requested model and the other cars of its rental groups, each is looked at
+ * a bounded number of times: shifted dates jump from booking to booking within the allowed shift, split
+ * rentals take each candidate's free run from the first day and look for one car to cover the rest among the
+ * candidates indexed once by the day from which they are free to the end of the period.
+ * <p>
+ * Alternatives are ranked by a penalty: none for the requested model on the requested dates, one per day
+ * of shift, {@link #OTHER_MODEL_PENALTY} for another model and {@link #SPLIT_PENALTY} for a split rental;
+ * ties go to the cheaper rental.
+ */
+class AlternativeSearch {
+    static final int OTHER_MODEL_PENALTY = 2;
+    static final int SPLIT_PENALTY = 3;
+
+    private static final Comparator<Alternative> RANKING = Comparator.comparingInt(Alternative::getPenalty)
+            .thenComparingDouble(Alternative::getTotalCost)
+            .thenComparing(a -> a.getBookings().get(0).getCar().getRegistrationNumber());
+
+    private final FleetIndex fleet;
+    private final BookingStore store;
+
+    AlternativeSearch(FleetIndex fleet, BookingStore store) {
+        this.fleet = fleet;
+        this.store = store;
+    }
+
+    /**
+     * @param maxShiftDays number of days the rental may move either way, never before today
+     * @param limit number of alternatives returned
+     * @return alternatives ranked closest first
+     */
+    List<Alternative> find(String make, String model, LocalDate startDate, LocalDate endDate, int maxShiftDays, int limit) {
+        int startDay = (int) startDate.toEpochDay();
+        int endDay = (int) endDate.toEpochDay();
+        int days = endDay - startDay + 1;
+        int today = (int) LocalDate.now().toEpochDay();
+
+        List<Car> sameModel = fleet.matching(make, model, null);
+        Set<String> groups = new LinkedHashSet<>();
+        sameModel.forEach(c -> groups.add(c.getRentalGroup()));
+        List<Car> otherModels = new ArrayList<>();
+        for (String group : groups) {
+            for (Car car : fleet.matching(null, null, group)) {
+                if (!car.getMake().equals(make) || !car.getModel().equals(model)) {
+                    otherModels.add(car);
+                }
+            }
+        }
+
+        List<Alternative> alternatives = new ArrayList<>();
+        List<Car> booked = new ArrayList<>();
+        for (Car car : sameModel) {
+            if (isFree(car, startDay, endDay)) {
+                alternatives.add(single(Alternative.Kind.AVAILABLE, car, startDay, endDay, 0));
+            } else {
+                booked.add(car);
+                Alternative shifted = shifted(car, startDay, days, Math.max(today, startDay - maxShiftDays), startDay + maxShiftDays);
+                if (shifted != null) {
+                    alternatives.add(shifted);
+                }
+            }
+        }
+        for (Car car : otherModels) {
+            if (isFree(car, startDay, endDay)) {
+                alternatives.add(single(Alternative.Kind.OTHER_MODEL, car, startDay, endDay, OTHER_MODEL_PENALTY));
+            } else {
+                booked.add(car);
+            }
+        }
+
+        if (days > 1) {
+            List<Car> candidates = new ArrayList<>(sameModel);
+            candidates.addAll(otherModels);
+            splits(booked, candidates, startDay, endDay, limit, alternatives);
+        }
+
+        alternatives.sort(RANKING);
+        return alternatives.size() > limit ? new ArrayList<>(alternatives.subList(0, limit)) : alternatives;
+    }
+
+    // Utility function to find the nearest start within the bounds from which the car is free for as many days
+    private Alternative shifted(Car car, int startDay, int days, int earliestStart, int latestStart) {
+        int later = store.firstFreeStart(car, startDay + 1, days, latestStart);
+        int earlier = startDay - 1 < earliestStart ? BookingStore.NONE : store.lastFreeStart(car, startDay - 1, days, earliestStart);
+        if (later == BookingStore.NONE && earlier == BookingStore.NONE) {
+            return null;
+        }
+        int start = earlier == BookingStore.NONE || (later != BookingStore.NONE && later - startDay <= startDay - earlier) ? later : earlier;
+        return single(Alternative.Kind.SHIFTED_DATES, car, start, start + days - 1, Math.abs(start - startDay));
+    }
+
+    // Utility function to pair cars free from the first day with a car free for the rest of the period, a car free
+    // for the whole period is an alternative of its own and never the second half of a split
+    private void splits(List<Car> booked, List<Car> candidates, int startDay, int endDay, int wanted, List<Alternative> alternatives) {
+        int[] freeFrom = null;
+        int found = 0;
+        for (int i = 0; i < booked.size() && found < wanted; i++) {
+            Car first = booked.get(i);
+            int lastDay = store.lastFreeDay(first, startDay, endDay - 1);
+            if (lastDay == BookingStore.NONE) {
+                continue;
+            }
+            if (freeFrom == null) {
+                freeFrom = freeFrom(candidates, startDay, endDay);
+            }
+            for (int j = 0; j < candidates.size(); j++) {
+                Car second = candidates.get(j);
+                if (second != first && freeFrom[j] > startDay && freeFrom[j] <= lastDay + 1) {
+                    List<Booking> bookings = new ArrayList<>(2);
+                    bookings.add(proposal(first, startDay, lastDay));
+                    bookings.add(proposal(second, lastDay + 1, endDay));
+                    alternatives.add(new Alternative(Alternative.Kind.SPLIT_RENTAL, bookings, SPLIT_PENALTY));
+                    found++;
+                    break;
+                }
+            }
+        }
+    }
+
+    // Utility function to find for each car the first day from which it is free up to the last day, reading each
+    // car's bookings once
+    private int[] freeFrom(List<Car> cars, int startDay, int endDay) {
+        int[] freeFrom = new int[cars.size()];
+        int[] difference = new int[endDay - startDay + 2];
+        for (int j = 0; j < cars.size(); j++) {
+            Arrays.fill(difference, 0);
+            store.markBookedDays(cars.get(j), startDay, difference);
+            int from = startDay;
+            for (int day = startDay, booked = 0; day <= endDay; day++) {
+                booked += difference[day - startDay];
+                if (booked > 0) {
+                    from = day + 1;
+                }
+            }
+            freeFrom[j] = from;
+        }
+        return freeFrom;
+    }
+
+    private boolean isFree(Car car, int fromDay, int toDay) {
+        return !store.isBooked(car, fromDay, toDay);
+    }
+
+    private static Alternative single(Alternative.Kind kind, Car car, int startDay, int endDay, int penalty) {
+        List<Booking> bookings = new ArrayList<>(1);
+        bookings.add(proposal(car, startDay, endDay));
+        return new Alternative(kind, bookings, penalty);
+    }
+
+    private static Booking proposal(Car car, int startDay, int endDay) {
+        return Booking.builder()
+                .car(car)
+                .startDate(LocalDate.ofEpochDay(startDay))
+                .endDate(LocalDate.ofEpochDay(endDay))
+                .dailyCost(car.getCostPerDay())
+                .build();
+    }
+}
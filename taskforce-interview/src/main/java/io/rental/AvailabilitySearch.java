@@ -0,0 +1,54 @@
+package io.rental;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Predicate;
+
+/**
+ * Fork/join availability check over a list of candidate cars.
+ * The candidates are split in halves until a slice is small enough to check on one thread, results are
+ * joined left before right so they come back in the order of the candidates.
+ */
+// a task only lives for one search and is never serialised, so its fields need not be serialisable
+@SuppressWarnings("serial")
+class AvailabilitySearch extends RecursiveTask<List<Car>> {
+    static final int SLICE_SIZE = 1024;
+
+    private final List<Car> candidates;
+    private final int from;
+    private final int to;
+    private final Predicate<Car> available;
+
+    AvailabilitySearch(List<Car> candidates, Predicate<Car> available) {
+        this(candidates, 0, candidates.size(), available);
+    }
+
+    private AvailabilitySearch(List<Car> candidates, int from, int to, Predicate<Car> available) {
+        this.candidates = candidates;
+        this.from = from;
+        this.to = to;
+        this.available = available;
+    }
+
+    @Override
+    protected List<Car> compute() {
+        if (to - from <= SLICE_SIZE) {
+            List<Car> results = new ArrayList<>();
+            for (int i = from; i < to; i++) {
+                Car car = candidates.get(i);
+                if (available.test(car)) {
+                    results.add(car);
+                }
+            }
+            return results;
+        }
+
+        int middle = (from + to) >>> 1;
+        AvailabilitySearch right = new AvailabilitySearch(candidates, middle, to, available);
+        right.fork();
+        List<Car> results = new AvailabilitySearch(candidates, from, middle, available).compute();
+        results.addAll(right.join());
+        return results;
+    }
+}
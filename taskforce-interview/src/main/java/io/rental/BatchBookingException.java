@@ -0,0 +1,27 @@
+package io.rental;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Thrown when a batch of bookings is rejected, none of the bookings in the batch have been added.
+ * The rejections are not serialised, a deserialised exception keeps only its reason and message.
+ */
+public class BatchBookingException extends BookingException {
+    private static final long serialVersionUID = 1L;
+
+    private final transient List<BookingRejection> rejections;
+
+    public BatchBookingException(List<BookingRejection> rejections) {
+        super(RejectionReason.BATCH_REJECTED, rejections.size() + " bookings in the batch were rejected");
+        this.rejections = Collections.unmodifiableList(new ArrayList<>(rejections));
+    }
+
+    /**
+     * @return the rejected bookings and why each of them was rejected, empty once deserialised
+     */
+    public List<BookingRejection> getRejections() {
+        return rejections == null ? List.of() : rejections;
+    }
+}
@@ -1,69 +1,177 @@
 package io.rental;
 
 import java.time.LocalDate;
+import java.util.Objects;
 
-public class Booking {
+/**
+ * Immutable booking of a car, safe to share between threads without locking. Dates are held as epoch days,
+ * both inclusive; {@link #getStartDay()} and {@link #getEndDay()} read them without allocating.
+ */
+public final class Booking {
 
-    private Renter renter;
+    private final Renter renter;
 
-    private Car car;
+    private final Car car;
 
-    private LocalDate startDate;
+    private final int startDay;
 
-    private LocalDate endDate;
+    private final int endDay;
 
-    public double getDailyCost() {
-        return dailyCost;
-    }
+    private final double dailyCost;
 
-    public void setDailyCost(double dailyCost) {
-        this.dailyCost = dailyCost;
+    private final boolean isMaintenance;
+
+    private final int hash;
+
+    private Booking(Builder builder) {
+        this.car = Objects.requireNonNull(builder.car, "car");
+        this.startDay = (int) Objects.requireNonNull(builder.startDate, "startDate").toEpochDay();
+        this.endDay = (int) Objects.requireNonNull(builder.endDate, "endDate").toEpochDay();
+        if (endDay < startDay) {
+            throw new IllegalArgumentException("Booking ends before it starts");
+        }
+        this.renter = builder.renter;
+        this.dailyCost = builder.dailyCost;
+        this.isMaintenance = builder.maintenance;
+        // by hand, Objects.hash would box every field on the booking path
+        int h = car.getRegistrationNumber().hashCode();
+        h = 31 * h + startDay;
+        h = 31 * h + endDay;
+        h = 31 * h + Objects.hashCode(renter);
+        h = 31 * h + Double.hashCode(dailyCost);
+        this.hash = 31 * h + Boolean.hashCode(isMaintenance);
     }
 
-    private double dailyCost;
+    public static Builder builder() {
+        return new Builder();
+    }
 
-    private boolean isMaintenance = false;
+    /**
+     * @return builder holding the fields of this booking, e.g. to book the same car for other dates
+     */
+    public Builder toBuilder() {
+        return new Builder()
+                .car(car)
+                .renter(renter)
+                .startDate(getStartDate())
+                .endDate(getEndDate())
+                .dailyCost(dailyCost)
+                .maintenance(isMaintenance);
+    }
 
-    public Booking() {
+    public double getDailyCost() {
+        return dailyCost;
     }
 
     public boolean isMaintenance() {
         return isMaintenance;
     }
 
-    public void setMaintenance(boolean maintenance) {
-        isMaintenance = maintenance;
-    }
-
     public LocalDate getStartDate() {
-        return startDate;
+        return LocalDate.ofEpochDay(startDay);
     }
 
-    public void setStartDate(LocalDate startDate) {
-        this.startDate = startDate;
+    public LocalDate getEndDate() {
+        return LocalDate.ofEpochDay(endDay);
     }
 
-    public LocalDate getEndDate() {
-        return endDate;
+    /**
+     * @return first day of the booking as an epoch day
+     */
+    public int getStartDay() {
+        return startDay;
     }
 
-    public void setEndDate(LocalDate endDate) {
-        this.endDate = endDate;
+    /**
+     * @return last day of the booking as an epoch day
+     */
+    public int getEndDay() {
+        return endDay;
     }
 
+    /**
+     * @return the renter or null for maintenance and anonymous bookings
+     */
     public Renter getRenter() {
         return renter;
     }
 
-    public void setRenter(Renter renter) {
-        this.renter = renter;
-    }
-
     public Car getCar() {
         return car;
     }
 
-    public void setCar(Car car) {
-        this.car = car;
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Booking)) {
+            return false;
+        }
+        Booking booking = (Booking) o;
+        return hash == booking.hash && startDay == booking.startDay && endDay == booking.endDay
+                && isMaintenance == booking.isMaintenance && Double.compare(dailyCost, booking.dailyCost) == 0
+                && car.getRegistrationNumber().equals(booking.car.getRegistrationNumber()) && Objects.equals(renter, booking.renter);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return car.getRegistrationNumber() + " " + getStartDate() + ".." + getEndDate() + (isMaintenance ? " maintenance" : "");
+    }
+
+    public static final class Builder {
+        private Renter renter;
+        private Car car;
+        private LocalDate startDate;
+        private LocalDate endDate;
+        private double dailyCost;
+        private boolean maintenance;
+
+        private Builder() {
+        }
+
+        public Builder renter(Renter renter) {
+            this.renter = renter;
+            return this;
+        }
+
+        public Builder car(Car car) {
+            this.car = car;
+            return this;
+        }
+
+        public Builder startDate(LocalDate startDate) {
+            this.startDate = startDate;
+            return this;
+        }
+
+        public Builder endDate(LocalDate endDate) {
+            this.endDate = endDate;
+            return this;
+        }
+
+        public Builder dailyCost(double dailyCost) {
+            this.dailyCost = dailyCost;
+            return this;
+        }
+
+        public Builder maintenance(boolean maintenance) {
+            this.maintenance = maintenance;
+            return this;
+        }
+
+        /**
+         * @return the booking
+         * @throws NullPointerException if the car or a date is missing
+         * @throws IllegalArgumentException if the booking ends before it starts
+         */
+        public Booking build() {
+            return new Booking(this);
+        }
     }
 }
@@ -0,0 +1,46 @@
+package io.rental;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Bookings bucketed by the day they start, so a window of days is a range read over the buckets
+ * that already comes back in start date order. Within a day bookings keep the order they were added in.
+ */
+class BookingCalendar {
+
+    private final NavigableMap<LocalDate, Queue<Booking>> bookingsByStartDay = new ConcurrentSkipListMap<>();
+
+    void add(Booking booking) {
+        bookingsByStartDay.computeIfAbsent(booking.getStartDate(), d -> new ConcurrentLinkedQueue<>()).add(booking);
+    }
+
+    void remove(Booking booking) {
+        Queue<Booking> day = bookingsByStartDay.get(booking.getStartDate());
+        if (day != null) {
+            day.remove(booking);
+        }
+    }
+
+    /**
+     * Find the bookings starting between two dates, both inclusive.
+     * @param fromDate first start day
+     * @param toDate last start day
+     * @return bookings sorted by start date
+     */
+    List<Booking> startingBetween(LocalDate fromDate, LocalDate toDate) {
+        List<Booking> results = new ArrayList<>();
+        if (toDate.isBefore(fromDate)) {
+            return results;
+        }
+        for (Queue<Booking> day : bookingsByStartDay.subMap(fromDate, true, toDate, true).values()) {
+            results.addAll(day);
+        }
+        return results;
+    }
+}
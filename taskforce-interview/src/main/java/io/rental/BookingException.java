@@ -0,0 +1,24 @@
+package io.rental;
+
+public class BookingException extends Exception {
+    private static final long serialVersionUID = 1L;
+
+    private final RejectionReason reason;
+
+    public BookingException(String message) {
+        this(RejectionReason.OTHER, message);
+    }
+
+    public BookingException(RejectionReason reason) {
+        this(reason, reason.getMessage());
+    }
+
+    public BookingException(RejectionReason reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+
+    public RejectionReason getReason() {
+        return reason;
+    }
+}
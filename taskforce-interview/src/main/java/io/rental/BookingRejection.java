@@ -0,0 +1,22 @@
+package io.rental;
+
+/**
+ * A booking turned away from a batch together with the reason it was rejected.
+ */
+public class BookingRejection {
+    private final Booking booking;
+    private final RejectionReason reason;
+
+    public BookingRejection(Booking booking, RejectionReason reason) {
+        this.booking = booking;
+        this.reason = reason;
+    }
+
+    public Booking getBooking() {
+        return booking;
+    }
+
+    public RejectionReason getReason() {
+        return reason;
+    }
+}
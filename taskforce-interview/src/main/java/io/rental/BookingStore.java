@@ -0,0 +1,149 @@
+package io.rental;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Where a {@link CarRentalCompany} keeps its bookings and how it finds them again.
+ * The company serialises {@link #add(Booking)} per car and only adds bookings it has checked against
+ * {@link #isBooked}; lookups may run concurrently with adds and must not block.
+ */
+public interface BookingStore {
+
+    // returned by the gap lookups when there is no such day
+    int NONE = Integer.MIN_VALUE;
+
+    /**
+     * Inclusive check whether the car is booked on any day between the two dates.
+     * @param car car to check
+     * @param fromDate first day of the period
+     * @param toDate last day of the period
+     * @return true if the car is booked on at least one day of the period
+     */
+    default boolean isBooked(Car car, LocalDate fromDate, LocalDate toDate) {
+        return isBooked(car, (int) fromDate.toEpochDay(), (int) toDate.toEpochDay());
+    }
+
+    /**
+     * Inclusive check whether the car is booked on any day between two epoch days, see
+     * {@link #isBooked(Car, LocalDate, LocalDate)}.
+     */
+    boolean isBooked(Car car, int fromDay, int toDay);
+
+    /**
+     * Find the earliest start on or after a day from which the car is free for a number of days.
+     * @param car car to check
+     * @param fromDay earliest start as an epoch day
+     * @param days length of the period
+     * @param latestStart latest acceptable start as an epoch day
+     * @return the start or {@link #NONE} if there is none up to the latest start
+     */
+    default int firstFreeStart(Car car, int fromDay, int days, int latestStart) {
+        for (int start = fromDay; start <= latestStart; start++) {
+            if (!isBooked(car, start, start + days - 1)) {
+                return start;
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * Find the latest start on or before a day from which the car is free for a number of days.
+     * @param car car to check
+     * @param fromDay latest start as an epoch day
+     * @param days length of the period
+     * @param earliestStart earliest acceptable start as an epoch day
+     * @return the start or {@link #NONE} if there is none down to the earliest start
+     */
+    default int lastFreeStart(Car car, int fromDay, int days, int earliestStart) {
+        for (int start = fromDay; start >= earliestStart; start--) {
+            if (!isBooked(car, start, start + days - 1)) {
+                return start;
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * @param car car to check
+     * @param fromDay first day of the run as an epoch day
+     * @param latestDay last day of interest as an epoch day
+     * @return last day of the car's free run starting on the given day capped at the latest day, or
+     * {@link #NONE} if the car is booked on the first day
+     */
+    default int lastFreeDay(Car car, int fromDay, int latestDay) {
+        int day = fromDay;
+        while (day <= latestDay && !isBooked(car, day, day)) {
+            day++;
+        }
+        return day == fromDay ? NONE : day - 1;
+    }
+
+    /**
+     * Mark the car's bookings in a window as a difference array: one added on the first day and one taken
+     * away after the last day of every booking, clipped to the window, so a running sum counts the car.
+     * @param car car whose bookings are marked
+     * @param firstDay first day of the window as an epoch day
+     * @param difference one slot per day of the window and one more
+     */
+    default void markBookedDays(Car car, int firstDay, int[] difference) {
+        int lastDay = firstDay + difference.length - 2;
+        for (Booking booking : bookingsOf(car.getRegistrationNumber())) {
+            if (booking.getStartDay() <= lastDay && booking.getEndDay() >= firstDay) {
+                difference[Math.max(booking.getStartDay(), firstDay) - firstDay]++;
+                difference[Math.min(booking.getEndDay(), lastDay) - firstDay + 1]--;
+            }
+        }
+    }
+
+    /**
+     * @param booking booking that does not clash with the other bookings of its car
+     */
+    void add(Booking booking);
+
+    /**
+     * Add bookings of one car in bulk, e.g. when importing history.
+     * @param carBookings bookings of a single car sorted by start date, none clashing with each other
+     *                    or with the car's other bookings
+     */
+    default void addAll(List<Booking> carBookings) {
+        carBookings.forEach(this::add);
+    }
+
+    /**
+     * Find the bookings starting between two dates, both inclusive.
+     * @param fromDate first start day
+     * @param toDate last start day
+     * @return bookings sorted by start date
+     */
+    List<Booking> startingBetween(LocalDate fromDate, LocalDate toDate);
+
+    /**
+     * @return every booking in the order they were added
+     */
+    List<Booking> bookings();
+
+    /**
+     * @param registrationNumber registration number of the car
+     * @return bookings of the car sorted by start date
+     */
+    default List<Booking> bookingsOf(String registrationNumber) {
+        return bookings().stream()
+                .filter(b -> b.getCar().getRegistrationNumber().equals(registrationNumber))
+                .sorted(Comparator.comparingInt(Booking::getStartDay))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Forget every booking of a car, e.g. when the car moves to another engine. The company serialises
+     * removals with the car's adds.
+     * @param registrationNumber registration number of the car
+     * @return the removed bookings sorted by start date
+     * @throws UnsupportedOperationException if the store cannot remove bookings
+     */
+    default List<Booking> removeBookingsOf(String registrationNumber) {
+        throw new UnsupportedOperationException("Bookings cannot be removed from " + getClass().getSimpleName());
+    }
+}
@@ -1,18 +1,40 @@
 package io.rental;
 
-public class Car {
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
+import java.util.Objects;
+
+/**
+ * Immutable car, safe to share between threads without locking. Make, model and rental group are interned,
+ * so a large fleet holds each name once; a new price means a new car, see {@link #withCostPerDay(double)}.
+ */
+public final class Car {
+    // shared by every car, names no car uses any more can be collected
+    private static final Interner<String> NAMES = Interners.newWeakInterner();
+
     private final String make;
     private final String model;
     private final String registrationNumber;
-    private String rentalGroup;
-    private double costPerDay;
+    private final String rentalGroup;
+    private final double costPerDay;
+    private final int hash;
 
     public Car(String make, String model, String registrationNumber, String rentalGroup, double costPerDay) {
-        this.make = make;
-        this.model = model;
-        this.registrationNumber = registrationNumber;
-        this.rentalGroup = rentalGroup;
+        this.make = intern(make);
+        this.model = intern(model);
+        this.registrationNumber = Objects.requireNonNull(registrationNumber, "registrationNumber");
+        this.rentalGroup = intern(rentalGroup);
         this.costPerDay = costPerDay;
+        int h = registrationNumber.hashCode();
+        h = 31 * h + Objects.hashCode(this.make);
+        h = 31 * h + Objects.hashCode(this.model);
+        h = 31 * h + Objects.hashCode(this.rentalGroup);
+        this.hash = 31 * h + Double.hashCode(costPerDay);
+    }
+
+    public static Builder builder() {
+        return new Builder();
     }
 
     public String getRegistrationNumber() {
@@ -31,15 +53,83 @@ public class Car {
         return rentalGroup;
     }
 
-    public void setRentalGroup(String rentalGroup) {
-        this.rentalGroup = rentalGroup;
-    }
-
     public double getCostPerDay() {
         return costPerDay;
     }
 
-    public void setCostPerDay(double costPerDay) {
-        this.costPerDay = costPerDay;
+    /**
+     * @param costPerDay daily cost of the copy
+     * @return copy of this car with a different daily cost
+     */
+    public Car withCostPerDay(double costPerDay) {
+        return new Car(make, model, registrationNumber, rentalGroup, costPerDay);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Car)) {
+            return false;
+        }
+        Car car = (Car) o;
+        // interned names compare by reference
+        return hash == car.hash && make == car.make && model == car.model && rentalGroup == car.rentalGroup
+                && Double.compare(costPerDay, car.costPerDay) == 0 && registrationNumber.equals(car.registrationNumber);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return registrationNumber + " " + make + " " + model + " (" + rentalGroup + ", " + costPerDay + ")";
+    }
+
+    private static String intern(String name) {
+        return name == null ? null : NAMES.intern(name);
+    }
+
+    public static final class Builder {
+        private String make;
+        private String model;
+        private String registrationNumber;
+        private String rentalGroup;
+        private double costPerDay;
+
+        private Builder() {
+        }
+
+        public Builder make(String make) {
+            this.make = make;
+            return this;
+        }
+
+        public Builder model(String model) {
+            this.model = model;
+            return this;
+        }
+
+        public Builder registrationNumber(String registrationNumber) {
+            this.registrationNumber = registrationNumber;
+            return this;
+        }
+
+        public Builder rentalGroup(String rentalGroup) {
+            this.rentalGroup = rentalGroup;
+            return this;
+        }
+
+        public Builder costPerDay(double costPerDay) {
+            this.costPerDay = costPerDay;
+            return this;
+        }
+
+        public Car build() {
+            return new Car(make, model, registrationNumber, rentalGroup, costPerDay);
+        }
     }
 }
@@ -0,0 +1,29 @@
+package io.rental;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One page of a search, see {@link CarRentalCompany#searchPage}.
+ */
+public final class CarPage {
+    private final List<Car> cars;
+    private final String nextCursor;
+
+    CarPage(List<Car> cars, String nextCursor) {
+        this.cars = Collections.unmodifiableList(cars);
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Car> getCars() {
+        return cars;
+    }
+
+    /**
+     * @return cursor of the page after this one, or null if this is the last page. A full page always has a
+     * cursor, so the page after it may turn out to be empty.
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
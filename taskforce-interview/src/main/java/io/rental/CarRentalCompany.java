@@ -1,63 +1,413 @@
 package io.rental;
 
+import com.google.common.util.concurrent.Striped;
+import io.rental.metrics.Operation;
+import io.rental.metrics.RentalMetrics;
+import io.utils.EpochDayPeriod;
+
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Car rental engine.
+ * Reads (searches, upcoming rentals, pricing) are lock-free and never wait for writers. Bookings are
+ * serialised per car through locks striped by registration number, so bookings for different cars
+ * commit in parallel while a car can never be double booked.
+ */
+public class CarRentalCompany {
+    private static final int CAR_LOCK_STRIPES = 64;
+    private static final int RENTER_LOCK_STRIPES = 64;
+    private static final int UPCOMING_RENTAL_DAYS = 7;
+    private static final int DEFAULT_PARALLEL_SEARCH_THRESHOLD = 4 * AvailabilitySearch.SLICE_SIZE;
 
-import static java.util.stream.Collectors.*;
+    private final FleetIndex fleet = new FleetIndex();
 
-public class CarRentalCompany {
-    private List<Car> cars = new ArrayList<>();
+    private final BookingStore store;
+
+    private final AlternativeSearch alternativeSearch;
+
+    private final CarSearch carSearch;
+
+    // bookings of every renter by driving license number
+    private final RenterIndex renters = new RenterIndex();
+
+    // running daily cost totals per rental group
+    private final RentalGroupPrices prices = new RentalGroupPrices();
+
+    // serialise bookings and fleet changes per car
+    private final Striped<Lock> carLocks = Striped.lock(CAR_LOCK_STRIPES);
+
+    // serialise concurrency checks per renter, only taken after the car locks and only while there is a limit
+    private final Striped<Lock> renterLocks = Striped.lock(RENTER_LOCK_STRIPES);
+
+    private final List<RentalEventListener> listeners = new CopyOnWriteArrayList<>();
+
+    // searches with at least this many candidate cars are checked in parallel on the search pool
+    private volatile ForkJoinPool searchPool = ForkJoinPool.commonPool();
+    private volatile int parallelSearchThreshold = DEFAULT_PARALLEL_SEARCH_THRESHOLD;
+
+    // results of dated searches, null while caching is off
+    private volatile SearchCache searchCache;
 
-    private List<Booking> bookings = new ArrayList<Booking>();
+    // null while metrics are off
+    private volatile RentalMetrics metrics;
+
+    // null while changes are not logged
+    private volatile ChangeLog changeLog;
+
+    // 0 while renters may have any number of rentals at the same time
+    private volatile int maxConcurrentRentals;
+
+    public CarRentalCompany() {
+        this(new HeapBookingStore());
+    }
+
+    /**
+     * @param store store to keep the bookings in
+     */
+    public CarRentalCompany(BookingStore store) {
+        this.store = store;
+        this.alternativeSearch = new AlternativeSearch(fleet, store);
+        this.carSearch = new CarSearch(fleet, store);
+    }
 
     public List<Booking> getBookings(){
-        return bookings;
+        return Collections.unmodifiableList(store.bookings());
     }
 
-    public void addCar(Car car) {
-        cars.add(car);
+    /**
+     * @param registrationNumber registration number of the car
+     * @return bookings of the car sorted by start date
+     */
+    public List<Booking> getBookings(String registrationNumber){
+        return Collections.unmodifiableList(store.bookingsOf(registrationNumber));
     }
 
-    /* Story 1 find car to rent */
-    public synchronized List<Car> matchingCars(Criteria criteria) {
-        List<Car> results = new ArrayList<Car>();
+    /**
+     * @return snapshot of the fleet ordered by registration number
+     */
+    public List<Car> getCars(){
+        return Collections.unmodifiableList(new ArrayList<>(fleet.all()));
+    }
+
+    /**
+     * @param registrationNumber registration number of the car
+     * @return the car or null if it is not in the fleet
+     */
+    public Car getCar(String registrationNumber){
+        return fleet.get(registrationNumber);
+    }
 
-        // if no criteria is set then return all cars as match
-        if (criteria.getMake()==null && criteria.getModel()==null){
-            return cars;
+    /**
+     * @param drivingLicenseNumber driving license number of the renter
+     * @return the renter as entered with their latest booking, or null if they have no bookings
+     */
+    public Renter getRenter(String drivingLicenseNumber){
+        return renters.history(drivingLicenseNumber).renter();
+    }
+
+    /**
+     * @param drivingLicenseNumber driving license number of the renter
+     * @return bookings of the renter sorted by start date
+     */
+    public List<Booking> getRenterBookings(String drivingLicenseNumber){
+        return renters.history(drivingLicenseNumber).all();
+    }
+
+    /**
+     * @param drivingLicenseNumber driving license number of the renter
+     * @return rentals of the renter that ended before today sorted by end date
+     */
+    public List<Booking> pastRentals(String drivingLicenseNumber){
+        return renters.history(drivingLicenseNumber).past((int) LocalDate.now().toEpochDay());
+    }
+
+    /**
+     * @param drivingLicenseNumber driving license number of the renter
+     * @return rentals of the renter running today sorted by start date
+     */
+    public List<Booking> currentRentals(String drivingLicenseNumber){
+        return renters.history(drivingLicenseNumber).current((int) LocalDate.now().toEpochDay());
+    }
+
+    /**
+     * @param drivingLicenseNumber driving license number of the renter
+     * @return rentals of the renter starting after today sorted by start date
+     */
+    public List<Booking> futureRentals(String drivingLicenseNumber){
+        return renters.history(drivingLicenseNumber).future((int) LocalDate.now().toEpochDay());
+    }
+
+    public void addListener(RentalEventListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(RentalEventListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Run an action while no change to the fleet or the bookings can commit, e.g. to copy a consistent
+     * snapshot of the state. Searches carry on while the action runs.
+     * @param action action to run
+     */
+    public void whileWritesPaused(Runnable action) {
+        // all locks are taken in stripe order, the same order bulkGet hands them out to batches
+        List<Lock> locks = new ArrayList<>(carLocks.size());
+        for (int i = 0; i < carLocks.size(); i++) {
+            locks.add(carLocks.getAt(i));
+        }
+        locks.forEach(Lock::lock);
+        try {
+            action.run();
+        } finally {
+            locks.forEach(Lock::unlock);
         }
+    }
 
-        for (Car c : cars){
-            // check whether make and model matches
-            if (c.getMake().equals(criteria.getMake()) && c.getModel().equals(criteria.getModel())) {
+    public void addCar(Car car) {
+        Lock lock = carLocks.get(car.getRegistrationNumber());
+        lock(lock);
+        try {
+            ChangeLog log = changeLog;
+            if (log != null) {
+                log.carAdded(car);
+            }
+            Car previous = fleet.add(car);
+            if (previous != null) {
+                prices.remove(previous.getRentalGroup(), previous.getCostPerDay());
+            }
+            prices.add(car.getRentalGroup(), car.getCostPerDay());
+            invalidateSearches(previous);
+            invalidateSearches(car);
+            listeners.forEach(l -> l.carAdded(car));
+        } finally {
+            lock.unlock();
+        }
+    }
 
-                boolean carBooked = false;
+    /**
+     * Take a car out of the fleet, its bookings are kept.
+     * @param registrationNumber registration number of the car
+     * @return the removed car or null if there is no such car
+     */
+    public Car removeCar(String registrationNumber) {
+        Lock lock = carLocks.get(registrationNumber);
+        lock(lock);
+        try {
+            ChangeLog log = changeLog;
+            Car leaving = fleet.get(registrationNumber);
+            if (log != null && leaving != null) {
+                log.carRemoved(leaving);
+            }
+            Car car = fleet.remove(registrationNumber);
+            if (car != null) {
+                prices.remove(car.getRentalGroup(), car.getCostPerDay());
+                invalidateSearches(car);
+                listeners.forEach(l -> l.carRemoved(car));
+            }
+            return car;
+        } finally {
+            lock.unlock();
+        }
+    }
 
-                // check if car is already booked for the period
-                for (Booking b : bookings) {
-                    if (c.getRegistrationNumber().matches(b.getCar().getRegistrationNumber()) && isBooked(criteria, b)) {
-                        carBooked = true;
-                        break;
-                    }
-                }
+    /**
+     * Forget every booking of a car, e.g. once the car and its bookings have moved to another company.
+     * Unlike {@link #removeCar(String)} this also drops the car's history.
+     * @param registrationNumber registration number of the car
+     * @return the removed bookings sorted by start date
+     * @throws UnsupportedOperationException if the booking store cannot remove bookings
+     */
+    public List<Booking> removeBookings(String registrationNumber) {
+        Lock lock = carLocks.get(registrationNumber);
+        lock(lock);
+        try {
+            ChangeLog log = changeLog;
+            if (log != null && !store.bookingsOf(registrationNumber).isEmpty()) {
+                log.bookingsRemoved(registrationNumber);
+            }
+            List<Booking> removed = store.removeBookingsOf(registrationNumber);
+            if (!removed.isEmpty()) {
+                removed.forEach(renters::remove);
+                invalidateSearches(removed.get(0).getCar());
+                listeners.forEach(l -> l.bookingsRemoved(registrationNumber, removed));
+            }
+            return removed;
+        } finally {
+            lock.unlock();
+        }
+    }
 
-                // if make and model matches and car is not booked then add to results
-                if (!carBooked) {
-                    results.add(c);
-                }
+    /**
+     * Change the daily cost of a car in the fleet.
+     * @param registrationNumber registration number of the car
+     * @param costPerDay new daily cost
+     * @throws BookingException if there is no such car
+     */
+    public void updateCarPrice(String registrationNumber, double costPerDay) throws BookingException {
+        Lock lock = carLocks.get(registrationNumber);
+        lock(lock);
+        try {
+            Car car = fleet.get(registrationNumber);
+            if (car == null) {
+                throw rejected(new BookingException(RejectionReason.UNKNOWN_CAR));
             }
+            // cars are immutable, the repriced car replaces the old one and cached searches holding it
+            Car repriced = car.withCostPerDay(costPerDay);
+            ChangeLog log = changeLog;
+            if (log != null) {
+                log.carPriceChanged(repriced);
+            }
+            fleet.add(repriced);
+            prices.remove(car.getRentalGroup(), car.getCostPerDay());
+            prices.add(repriced.getRentalGroup(), costPerDay);
+            invalidateSearches(car);
+            listeners.forEach(l -> l.carPriceChanged(repriced));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /* Story 1 find car to rent */
+    public List<Car> matchingCars(Criteria criteria) {
+        // candidates come from the fleet index, criteria that are not set match every car
+        // if no dates are set then every candidate is a match, otherwise their schedules are checked
+        RentalMetrics m = metrics;
+        long started = m == null ? 0 : System.nanoTime();
+        List<Car> results;
+        if (criteria.getFromDate() == null || criteria.getToDate() == null) {
+            results = fleet.matching(criteria.getMake(), criteria.getModel(), criteria.getRentalGroup());
+        } else {
+            SearchCache cache = searchCache;
+            results = cache == null ? searchAvailableCars(criteria) : cache.get(criteria, this::searchAvailableCars);
         }
 
+        if (m != null) {
+            m.record(Operation.SEARCH, started);
+        }
         return results;
     }
 
+    /**
+     * Search lazily: cars are taken from the fleet index in the given order and, if both dates are set,
+     * checked for availability only as the stream is consumed, so a limited stream stops checking once it has
+     * enough cars. The stream reflects bookings and fleet changes made while it is consumed.
+     * @param criteria search criteria
+     * @param order order of the cars
+     * @return stream of the matching cars
+     * @throws BookingException if the criteria or the order are missing
+     */
+    public Stream<Car> searchCars(Criteria criteria, SearchOrder order) throws BookingException {
+        if (criteria == null || order == null) {
+            throw rejected(new BookingException(RejectionReason.INVALID_ARGUMENTS));
+        }
+        return carSearch.stream(criteria, order, null);
+    }
+
+    /**
+     * Search one page at a time. Each page starts after the last car of the previous one in the given order,
+     * cars joining or leaving the fleet between pages do not shift the pages.
+     * @param criteria search criteria
+     * @param order order of the cars
+     * @param cursor {@link CarPage#getNextCursor()} of the previous page, or null for the first page
+     * @param pageSize largest number of cars on the page
+     * @return the page
+     * @throws BookingException if the page size is not positive or the cursor is not one of this order
+     */
+    public CarPage searchPage(Criteria criteria, SearchOrder order, String cursor, int pageSize) throws BookingException {
+        if (criteria == null || order == null || pageSize < 1) {
+            throw rejected(new BookingException(RejectionReason.INVALID_ARGUMENTS));
+        }
+        CarSearch.Cursor after = cursor == null ? null : CarSearch.Cursor.parse(order, cursor);
+        if (cursor != null && after == null) {
+            throw rejected(new BookingException(RejectionReason.INVALID_ARGUMENTS));
+        }
+        RentalMetrics m = metrics;
+        long started = m == null ? 0 : System.nanoTime();
+        CarPage page = carSearch.page(criteria, order, after, pageSize);
+        if (m != null) {
+            m.record(Operation.SEARCH, started);
+        }
+        return page;
+    }
+
+    /**
+     * Cache the results of searches with dates. A result is only dropped when a booking for a car it could
+     * contain overlaps its dates, when a car it could contain joins or leaves the fleet, or when the cache
+     * evicts it.
+     * @param searchCache cache to keep results in, or null to turn caching off
+     */
+    public void setSearchCache(SearchCache searchCache) {
+        this.searchCache = searchCache;
+    }
+
+    /**
+     * Time every operation and count rejections by reason. Without metrics an operation only pays a null check.
+     * @param metrics metrics to record into, or null to turn metrics off
+     */
+    public void setMetrics(RentalMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Log every change before it is applied, e.g. to a journal. A change the log fails on is not applied.
+     * @param changeLog log to write changes ahead to, or null to stop logging
+     */
+    public void setChangeLog(ChangeLog changeLog) {
+        this.changeLog = changeLog;
+    }
+
+    /**
+     * @param searchPool pool that checks the availability of large candidate sets in parallel
+     */
+    public void setSearchPool(ForkJoinPool searchPool) {
+        if (searchPool == null) {
+            throw new IllegalArgumentException("A search pool is needed");
+        }
+        this.searchPool = searchPool;
+    }
+
+    /**
+     * @param parallelSearchThreshold number of candidate cars from which a search runs on the search pool,
+     *                                smaller searches stay on the calling thread
+     */
+    public void setParallelSearchThreshold(int parallelSearchThreshold) {
+        if (parallelSearchThreshold < 1) {
+            throw new IllegalArgumentException("Threshold must be positive");
+        }
+        this.parallelSearchThreshold = parallelSearchThreshold;
+    }
+
+    /**
+     * Limit the rentals a renter may have running on the same day, checked when a booking or batch is added.
+     * Restored and imported history is never turned away.
+     * @param maxConcurrentRentals largest number of rentals per renter on any day, or 0 for no limit
+     */
+    public void setMaxConcurrentRentals(int maxConcurrentRentals) {
+        if (maxConcurrentRentals < 0) {
+            throw new IllegalArgumentException("Limit must not be negative");
+        }
+        this.maxConcurrentRentals = maxConcurrentRentals;
+    }
+
     /* Story 2 - find an available car to be rented */
-    public synchronized List<Car> availableCars(String make, String model, LocalDate startDate, LocalDate endDate) throws BookingException {
+    public List<Car> availableCars(String make, String model, LocalDate startDate, LocalDate endDate) throws BookingException {
         if (make == null || model == null || startDate == null || endDate == null){
-            throw new BookingException("Invalid arguments");
+            throw rejected(new BookingException(RejectionReason.INVALID_ARGUMENTS));
         }
 
         Criteria criteria= new Criteria();
@@ -69,94 +419,487 @@ public class CarRentalCompany {
         return matchingCars(criteria);
     }
 
+    /**
+     * Suggest ways to rent when the requested model is not free: the model on dates shifted by up to the
+     * given number of days, other models of its rental group, or two cars one after the other. Cars of the
+     * model that are free come first.
+     * @param make make of the requested car
+     * @param model model of the requested car
+     * @param startDate first day of the rental
+     * @param endDate last day of the rental
+     * @param maxShiftDays number of days the rental may move either way, it never moves before today
+     * @param limit number of alternatives to return
+     * @return alternatives ranked closest to the request first
+     * @throws BookingException if an argument is missing or out of range, or the rental starts in the past
+     */
+    public List<Alternative> suggestAlternatives(String make, String model, LocalDate startDate, LocalDate endDate,
+                                                 int maxShiftDays, int limit) throws BookingException {
+        if (make == null || model == null || startDate == null || endDate == null || endDate.isBefore(startDate)
+                || maxShiftDays < 0 || limit < 1) {
+            throw rejected(new BookingException(RejectionReason.INVALID_ARGUMENTS));
+        }
+        if (startDate.isBefore(LocalDate.now())) {
+            throw rejected(new BookingException(RejectionReason.BOOKING_IN_THE_PAST));
+        }
+
+        RentalMetrics m = metrics;
+        long started = m == null ? 0 : System.nanoTime();
+        List<Alternative> alternatives = alternativeSearch.find(make, model, startDate, endDate, maxShiftDays, limit);
+        if (m != null) {
+            m.record(Operation.ALTERNATIVES, started);
+        }
+        return alternatives;
+    }
+
     /* Story 3 - Booking a car */
-    public synchronized void addBooking(Booking newBooking) throws BookingException {
-        // check if booking is in the past
-        if(newBooking.getStartDate().isBefore(LocalDate.now())){
-            throw new BookingException("Booking is in the past");
-        }
-
-        // check that booking does not clash with existing ones
-        for (Booking b : bookings){
-
-            // check whether booking exists for the same car */
-            if(b.getCar().getRegistrationNumber().equals(newBooking.getCar().getRegistrationNumber())){
-                Criteria c = new Criteria();
-                c.setFromDate(newBooking.getStartDate());
-                c.setToDate(newBooking.getEndDate());
-                if(isBooked(c, b)){
-                    throw new BookingException ("A booking already exists for these dates");
+    public void addBooking(Booking newBooking) throws BookingException {
+        RentalMetrics m = metrics;
+        long started = m == null ? 0 : System.nanoTime();
+        try {
+            // check if booking is in the past
+            if(newBooking.getStartDay() < LocalDate.now().toEpochDay()){
+                throw rejected(new BookingException(RejectionReason.BOOKING_IN_THE_PAST));
+            }
+
+            // check that booking does not clash with existing ones and add it
+            commitBooking(newBooking, true);
+        } finally {
+            if (m != null) {
+                m.record(Operation.BOOKING, started);
+            }
+        }
+    }
+
+    /**
+     * Add a batch of bookings atomically, either every booking is added or none is.
+     * Bookings are grouped by car and sorted by date, so clashes inside the batch and with existing
+     * bookings are found in a single pass over each car's bookings.
+     * @param newBookings bookings to add
+     * @throws BatchBookingException listing every rejected booking with its reason
+     */
+    public void addBookings(Collection<Booking> newBookings) throws BookingException {
+        RentalMetrics m = metrics;
+        long started = m == null ? 0 : System.nanoTime();
+        try {
+            commitBookings(newBookings);
+        } finally {
+            if (m != null) {
+                m.record(Operation.BATCH_BOOKING, started);
+            }
+        }
+    }
+
+    /**
+     * Add a booking from history, e.g. when replaying a journal. Unlike {@link #addBooking(Booking)} the
+     * booking may lie in the past, it must still not clash with the car's other bookings.
+     * @param booking booking to add
+     * @throws BookingException if the booking clashes with an existing one
+     */
+    public void restoreBooking(Booking booking) throws BookingException {
+        commitBooking(booking, false);
+    }
+
+    /**
+     * Add bookings from history in bulk, e.g. when importing a file. Unlike {@link #addBookings(Collection)}
+     * bookings may lie in the past and the batch is not atomic: every booking that clashes is left out and
+     * reported, the others are added. Each car's bookings are sorted once and checked in a single sweep, and
+     * its schedule is rebuilt once for the whole batch.
+     * @param bookings bookings to add
+     * @return the rejected bookings with their reason
+     */
+    public List<BookingRejection> importBookings(Collection<Booking> bookings) {
+        List<BookingRejection> rejections = new ArrayList<>();
+        Map<String, List<Booking>> bookingsByCar = bookingsByCar(bookings, null, rejections);
+
+        List<Lock> locks = new ArrayList<>();
+        carLocks.bulkGet(bookingsByCar.keySet()).forEach(locks::add);
+        locks.forEach(this::lock);
+        try {
+            for (List<Booking> carBookings : bookingsByCar.values()) {
+                List<Booking> accepted = new ArrayList<>(carBookings.size());
+                // start after end, never a real period
+                long previous = Long.MIN_VALUE;
+                for (Booking booking : carBookings) {
+                    long period = EpochDayPeriod.of(booking.getStartDay(), booking.getEndDay());
+                    if (previous != Long.MIN_VALUE && EpochDayPeriod.areOverlapping(previous, period)) {
+                        rejections.add(new BookingRejection(booking, RejectionReason.CLASH_IN_BATCH));
+                    } else if (isBooked(booking.getCar(), booking.getStartDay(), booking.getEndDay())) {
+                        rejections.add(new BookingRejection(booking, RejectionReason.ALREADY_BOOKED));
+                    } else {
+                        accepted.add(booking);
+                        previous = period;
+                    }
                 }
+
+                logged(accepted);
+                store.addAll(accepted);
+                accepted.forEach(this::published);
             }
+        } finally {
+            locks.forEach(Lock::unlock);
         }
 
-        // if checks have passed then add new booking
-        bookings.add(newBooking);
+        RentalMetrics m = metrics;
+        if (m != null) {
+            rejections.forEach(r -> m.recordRejection(r.getReason()));
+        }
+        return rejections;
     }
 
     /* Story 4 - car preparation */
-    public synchronized List<Booking> upcomingRentals(){
-        List<Booking> upcomingRentals = new ArrayList<Booking>();
-
+    public List<Booking> upcomingRentals(){
         // find booking between tomorrow and 7 days from today
-        for (Booking b : bookings) {
-            if (b.getStartDate().isAfter(LocalDate.now()) && b.getStartDate().isBefore(LocalDate.now().plusDays(8))) {
-                upcomingRentals.add(b);
-            }
+        return upcomingRentals(UPCOMING_RENTAL_DAYS);
+    }
+
+    /**
+     * Find the bookings starting between tomorrow and the given number of days from today.
+     * @param days number of days to look ahead
+     * @return bookings sorted by start date
+     */
+    public List<Booking> upcomingRentals(int days){
+        RentalMetrics m = metrics;
+        long started = m == null ? 0 : System.nanoTime();
+        LocalDate today = LocalDate.now();
+        List<Booking> rentals = rentalsStartingBetween(today.plusDays(1), today.plusDays(days));
+        if (m != null) {
+            m.record(Operation.UPCOMING_RENTALS, started);
         }
+        return rentals;
+    }
 
-        /* sort the results by date */
-        upcomingRentals.sort(Comparator.comparing(Booking::getStartDate));
+    /**
+     * Find the bookings starting between two dates, both inclusive.
+     * @param fromDate first start day
+     * @param toDate last start day
+     * @return bookings sorted by start date
+     */
+    public List<Booking> rentalsStartingBetween(LocalDate fromDate, LocalDate toDate){
+        return store.startingBetween(fromDate, toDate);
+    }
 
-        return upcomingRentals;
+    /**
+     * Count the cars of each group that are booked or in maintenance on each day of a range, in one pass over
+     * the fleet's schedules with a difference array per group.
+     * @param fromDate first day
+     * @param days number of days
+     * @param grouping group of a car, e.g. its rental group
+     * @return booked cars per day of every group in the fleet
+     * @throws IllegalArgumentException if the start or grouping is missing or the range has no days
+     */
+    public Map<String, int[]> bookedCarsPerDay(LocalDate fromDate, int days, Function<Car, String> grouping) {
+        if (fromDate == null || days < 1) {
+            throw new IllegalArgumentException("A date range needs a start and at least one day");
+        }
+        if (grouping == null) {
+            throw new IllegalArgumentException("A grouping is needed");
+        }
+        int firstDay = (int) fromDate.toEpochDay();
+        Map<String, int[]> booked = new HashMap<>();
+        Function<String, int[]> newCounts = g -> new int[days + 1];
+        for (Car car : fleet.all()) {
+            store.markBookedDays(car, firstDay, booked.computeIfAbsent(grouping.apply(car), newCounts));
+        }
+        for (int[] counts : booked.values()) {
+            // running sum of the differences, the extra day at the end is never read
+            for (int day = 1; day < days; day++) {
+                counts[day] += counts[day - 1];
+            }
+        }
+        booked.replaceAll((group, counts) -> Arrays.copyOf(counts, days));
+        return booked;
     }
 
     /* Story 5 - car maintenance */
-    public synchronized void registerCarMaintenance (Car car, LocalDate startDate, LocalDate endDate){
+    public void registerCarMaintenance (Car car, LocalDate startDate, LocalDate endDate) throws BookingException {
         // book the car for maintenance
-        Booking maintenanceBooking = new Booking();
-        maintenanceBooking.setCar(car);
-        maintenanceBooking.setStartDate(startDate);
-        maintenanceBooking.setEndDate(endDate);
-        maintenanceBooking.setMaintenance(true);
-
-        bookings.add(maintenanceBooking);
+        Booking maintenanceBooking = Booking.builder()
+                .car(car)
+                .startDate(startDate)
+                .endDate(endDate)
+                .maintenance(true)
+                .build();
+
+        RentalMetrics m = metrics;
+        long started = m == null ? 0 : System.nanoTime();
+        try {
+            commitBooking(maintenanceBooking, false);
+        } finally {
+            if (m != null) {
+                m.record(Operation.MAINTENANCE, started);
+            }
+        }
     }
 
     /* Story 6 - Rental Pricing */
-    public synchronized List<Car> getMatchingCarsIncludingBlendedPrice(String make, String model, LocalDate startDate, LocalDate endDate) throws BookingException {
+    public List<Car> getMatchingCarsIncludingBlendedPrice(String make, String model, LocalDate startDate, LocalDate endDate) throws BookingException {
         List<Car> matchingCars = availableCars(make, model, startDate, endDate);
 
-        // add blended price to the cars;
-        Map<String, Double> blendedPrices = getBlendedPrice();
+        // quote the blended price on copies of the cars, the fleet keeps its own rates
+        List<Car> quotes = new ArrayList<Car>(matchingCars.size());
         for(Car car: matchingCars){
-            car.setCostPerDay(blendedPrices.get(car.getRentalGroup()));
+            Double blendedPrice = prices.blendedPrice(car.getRentalGroup());
+            quotes.add(blendedPrice == null ? car : car.withCostPerDay(blendedPrice));
         }
 
-        return matchingCars;
+        return quotes;
     }
 
     public Map<String, Double> getBlendedPrice(){
-        List<Car> blendedPrices = new ArrayList<Car>();
+        RentalMetrics m = metrics;
+        long started = m == null ? 0 : System.nanoTime();
+        Map<String, Double> blendedPrices = prices.blendedPrices();
+        if (m != null) {
+            m.record(Operation.BLENDED_PRICE, started);
+        }
+        return blendedPrices;
+    }
+
+    /**
+     * @param rentalGroup rental group to price
+     * @return average daily cost of the cars in the group or null if the group has no cars
+     */
+    public Double getBlendedPrice(String rentalGroup){
+        RentalMetrics m = metrics;
+        long started = m == null ? 0 : System.nanoTime();
+        Double blendedPrice = prices.blendedPrice(rentalGroup);
+        if (m != null) {
+            m.record(Operation.BLENDED_PRICE, started);
+        }
+        return blendedPrice;
+    }
+
+    /**
+     * @return total daily cost and number of cars of every rental group, e.g. to blend prices across companies
+     */
+    public Map<String, RentalGroupTotal> getRentalGroupTotals(){
+        return prices.totals();
+    }
+
+    // Utility function to check which cars matching the criteria are free for the whole period
+    private List<Car> searchAvailableCars(Criteria criteria) {
+        List<Car> candidates = fleet.matching(criteria.getMake(), criteria.getModel(), criteria.getRentalGroup());
+        int fromDay = (int) criteria.getFromDate().toEpochDay();
+        int toDay = (int) criteria.getToDate().toEpochDay();
+        ForkJoinPool pool = searchPool;
+        if (candidates.size() >= parallelSearchThreshold && pool.getParallelism() > 1) {
+            return pool.invoke(new AvailabilitySearch(candidates, c -> !isBooked(c, fromDay, toDay)));
+        }
+
+        List<Car> results = new ArrayList<Car>();
+        for (Car c : candidates){
+            // if car is not booked then add to results
+            if (!isBooked(c, fromDay, toDay)) {
+                results.add(c);
+            }
+        }
+
+        return results;
+    }
+
+    // Utility function to check whether the car is booked between two epoch days
+    private boolean isBooked(Car car, int startDay, int endDay) {
+        return store.isBooked(car, startDay, endDay);
+    }
+
+    // Utility function to add a booking once it is known not to clash with the car's schedule, and if asked
+    // not to take its renter over the limit of concurrent rentals
+    private void commitBooking(Booking booking, boolean limitRenter) throws BookingException {
+        String registrationNumber = booking.getCar().getRegistrationNumber();
+
+        // optimistic check without the lock turns clashing bookings away without contending for it
+        if (isBooked(booking.getCar(), booking.getStartDay(), booking.getEndDay())) {
+            throw rejected(new BookingException(RejectionReason.ALREADY_BOOKED));
+        }
 
-        Map<String, Double> map = cars.stream().collect(groupingBy(Car::getRentalGroup, averagingDouble(Car::getCostPerDay)));
+        Lock lock = carLocks.get(registrationNumber);
+        lock(lock);
+        try {
+            // validate again now that no other booking for the car can commit
+            if (isBooked(booking.getCar(), booking.getStartDay(), booking.getEndDay())) {
+                throw rejected(new BookingException(RejectionReason.ALREADY_BOOKED));
+            }
+
+            int limit = limitRenter ? maxConcurrentRentals : 0;
+            Renter renter = booking.getRenter();
+            if (limit == 0 || renter == null) {
+                logged(List.of(booking));
+                store(booking);
+                return;
+            }
 
-        return map;
+            Lock renterLock = renterLocks.get(renter.getDrivingLicenseNumber());
+            lock(renterLock);
+            try {
+                if (renters.history(renter.getDrivingLicenseNumber())
+                        .maxConcurrent(booking.getStartDay(), booking.getEndDay()) >= limit) {
+                    throw rejected(new BookingException(RejectionReason.TOO_MANY_RENTALS));
+                }
+                logged(List.of(booking));
+                store(booking);
+            } finally {
+                renterLock.unlock();
+            }
+        } finally {
+            lock.unlock();
+        }
     }
 
-    // Utility function to check whether the car is booked between two dates
-     private boolean isBooked (Criteria c, Booking b){
+    // Utility function to add a batch of bookings once none of them clash
+    private void commitBookings(Collection<Booking> newBookings) throws BookingException {
+        List<BookingRejection> rejections = new ArrayList<>();
+        Map<String, List<Booking>> bookingsByCar = bookingsByCar(newBookings, LocalDate.now(), rejections);
+
+        // check for clashes inside the batch, after sorting a clash can only be with the previous booking
+        for (List<Booking> carBookings : bookingsByCar.values()) {
+            // start after end, never a real period
+            long previous = Long.MIN_VALUE;
+            for (Iterator<Booking> it = carBookings.iterator(); it.hasNext(); ) {
+                Booking booking = it.next();
+                long period = EpochDayPeriod.of(booking.getStartDay(), booking.getEndDay());
+                if (previous != Long.MIN_VALUE && EpochDayPeriod.areOverlapping(previous, period)) {
+                    rejections.add(new BookingRejection(booking, RejectionReason.CLASH_IN_BATCH));
+                    it.remove();
+                } else {
+                    previous = period;
+                }
+            }
+        }
+
+        // locks come back in a consistent order so concurrent batches cannot deadlock
+        List<Lock> locks = new ArrayList<>();
+        carLocks.bulkGet(bookingsByCar.keySet()).forEach(locks::add);
+        locks.forEach(this::lock);
+        List<Lock> heldRenterLocks = new ArrayList<>();
+        try {
+            for (List<Booking> carBookings : bookingsByCar.values()) {
+                for (Booking booking : carBookings) {
+                    if (isBooked(booking.getCar(), booking.getStartDay(), booking.getEndDay())) {
+                        rejections.add(new BookingRejection(booking, RejectionReason.ALREADY_BOOKED));
+                    }
+                }
+            }
+
+            int limit = maxConcurrentRentals;
+            if (limit > 0) {
+                Map<String, List<Booking>> bookingsByRenter = bookingsByRenter(bookingsByCar.values());
+                renterLocks.bulkGet(bookingsByRenter.keySet()).forEach(heldRenterLocks::add);
+                heldRenterLocks.forEach(this::lock);
+                // each renter's bookings are checked against their history and the batch's earlier bookings
+                bookingsByRenter.forEach((license, renterBookings) -> {
+                    RenterIndex.History history = renters.history(license);
+                    for (Booking booking : renterBookings) {
+                        if (history.maxConcurrent(booking.getStartDay(), booking.getEndDay()) >= limit) {
+                            rejections.add(new BookingRejection(booking, RejectionReason.TOO_MANY_RENTALS));
+                        } else {
+                            history = history.with(booking);
+                        }
+                    }
+                });
+            }
+
+            if (!rejections.isEmpty()) {
+                throw rejected(new BatchBookingException(rejections));
+            }
+
+            List<Booking> accepted = new ArrayList<>(newBookings.size());
+            bookingsByCar.values().forEach(accepted::addAll);
+            logged(accepted);
+            accepted.forEach(this::store);
+        } finally {
+            heldRenterLocks.forEach(Lock::unlock);
+            locks.forEach(Lock::unlock);
+        }
+    }
 
-        LocalDate queryStartDate = c.getFromDate();
-        LocalDate queryEndDate = c.getToDate();
-        LocalDate startDate = b.getStartDate();
-        LocalDate endDate = b.getEndDate();
+    // Utility function to group the bookings with a renter by driving license number sorted by start date
+    private static Map<String, List<Booking>> bookingsByRenter(Collection<List<Booking>> bookingsByCar) {
+        Map<String, List<Booking>> bookingsByRenter = new HashMap<>();
+        for (List<Booking> carBookings : bookingsByCar) {
+            for (Booking booking : carBookings) {
+                if (booking.getRenter() != null) {
+                    bookingsByRenter.computeIfAbsent(booking.getRenter().getDrivingLicenseNumber(), r -> new ArrayList<>()).add(booking);
+                }
+            }
+        }
+        for (List<Booking> renterBookings : bookingsByRenter.values()) {
+            renterBookings.sort(Comparator.comparingInt(Booking::getStartDay));
+        }
+        return bookingsByRenter;
+    }
+
+    // Utility function to group bookings by car sorted by start date, given a day bookings starting before it are rejected
+    private static Map<String, List<Booking>> bookingsByCar(Collection<Booking> bookings, LocalDate notBefore,
+                                                            List<BookingRejection> rejections) {
+        Map<String, List<Booking>> bookingsByCar = new HashMap<>();
+        for (Booking booking : bookings) {
+            if (notBefore != null && booking.getStartDate().isBefore(notBefore)) {
+                rejections.add(new BookingRejection(booking, RejectionReason.BOOKING_IN_THE_PAST));
+            } else {
+                bookingsByCar.computeIfAbsent(booking.getCar().getRegistrationNumber(), r -> new ArrayList<>()).add(booking);
+            }
+        }
+        for (List<Booking> carBookings : bookingsByCar.values()) {
+            carBookings.sort(Comparator.comparingInt(Booking::getStartDay));
+        }
+        return bookingsByCar;
+    }
+
+    // Utility function to write checked bookings ahead to the change log, the caller holds their cars' locks
+    private void logged(List<Booking> bookings) {
+        ChangeLog log = changeLog;
+        if (log != null && !bookings.isEmpty()) {
+            log.bookingsAdded(bookings);
+        }
+    }
+
+    // Utility function to add a checked booking to the indexes, the caller holds the car's lock
+    private void store(Booking booking) {
+        store.add(booking);
+        published(booking);
+    }
+
+    // Utility function to index a stored booking by renter, drop the searches it makes stale and tell the listeners
+    private void published(Booking booking) {
+        renters.add(booking);
+        SearchCache cache = searchCache;
+        if (cache != null) {
+            cache.bookingAdded(booking);
+        }
+        listeners.forEach(l -> l.bookingAdded(booking));
+    }
+
+    // Utility function to take a car lock, timing the wait when the lock is contended and metrics are on
+    private void lock(Lock lock) {
+        if (lock.tryLock()) {
+            return;
+        }
+        RentalMetrics m = metrics;
+        long started = m == null ? 0 : System.nanoTime();
+        lock.lock();
+        if (m != null) {
+            m.recordLockWait(System.nanoTime() - started);
+        }
+    }
+
+    // Utility function to count a rejection by reason before it is thrown, batches count each rejected booking
+    private <E extends BookingException> E rejected(E e) {
+        RentalMetrics m = metrics;
+        if (m != null) {
+            if (e instanceof BatchBookingException) {
+                ((BatchBookingException) e).getRejections().forEach(r -> m.recordRejection(r.getReason()));
+            } else {
+                m.recordRejection(e.getReason());
+            }
+        }
+        return e;
+    }
 
-        /* check that queried dates lies outside of booked dates */
-        if(queryEndDate.isBefore(startDate) || queryStartDate.isAfter(endDate)){
-            return false;
-        }else{
-            return true;
+    // Utility function to drop the cached searches a car joining or leaving the fleet affects
+    private void invalidateSearches(Car car) {
+        SearchCache cache = searchCache;
+        if (cache != null && car != null) {
+            cache.carChanged(car);
         }
     }
 
@@ -0,0 +1,224 @@
+package io.rental;
+
+import io.utils.DayBitmap;
+import io.utils.EpochDayPeriod;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Bookings of a single car held sorted by start date as packed epoch day periods.
+ * Bookings of a car never overlap, so the booking with the latest start on or before a given day
+ * is the only one that can still be running on that day, which makes a clash check one binary search
+ * over a primitive array without any allocation.
+ * Lookups read an immutable snapshot and are lock-free, callers serialise {@link #add(Booking)} for a car
+ * themselves; an add copies the car's arrays, which stay small compared to the whole booking history.
+ * <p>
+ * Queries that fall in the rolling window from today to roughly two years ahead are answered from an
+ * occupancy bitmap instead, with a few word tests. The window moves forward on the first add after it
+ * has fallen a word behind today; queries outside it use the exact search.
+ */
+class CarSchedule {
+    static final int BITMAP_WINDOW_DAYS = 731;
+    static final int NONE = BookingStore.NONE;
+
+    private volatile Snapshot snapshot = new Snapshot(new long[0], new Booking[0], new DayBitmap(today(), BITMAP_WINDOW_DAYS));
+
+    /**
+     * Inclusive check whether any booking of this car covers a day between the two days.
+     * @param fromDay first day of the queried period as an epoch day
+     * @param toDay last day of the queried period as an epoch day
+     * @return true if the car is booked on at least one day of the period
+     */
+    boolean isBooked(int fromDay, int toDay) {
+        Snapshot current = snapshot;
+        if (current.bitmap.covers(fromDay, toDay)) {
+            return current.bitmap.isAnySet(fromDay, toDay);
+        }
+
+        long[] periods = current.periods;
+        int latest = latestStartingOnOrBefore(periods, toDay);
+        return latest >= 0 && EpochDayPeriod.end(periods[latest]) >= fromDay;
+    }
+
+    /**
+     * Find the earliest start on or after a day from which the car is free for a number of days. Each step
+     * jumps past the booking in the way, so the cost grows with the bookings skipped, not with the days.
+     * @param fromDay earliest start as an epoch day
+     * @param days length of the period
+     * @param latestStart latest acceptable start as an epoch day
+     * @return the start or {@link #NONE} if there is none up to the latest start
+     */
+    int firstFreeStart(int fromDay, int days, int latestStart) {
+        long[] periods = snapshot.periods;
+        for (int start = fromDay; start <= latestStart; ) {
+            int blocking = latestStartingOnOrBefore(periods, start + days - 1);
+            if (blocking < 0 || EpochDayPeriod.end(periods[blocking]) < start) {
+                return start;
+            }
+            start = EpochDayPeriod.end(periods[blocking]) + 1;
+        }
+        return NONE;
+    }
+
+    /**
+     * Find the latest start on or before a day from which the car is free for a number of days.
+     * @param fromDay latest start as an epoch day
+     * @param days length of the period
+     * @param earliestStart earliest acceptable start as an epoch day
+     * @return the start or {@link #NONE} if there is none down to the earliest start
+     */
+    int lastFreeStart(int fromDay, int days, int earliestStart) {
+        long[] periods = snapshot.periods;
+        for (int start = fromDay; start >= earliestStart; ) {
+            int blocking = latestStartingOnOrBefore(periods, start + days - 1);
+            if (blocking < 0 || EpochDayPeriod.end(periods[blocking]) < start) {
+                return start;
+            }
+            // the period must end before the blocking booking starts
+            start = EpochDayPeriod.start(periods[blocking]) - days;
+        }
+        return NONE;
+    }
+
+    /**
+     * @param fromDay first day of the run as an epoch day
+     * @param latestDay last day of interest as an epoch day
+     * @return last day of the free run starting on the given day capped at the latest day, or {@link #NONE}
+     * if the car is booked on the first day
+     */
+    int lastFreeDay(int fromDay, int latestDay) {
+        long[] periods = snapshot.periods;
+        int latest = latestStartingOnOrBefore(periods, fromDay);
+        if (latest >= 0 && EpochDayPeriod.end(periods[latest]) >= fromDay) {
+            return NONE;
+        }
+        return latest + 1 < periods.length ? Math.min(latestDay, EpochDayPeriod.start(periods[latest + 1]) - 1) : latestDay;
+    }
+
+    /**
+     * Mark the bookings in a window as a difference array, see {@link BookingStore#markBookedDays}.
+     * Starts from the one booking that can run into the window, found by binary search.
+     */
+    void markBookedDays(int firstDay, int[] difference) {
+        long[] periods = snapshot.periods;
+        int lastDay = firstDay + difference.length - 2;
+        int first = Math.max(0, latestStartingOnOrBefore(periods, firstDay));
+        for (int i = first; i < periods.length && EpochDayPeriod.start(periods[i]) <= lastDay; i++) {
+            int end = EpochDayPeriod.end(periods[i]);
+            if (end >= firstDay) {
+                difference[Math.max(EpochDayPeriod.start(periods[i]), firstDay) - firstDay]++;
+                difference[Math.min(end, lastDay) - firstDay + 1]--;
+            }
+        }
+    }
+
+    /**
+     * @return new list of the car's bookings sorted by start date
+     */
+    List<Booking> bookings() {
+        return new ArrayList<>(Arrays.asList(snapshot.bookings));
+    }
+
+    /**
+     * Drop every booking of the car, callers serialise this with {@link #add(Booking)}.
+     * @return new list of the dropped bookings sorted by start date
+     */
+    List<Booking> clear() {
+        List<Booking> removed = bookings();
+        snapshot = new Snapshot(new long[0], new Booking[0], new DayBitmap(today(), BITMAP_WINDOW_DAYS));
+        return removed;
+    }
+
+    void add(Booking booking) {
+        Snapshot current = snapshot;
+        long period = EpochDayPeriod.of(booking.getStartDay(), booking.getEndDay());
+        int index = latestStartingOnOrBefore(current.periods, EpochDayPeriod.start(period)) + 1;
+
+        int size = current.periods.length;
+        long[] periods = new long[size + 1];
+        Booking[] bookings = new Booking[size + 1];
+        System.arraycopy(current.periods, 0, periods, 0, index);
+        System.arraycopy(current.bookings, 0, bookings, 0, index);
+        periods[index] = period;
+        bookings[index] = booking;
+        System.arraycopy(current.periods, index, periods, index + 1, size - index);
+        System.arraycopy(current.bookings, index, bookings, index + 1, size - index);
+
+        DayBitmap bitmap;
+        if (current.bitmap.getFirstDay() + Long.SIZE <= today()) {
+            // window has fallen behind, rebuild it from today
+            bitmap = new DayBitmap(today(), BITMAP_WINDOW_DAYS);
+            for (long p : periods) {
+                bitmap.set(EpochDayPeriod.start(p), EpochDayPeriod.end(p));
+            }
+        } else {
+            bitmap = current.bitmap.copy();
+            bitmap.set(EpochDayPeriod.start(period), EpochDayPeriod.end(period));
+        }
+
+        snapshot = new Snapshot(periods, bookings, bitmap);
+    }
+
+    /**
+     * Add a run of bookings with one copy of the car's arrays, e.g. when importing history.
+     * @param sorted bookings sorted by start date that clash neither with each other nor with the car's bookings
+     */
+    void addAll(List<Booking> sorted) {
+        if (sorted.isEmpty()) {
+            return;
+        }
+        long[] added = new long[sorted.size()];
+        for (int j = 0; j < added.length; j++) {
+            added[j] = EpochDayPeriod.of(sorted.get(j).getStartDay(), sorted.get(j).getEndDay());
+        }
+
+        Snapshot current = snapshot;
+        int size = current.periods.length + added.length;
+        long[] periods = new long[size];
+        Booking[] bookings = new Booking[size];
+
+        // merge the two sorted runs
+        int i = 0;
+        int j = 0;
+        for (int k = 0; k < size; k++) {
+            if (j == added.length || (i < current.periods.length && current.periods[i] < added[j])) {
+                periods[k] = current.periods[i];
+                bookings[k] = current.bookings[i++];
+            } else {
+                periods[k] = added[j];
+                bookings[k] = sorted.get(j++);
+            }
+        }
+
+        DayBitmap bitmap = new DayBitmap(today(), BITMAP_WINDOW_DAYS);
+        for (long p : periods) {
+            bitmap.set(EpochDayPeriod.start(p), EpochDayPeriod.end(p));
+        }
+        snapshot = new Snapshot(periods, bookings, bitmap);
+    }
+
+    // index of the last period starting on or before the day, -1 if there is none
+    private static int latestStartingOnOrBefore(long[] periods, int day) {
+        int index = Arrays.binarySearch(periods, EpochDayPeriod.latestStartingOn(day));
+        return index >= 0 ? index : -index - 2;
+    }
+
+    private static int today() {
+        return (int) LocalDate.now().toEpochDay();
+    }
+
+    private static final class Snapshot {
+        private final long[] periods;
+        private final Booking[] bookings;
+        private final DayBitmap bitmap;
+
+        private Snapshot(long[] periods, Booking[] bookings, DayBitmap bitmap) {
+            this.periods = periods;
+            this.bookings = bookings;
+            this.bitmap = bitmap;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package io.rental;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Lazy searches over the fleet index: candidates are taken one at a time in the requested order and only
+ * checked for availability when the consumer asks for the next car, so a page or a limited stream stops
+ * checking schedules as soon as it is full.
+ * <p>
+ * In registration order candidates are read straight from the index bucket and a cursor seeks into it. In
+ * price order the candidates after the cursor are put in a heap first, which costs a pass over the bucket but
+ * hands out the cheapest cars without sorting the rest.
+ * <p>
+ * Cursors are keysets, the sort key of the last car of a page: a page starts after it whatever was added to
+ * or removed from the fleet since, so pages never repeat or skip a car that stayed put.
+ */
+class CarSearch {
+    private static final String REGISTRATION_CURSOR = "R:";
+    private static final String PRICE_CURSOR = "P:";
+
+    private final FleetIndex fleet;
+    private final BookingStore store;
+
+    CarSearch(FleetIndex fleet, BookingStore store) {
+        this.fleet = fleet;
+        this.store = store;
+    }
+
+    /**
+     * @param after sort key to start after or null to start with the first car
+     * @return lazy stream of the cars matching the criteria in the given order
+     */
+    Stream<Car> stream(Criteria criteria, SearchOrder order, Cursor after) {
+        Stream<Car> candidates;
+        if (order == SearchOrder.REGISTRATION) {
+            candidates = fleet.stream(criteria.getMake(), criteria.getModel(), criteria.getRentalGroup(),
+                    after == null ? null : after.registrationNumber);
+        } else {
+            // the heap is only built once the stream is consumed
+            candidates = StreamSupport.stream(() -> cheapestFirst(criteria, order, after),
+                    Spliterator.ORDERED | Spliterator.NONNULL, false);
+        }
+
+        LocalDate fromDate = criteria.getFromDate();
+        LocalDate toDate = criteria.getToDate();
+        if (fromDate == null || toDate == null) {
+            return candidates;
+        }
+        int fromDay = (int) fromDate.toEpochDay();
+        int toDay = (int) toDate.toEpochDay();
+        return candidates.filter(car -> !store.isBooked(car, fromDay, toDay));
+    }
+
+    /**
+     * @param after sort key to start after or null for the first page
+     * @param pageSize largest number of cars on the page
+     * @return the page, with a cursor if it is full
+     */
+    CarPage page(Criteria criteria, SearchOrder order, Cursor after, int pageSize) {
+        ArrayList<Car> cars = stream(criteria, order, after).limit(pageSize).collect(Collectors.toCollection(ArrayList::new));
+        String next = cars.size() == pageSize ? Cursor.format(order, cars.get(cars.size() - 1)) : null;
+        return new CarPage(cars, next);
+    }
+
+    // Utility function to hand out the candidates after a cursor cheapest first from a heap
+    private Spliterator<Car> cheapestFirst(Criteria criteria, SearchOrder order, Cursor after) {
+        PriorityQueue<Car> heap = new PriorityQueue<>(order.comparator());
+        fleet.stream(criteria.getMake(), criteria.getModel(), criteria.getRentalGroup(), null)
+                .filter(car -> after == null || after.precedes(car))
+                .forEach(heap::add);
+        return new Spliterators.AbstractSpliterator<>(heap.size(), Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super Car> action) {
+                Car car = heap.poll();
+                if (car == null) {
+                    return false;
+                }
+                action.accept(car);
+                return true;
+            }
+        };
+    }
+
+    // sort key of the last car of a page
+    static final class Cursor {
+        private final double costPerDay;
+        private final String registrationNumber;
+
+        private Cursor(double costPerDay, String registrationNumber) {
+            this.costPerDay = costPerDay;
+            this.registrationNumber = registrationNumber;
+        }
+
+        static String format(SearchOrder order, Car car) {
+            return order == SearchOrder.REGISTRATION
+                    ? REGISTRATION_CURSOR + car.getRegistrationNumber()
+                    : PRICE_CURSOR + car.getCostPerDay() + ":" + car.getRegistrationNumber();
+        }
+
+        /**
+         * @return the cursor or null if it is malformed or belongs to another order
+         */
+        static Cursor parse(SearchOrder order, String cursor) {
+            if (order == SearchOrder.REGISTRATION) {
+                return cursor.startsWith(REGISTRATION_CURSOR) ? new Cursor(0, cursor.substring(REGISTRATION_CURSOR.length())) : null;
+            }
+            int separator = cursor.indexOf(':', PRICE_CURSOR.length());
+            if (!cursor.startsWith(PRICE_CURSOR) || separator < 0) {
+                return null;
+            }
+            try {
+                return new Cursor(Double.parseDouble(cursor.substring(PRICE_CURSOR.length(), separator)), cursor.substring(separator + 1));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        // true if the car comes after the cursor in price order
+        private boolean precedes(Car car) {
+            int byPrice = Double.compare(costPerDay, car.getCostPerDay());
+            return byPrice < 0 || byPrice == 0 && registrationNumber.compareTo(car.getRegistrationNumber()) < 0;
+        }
+    }
+}
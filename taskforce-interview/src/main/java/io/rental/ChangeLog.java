@@ -0,0 +1,29 @@
+package io.rental;
+
+import java.util.List;
+
+/**
+ * Write-ahead log of the changes to a {@link CarRentalCompany}, e.g. a journal.
+ * Unlike a {@link RentalEventListener} the log sees a change before it is applied: it is called on the
+ * committing thread while the car's lock is held and returns once the change is durable. A change the log
+ * fails on, by throwing, is not applied and the caller gets the failure.
+ */
+public interface ChangeLog {
+
+    void carAdded(Car car);
+
+    void carRemoved(Car car);
+
+    void carPriceChanged(Car car);
+
+    /**
+     * Log bookings about to be stored, all of them or none.
+     * @param bookings bookings checked against the schedules and about to be stored
+     */
+    void bookingsAdded(List<Booking> bookings);
+
+    /**
+     * @param registrationNumber registration number of the car whose bookings are about to be removed
+     */
+    void bookingsRemoved(String registrationNumber);
+}
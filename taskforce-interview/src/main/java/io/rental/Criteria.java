@@ -7,6 +7,8 @@ public class Criteria {
 
     private String model;
 
+    private String rentalGroup;
+
     private LocalDate fromDate;
 
     private LocalDate toDate;
@@ -42,4 +44,12 @@ public class Criteria {
     public void setModel(String model) {
         this.model = model;
     }
+
+    public String getRentalGroup() {
+        return rentalGroup;
+    }
+
+    public void setRentalGroup(String rentalGroup) {
+        this.rentalGroup = rentalGroup;
+    }
 }
@@ -0,0 +1,138 @@
+package io.rental;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+
+/**
+ * Secondary indexes over the fleet so that criteria lookups only visit the cars they can match.
+ * Cars are indexed by make and model, by make, by model and by rental group; each bucket is ordered
+ * by registration number so results come back in a stable order.
+ * All buckets are concurrent maps, lookups never block while cars are being added.
+ */
+class FleetIndex {
+
+    private final NavigableMap<String, Car> cars = new ConcurrentSkipListMap<>();
+
+    private final ConcurrentMap<String, ConcurrentMap<String, NavigableMap<String, Car>>> byMakeAndModel = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, NavigableMap<String, Car>> byMake = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, NavigableMap<String, Car>> byModel = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, NavigableMap<String, Car>> byRentalGroup = new ConcurrentHashMap<>();
+
+    /**
+     * Add a car to the indexes, replacing any car with the same registration number.
+     * @param car car to add
+     * @return the replaced car or null
+     */
+    Car add(Car car) {
+        String registrationNumber = car.getRegistrationNumber();
+        Car previous = cars.put(registrationNumber, car);
+        if (previous != null) {
+            removeFromBuckets(previous);
+        }
+        byMakeAndModel.computeIfAbsent(car.getMake(), m -> new ConcurrentHashMap<>())
+                .computeIfAbsent(car.getModel(), m -> new ConcurrentSkipListMap<>())
+                .put(registrationNumber, car);
+        byMake.computeIfAbsent(car.getMake(), m -> new ConcurrentSkipListMap<>()).put(registrationNumber, car);
+        byModel.computeIfAbsent(car.getModel(), m -> new ConcurrentSkipListMap<>()).put(registrationNumber, car);
+        byRentalGroup.computeIfAbsent(car.getRentalGroup(), g -> new ConcurrentSkipListMap<>()).put(registrationNumber, car);
+        return previous;
+    }
+
+    /**
+     * @param registrationNumber registration number of the car to remove
+     * @return the removed car or null if there is no such car
+     */
+    Car remove(String registrationNumber) {
+        Car car = cars.remove(registrationNumber);
+        if (car != null) {
+            removeFromBuckets(car);
+        }
+        return car;
+    }
+
+    Car get(String registrationNumber) {
+        return cars.get(registrationNumber);
+    }
+
+    Collection<Car> all() {
+        return Collections.unmodifiableCollection(cars.values());
+    }
+
+    /**
+     * Find the cars matching every attribute that is set, a null attribute matches any car.
+     * @param make make to match or null
+     * @param model model to match or null
+     * @param rentalGroup rental group to match or null
+     * @return new list of matching cars ordered by registration number
+     */
+    List<Car> matching(String make, String model, String rentalGroup) {
+        List<Car> results = new ArrayList<>();
+        NavigableMap<String, Car> candidates = bucket(make, model, rentalGroup);
+        if (candidates == null) {
+            return results;
+        }
+        for (Car car : candidates.values()) {
+            if (rentalGroup == null || rentalGroup.equals(car.getRentalGroup())) {
+                results.add(car);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Lazily walk the cars matching every attribute that is set, straight from the index bucket.
+     * @param after registration number to start after or null to start with the first car
+     * @return matching cars ordered by registration number, reflecting changes made while it is consumed
+     */
+    Stream<Car> stream(String make, String model, String rentalGroup, String after) {
+        NavigableMap<String, Car> candidates = bucket(make, model, rentalGroup);
+        if (candidates == null) {
+            return Stream.empty();
+        }
+        Stream<Car> cars = (after == null ? candidates : candidates.tailMap(after, false)).values().stream();
+        return rentalGroup == null ? cars : cars.filter(car -> rentalGroup.equals(car.getRentalGroup()));
+    }
+
+    // Utility function to pick the smallest index bucket holding every car the attributes can match
+    private NavigableMap<String, Car> bucket(String make, String model, String rentalGroup) {
+        if (make != null && model != null) {
+            Map<String, NavigableMap<String, Car>> models = byMakeAndModel.get(make);
+            return models == null ? null : models.get(model);
+        } else if (make != null) {
+            return byMake.get(make);
+        } else if (model != null) {
+            return byModel.get(model);
+        } else if (rentalGroup != null) {
+            return byRentalGroup.get(rentalGroup);
+        }
+        return cars;
+    }
+
+    private void removeFromBuckets(Car car) {
+        Map<String, NavigableMap<String, Car>> models = byMakeAndModel.get(car.getMake());
+        if (models != null) {
+            removeFrom(models, car.getModel(), car);
+        }
+        removeFrom(byMake, car.getMake(), car);
+        removeFrom(byModel, car.getModel(), car);
+        removeFrom(byRentalGroup, car.getRentalGroup(), car);
+    }
+
+    private static void removeFrom(Map<String, NavigableMap<String, Car>> index, String key, Car car) {
+        NavigableMap<String, Car> bucket = index.get(key);
+        if (bucket != null) {
+            bucket.remove(car.getRegistrationNumber(), car);
+        }
+    }
+}
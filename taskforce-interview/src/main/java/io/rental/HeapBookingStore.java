@@ -0,0 +1,107 @@
+package io.rental;
+
+import io.utils.OrdinalDictionary;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Bookings held on the heap, indexed per car by start date and bucketed by start day.
+ */
+class HeapBookingStore implements BookingStore {
+
+    private final Queue<Booking> bookings = new ConcurrentLinkedQueue<>();
+
+    // bookings of each car sorted by start date, by the car's registration number ordinal
+    private final OrdinalDictionary<CarSchedule> schedules = new OrdinalDictionary<>();
+
+    // bookings bucketed by start date
+    private final BookingCalendar calendar = new BookingCalendar();
+
+    @Override
+    public boolean isBooked(Car car, int fromDay, int toDay) {
+        CarSchedule schedule = schedules.get(car.getRegistrationNumber());
+        return schedule != null && schedule.isBooked(fromDay, toDay);
+    }
+
+    @Override
+    public int firstFreeStart(Car car, int fromDay, int days, int latestStart) {
+        CarSchedule schedule = schedules.get(car.getRegistrationNumber());
+        return schedule == null ? (fromDay <= latestStart ? fromDay : NONE) : schedule.firstFreeStart(fromDay, days, latestStart);
+    }
+
+    @Override
+    public int lastFreeStart(Car car, int fromDay, int days, int earliestStart) {
+        CarSchedule schedule = schedules.get(car.getRegistrationNumber());
+        return schedule == null ? (fromDay >= earliestStart ? fromDay : NONE) : schedule.lastFreeStart(fromDay, days, earliestStart);
+    }
+
+    @Override
+    public int lastFreeDay(Car car, int fromDay, int latestDay) {
+        CarSchedule schedule = schedules.get(car.getRegistrationNumber());
+        return schedule == null ? latestDay : schedule.lastFreeDay(fromDay, latestDay);
+    }
+
+    @Override
+    public void markBookedDays(Car car, int firstDay, int[] difference) {
+        CarSchedule schedule = schedules.get(car.getRegistrationNumber());
+        if (schedule != null) {
+            schedule.markBookedDays(firstDay, difference);
+        }
+    }
+
+    @Override
+    public void add(Booking booking) {
+        schedule(booking.getCar().getRegistrationNumber()).add(booking);
+        calendar.add(booking);
+        bookings.add(booking);
+    }
+
+    @Override
+    public void addAll(List<Booking> carBookings) {
+        if (carBookings.isEmpty()) {
+            return;
+        }
+        schedule(carBookings.get(0).getCar().getRegistrationNumber()).addAll(carBookings);
+        carBookings.forEach(calendar::add);
+        bookings.addAll(carBookings);
+    }
+
+    @Override
+    public List<Booking> startingBetween(LocalDate fromDate, LocalDate toDate) {
+        return calendar.startingBetween(fromDate, toDate);
+    }
+
+    @Override
+    public List<Booking> bookings() {
+        return new ArrayList<>(bookings);
+    }
+
+    @Override
+    public List<Booking> bookingsOf(String registrationNumber) {
+        CarSchedule schedule = schedules.get(registrationNumber);
+        return schedule == null ? new ArrayList<>() : schedule.bookings();
+    }
+
+    @Override
+    public List<Booking> removeBookingsOf(String registrationNumber) {
+        CarSchedule schedule = schedules.remove(registrationNumber);
+        if (schedule == null) {
+            return new ArrayList<>();
+        }
+        // the car's ordinal goes to the next new car, searches still holding the schedule see it empty
+        List<Booking> removed = schedule.clear();
+        removed.forEach(calendar::remove);
+        bookings.removeIf(b -> b.getCar().getRegistrationNumber().equals(registrationNumber));
+        return removed;
+    }
+
+    // Utility function to find the schedule of a car, the car's first booking gives it an ordinal and a schedule
+    private CarSchedule schedule(String registrationNumber) {
+        CarSchedule schedule = schedules.get(registrationNumber);
+        return schedule != null ? schedule : schedules.get(schedules.add(registrationNumber, new CarSchedule()));
+    }
+}
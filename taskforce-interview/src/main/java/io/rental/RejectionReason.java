@@ -0,0 +1,25 @@
+package io.rental;
+
+/**
+ * Why the engine turned a request away, carried by every {@link BookingException}.
+ */
+public enum RejectionReason {
+    INVALID_ARGUMENTS("Invalid arguments"),
+    BOOKING_IN_THE_PAST("Booking is in the past"),
+    ALREADY_BOOKED("A booking already exists for these dates"),
+    CLASH_IN_BATCH("Booking clashes with another booking in the batch"),
+    BATCH_REJECTED("Bookings in the batch were rejected"),
+    UNKNOWN_CAR("Unknown car"),
+    TOO_MANY_RENTALS("Renter already has the maximum number of concurrent rentals"),
+    OTHER("Rejected");
+
+    private final String message;
+
+    RejectionReason(String message) {
+        this.message = message;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
@@ -0,0 +1,34 @@
+package io.rental;
+
+import java.util.List;
+
+/**
+ * Receives every change committed to a {@link CarRentalCompany}.
+ * Callbacks run on the committing thread while the car's lock is held, so the changes of one car
+ * arrive in commit order; implementations must be quick and must not call back into the company.
+ */
+public interface RentalEventListener {
+
+    default void carAdded(Car car) {
+    }
+
+    default void carRemoved(Car car) {
+    }
+
+    default void carPriceChanged(Car car) {
+    }
+
+    /**
+     * Called for rentals and maintenance alike, maintenance bookings are flagged by {@link Booking#isMaintenance()}.
+     * @param booking the booking that has been added
+     */
+    default void bookingAdded(Booking booking) {
+    }
+
+    /**
+     * @param registrationNumber registration number of the car whose bookings have been removed
+     * @param bookings the removed bookings
+     */
+    default void bookingsRemoved(String registrationNumber, List<Booking> bookings) {
+    }
+}
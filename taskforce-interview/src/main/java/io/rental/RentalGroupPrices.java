@@ -0,0 +1,45 @@
+package io.rental;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Running total and count of the daily cost of the cars in each rental group, so the blended
+ * (average) price of a group is available in O(1) however large the fleet is.
+ * Each group's total is replaced atomically, readers always see a sum and count that belong together.
+ */
+class RentalGroupPrices {
+
+    private final ConcurrentMap<String, RentalGroupTotal> totals = new ConcurrentHashMap<>();
+
+    void add(String rentalGroup, double costPerDay) {
+        totals.merge(rentalGroup, new RentalGroupTotal(costPerDay, 1), RentalGroupTotal::plus);
+    }
+
+    void remove(String rentalGroup, double costPerDay) {
+        // returning null drops the group once its last car has gone
+        totals.computeIfPresent(rentalGroup,
+                (g, total) -> total.getCount() == 1 ? null : total.plus(new RentalGroupTotal(-costPerDay, -1)));
+    }
+
+    /**
+     * @param rentalGroup rental group to price
+     * @return average daily cost of the group's cars or null if the group has no cars
+     */
+    Double blendedPrice(String rentalGroup) {
+        RentalGroupTotal total = totals.get(rentalGroup);
+        return total == null ? null : total.getBlendedPrice();
+    }
+
+    Map<String, Double> blendedPrices() {
+        Map<String, Double> prices = new HashMap<>();
+        totals.forEach((group, total) -> prices.put(group, total.getBlendedPrice()));
+        return prices;
+    }
+
+    Map<String, RentalGroupTotal> totals() {
+        return new HashMap<>(totals);
+    }
+}
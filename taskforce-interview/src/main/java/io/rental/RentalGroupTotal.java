@@ -0,0 +1,34 @@
+package io.rental;
+
+/**
+ * Total daily cost and number of the cars in a rental group, the blended price is their ratio.
+ * Totals of groups split across several engines add up to the total of the whole group.
+ */
+public final class RentalGroupTotal {
+    private final double sum;
+    private final long count;
+
+    public RentalGroupTotal(double sum, long count) {
+        this.sum = sum;
+        this.count = count;
+    }
+
+    public double getSum() {
+        return sum;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return average daily cost of the cars in the group
+     */
+    public double getBlendedPrice() {
+        return sum / count;
+    }
+
+    public RentalGroupTotal plus(RentalGroupTotal other) {
+        return new RentalGroupTotal(sum + other.sum, count + other.count);
+    }
+}
@@ -1,17 +1,66 @@
 package io.rental;
 
 import java.time.LocalDate;
+import java.util.Objects;
 
-public class Renter {
+/**
+ * Immutable renter. A renter is identified by the driving license number, two renters with the same
+ * license are equal whatever names they were entered with. Names and license are required, the date of
+ * birth may be unknown.
+ */
+public final class Renter {
     private final String lastName;
     private final String firstName;
     private final String drivingLicenseNumber;
     private final LocalDate dateOfBirth;
+    private final int hash;
 
     public Renter(String lastName, String firstName, String drivingLicenseNumber, LocalDate dateOfBirth) {
-        this.lastName = lastName;
-        this.firstName = firstName;
-        this.drivingLicenseNumber = drivingLicenseNumber;
+        this.lastName = Objects.requireNonNull(lastName, "lastName");
+        this.firstName = Objects.requireNonNull(firstName, "firstName");
+        this.drivingLicenseNumber = Objects.requireNonNull(drivingLicenseNumber, "drivingLicenseNumber");
         this.dateOfBirth = dateOfBirth;
+        this.hash = drivingLicenseNumber.hashCode();
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public String getDrivingLicenseNumber() {
+        return drivingLicenseNumber;
+    }
+
+    /**
+     * @return date of birth or null if it is not known
+     */
+    public LocalDate getDateOfBirth() {
+        return dateOfBirth;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Renter)) {
+            return false;
+        }
+        Renter renter = (Renter) o;
+        return hash == renter.hash && drivingLicenseNumber.equals(renter.drivingLicenseNumber);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return firstName + " " + lastName + " (" + drivingLicenseNumber + ")";
     }
 }
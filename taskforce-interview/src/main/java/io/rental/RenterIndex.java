@@ -0,0 +1,214 @@
+package io.rental;
+
+import io.utils.EpochDayPeriod;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Bookings of every renter keyed by driving license number, maintenance and anonymous bookings are left out.
+ * <p>
+ * A renter's bookings are held twice, sorted by start as packed epoch day periods and sorted by end, because
+ * unlike a car's bookings they may overlap. Past rentals are a prefix of the end order and future rentals a
+ * suffix of the start order, each found with one binary search. The number of rentals running on a day is the
+ * number started on or before it less the number ended before it, so a concurrency check only walks the
+ * bookings that start or end inside the checked period.
+ * <p>
+ * Histories are immutable snapshots replaced per renter on every change, reads are lock-free.
+ */
+class RenterIndex {
+    private final ConcurrentMap<String, History> histories = new ConcurrentHashMap<>();
+
+    void add(Booking booking) {
+        Renter renter = booking.getRenter();
+        if (renter != null && !booking.isMaintenance()) {
+            histories.compute(renter.getDrivingLicenseNumber(), (license, history) ->
+                    (history == null ? History.EMPTY : history).with(booking));
+        }
+    }
+
+    void remove(Booking booking) {
+        Renter renter = booking.getRenter();
+        if (renter != null && !booking.isMaintenance()) {
+            histories.computeIfPresent(renter.getDrivingLicenseNumber(), (license, history) -> history.without(booking));
+        }
+    }
+
+    /**
+     * @return history of the renter, empty if the renter has no bookings
+     */
+    History history(String drivingLicenseNumber) {
+        History history = histories.get(drivingLicenseNumber);
+        return history == null ? History.EMPTY : history;
+    }
+
+    static final class History {
+        static final History EMPTY = new History(null, new long[0], new Booking[0], new int[0], new Booking[0]);
+
+        private final Renter renter;
+        private final long[] periods;
+        private final Booking[] byStart;
+        private final int[] ends;
+        private final Booking[] byEnd;
+
+        private History(Renter renter, long[] periods, Booking[] byStart, int[] ends, Booking[] byEnd) {
+            this.renter = renter;
+            this.periods = periods;
+            this.byStart = byStart;
+            this.ends = ends;
+            this.byEnd = byEnd;
+        }
+
+        /**
+         * @return renter as entered with the latest booking, null if there are no bookings
+         */
+        Renter renter() {
+            return renter;
+        }
+
+        /**
+         * @return every booking sorted by start date
+         */
+        List<Booking> all() {
+            return Collections.unmodifiableList(Arrays.asList(byStart));
+        }
+
+        /**
+         * @return bookings ended before the day sorted by end date
+         */
+        List<Booking> past(int day) {
+            return Collections.unmodifiableList(Arrays.asList(byEnd).subList(0, endingBefore(day)));
+        }
+
+        /**
+         * @return bookings starting after the day sorted by start date
+         */
+        List<Booking> future(int day) {
+            return Collections.unmodifiableList(Arrays.asList(byStart).subList(startingOnOrBefore(day), byStart.length));
+        }
+
+        /**
+         * Walks back from the last booking started on or before the day and stops once it has found as many
+         * running bookings as the two counts say there are.
+         * @return bookings running on the day sorted by start date
+         */
+        List<Booking> current(int day) {
+            int started = startingOnOrBefore(day);
+            int running = started - endingBefore(day);
+            List<Booking> current = new ArrayList<>(running);
+            for (int i = started - 1; current.size() < running; i--) {
+                if (EpochDayPeriod.end(periods[i]) >= day) {
+                    current.add(byStart[i]);
+                }
+            }
+            Collections.reverse(current);
+            return current;
+        }
+
+        /**
+         * @return largest number of bookings running on the same day between the two days, both inclusive
+         */
+        int maxConcurrent(int fromDay, int toDay) {
+            int start = startingOnOrBefore(fromDay);
+            int lastStart = startingOnOrBefore(toDay);
+            int end = endingBefore(fromDay);
+            int lastEnd = endingBefore(toDay);
+
+            int running = start - end;
+            int max = running;
+            for (; start < lastStart; start++) {
+                int day = EpochDayPeriod.start(periods[start]);
+                // bookings ended before the day no longer run
+                while (end < lastEnd && ends[end] < day) {
+                    end++;
+                    running--;
+                }
+                max = Math.max(max, ++running);
+            }
+            return max;
+        }
+
+        History with(Booking booking) {
+            long period = EpochDayPeriod.of(booking.getStartDay(), booking.getEndDay());
+            int startIndex = startingOnOrBefore(booking.getStartDay());
+            int endIndex = endingBefore(booking.getEndDay() + 1);
+
+            int size = periods.length;
+            long[] newPeriods = new long[size + 1];
+            Booking[] newByStart = new Booking[size + 1];
+            System.arraycopy(periods, 0, newPeriods, 0, startIndex);
+            System.arraycopy(byStart, 0, newByStart, 0, startIndex);
+            newPeriods[startIndex] = period;
+            newByStart[startIndex] = booking;
+            System.arraycopy(periods, startIndex, newPeriods, startIndex + 1, size - startIndex);
+            System.arraycopy(byStart, startIndex, newByStart, startIndex + 1, size - startIndex);
+
+            int[] newEnds = new int[size + 1];
+            Booking[] newByEnd = new Booking[size + 1];
+            System.arraycopy(ends, 0, newEnds, 0, endIndex);
+            System.arraycopy(byEnd, 0, newByEnd, 0, endIndex);
+            newEnds[endIndex] = booking.getEndDay();
+            newByEnd[endIndex] = booking;
+            System.arraycopy(ends, endIndex, newEnds, endIndex + 1, size - endIndex);
+            System.arraycopy(byEnd, endIndex, newByEnd, endIndex + 1, size - endIndex);
+
+            return new History(booking.getRenter(), newPeriods, newByStart, newEnds, newByEnd);
+        }
+
+        /**
+         * @return history without the booking, null if it was the only one
+         */
+        History without(Booking booking) {
+            int startIndex = Arrays.asList(byStart).indexOf(booking);
+            if (startIndex < 0) {
+                return this;
+            }
+            if (periods.length == 1) {
+                return null;
+            }
+            int endIndex = Arrays.asList(byEnd).indexOf(booking);
+
+            int size = periods.length - 1;
+            long[] newPeriods = new long[size];
+            Booking[] newByStart = new Booking[size];
+            System.arraycopy(periods, 0, newPeriods, 0, startIndex);
+            System.arraycopy(byStart, 0, newByStart, 0, startIndex);
+            System.arraycopy(periods, startIndex + 1, newPeriods, startIndex, size - startIndex);
+            System.arraycopy(byStart, startIndex + 1, newByStart, startIndex, size - startIndex);
+
+            int[] newEnds = new int[size];
+            Booking[] newByEnd = new Booking[size];
+            System.arraycopy(ends, 0, newEnds, 0, endIndex);
+            System.arraycopy(byEnd, 0, newByEnd, 0, endIndex);
+            System.arraycopy(ends, endIndex + 1, newEnds, endIndex, size - endIndex);
+            System.arraycopy(byEnd, endIndex + 1, newByEnd, endIndex, size - endIndex);
+
+            return new History(renter, newPeriods, newByStart, newEnds, newByEnd);
+        }
+
+        // number of bookings starting on or before the day
+        private int startingOnOrBefore(int day) {
+            int index = Arrays.binarySearch(periods, EpochDayPeriod.latestStartingOn(day));
+            return index >= 0 ? index + 1 : -index - 1;
+        }
+
+        // number of bookings ending before the day
+        private int endingBefore(int day) {
+            int low = 0;
+            int high = ends.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (ends[middle] < day) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+}
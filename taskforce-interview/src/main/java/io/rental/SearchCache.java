@@ -0,0 +1,214 @@
+package io.rental;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Bounded cache of availability search results, see {@link CarRentalCompany#setSearchCache(SearchCache)}.
+ * Results are keyed by the search criteria with the dates as epoch days. A booking only evicts the results
+ * whose criteria match its car and whose dates overlap it, a car joining or leaving the fleet evicts every
+ * result its criteria match. Results are indexed by make so a write only looks at the results it can affect.
+ * <p>
+ * The index decides which results are valid, the Guava cache bounds their number and age: a cached result is
+ * only served while the index still holds it, so racing searches and late removal notifications can at worst
+ * cost a miss. A search that overlaps a write may have missed it, so a write also flags the running searches
+ * it would invalidate, and a flagged search drops its result; searches for other cars or dates keep theirs.
+ */
+public final class SearchCache {
+
+    private final Cache<Key, Entry> results;
+
+    // valid entries by make, searches for any make are kept apart
+    private final ConcurrentMap<String, ConcurrentMap<Key, Entry>> entriesByMake = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Key, Entry> anyMakeEntries = new ConcurrentHashMap<>();
+
+    // searches running now, a write flags those it would invalidate so they do not keep a result that missed it
+    private final Set<Search> running = ConcurrentHashMap.newKeySet();
+    private final LongAdder invalidations = new LongAdder();
+
+    /**
+     * @param maximumSize number of search results kept
+     * @param expireAfterWrite time a result is kept for, or null to keep results until they are evicted
+     */
+    public SearchCache(long maximumSize, Duration expireAfterWrite) {
+        CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats();
+        if (expireAfterWrite != null) {
+            builder.expireAfterWrite(expireAfterWrite);
+        }
+        // notifications may arrive late, only the entry that was removed is dropped from the index
+        this.results = builder.<Key, Entry>removalListener(
+                removal -> entries(removal.getKey().make).remove(removal.getKey(), removal.getValue())).build();
+    }
+
+    /**
+     * @return hit, miss and eviction counts of the cache
+     */
+    public CacheStats stats() {
+        return results.stats();
+    }
+
+    /**
+     * @return number of results dropped because a booking or a fleet change affected them
+     */
+    public long invalidationCount() {
+        return invalidations.sum();
+    }
+
+    /**
+     * @return number of results currently cached
+     */
+    public long size() {
+        return results.size();
+    }
+
+    /**
+     * Look up the result of a search with both dates set, running the search on a miss.
+     * @param criteria search criteria
+     * @param search search to run on a miss
+     * @return new list of the cars found
+     */
+    List<Car> get(Criteria criteria, Function<Criteria, List<Car>> search) {
+        Key key = new Key(criteria);
+        ConcurrentMap<Key, Entry> entries = entries(key.make);
+        Entry cached = results.getIfPresent(key);
+        if (cached != null && entries.get(key) == cached) {
+            return new ArrayList<>(cached.cars);
+        }
+
+        Search running = new Search(key);
+        this.running.add(running);
+        List<Car> found;
+        Entry entry;
+        try {
+            found = search.apply(criteria);
+            entry = new Entry(found);
+            entries.put(key, entry);
+            results.put(key, entry);
+        } finally {
+            this.running.remove(running);
+        }
+        // a matching write during the search may have been missed and may have run its invalidation before the put
+        if (running.stale) {
+            entries.remove(key, entry);
+            results.invalidate(key);
+        }
+        return found;
+    }
+
+    /**
+     * Drop the results a new booking makes stale, called once the booking is visible to searches.
+     */
+    void bookingAdded(Booking booking) {
+        invalidate(booking.getCar(), booking.getStartDay(), booking.getEndDay());
+    }
+
+    /**
+     * Drop the results a car joining or leaving the fleet makes stale.
+     */
+    void carChanged(Car car) {
+        invalidate(car, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    private void invalidate(Car car, int fromDay, int toDay) {
+        // running searches first: one the write came too late for but did not flag had put its result before it
+        // stopped running, so the scan of the results below finds it
+        for (Search search : running) {
+            if (search.key.overlaps(car, fromDay, toDay)) {
+                search.stale = true;
+            }
+        }
+        invalidate(entriesByMake.get(car.getMake()), car, fromDay, toDay);
+        invalidate(anyMakeEntries, car, fromDay, toDay);
+    }
+
+    private void invalidate(ConcurrentMap<Key, Entry> entries, Car car, int fromDay, int toDay) {
+        if (entries == null) {
+            return;
+        }
+        for (Key key : entries.keySet()) {
+            if (key.overlaps(car, fromDay, toDay) && entries.remove(key) != null) {
+                results.invalidate(key);
+                invalidations.increment();
+            }
+        }
+    }
+
+    private ConcurrentMap<Key, Entry> entries(String make) {
+        return make == null ? anyMakeEntries : entriesByMake.computeIfAbsent(make, m -> new ConcurrentHashMap<>());
+    }
+
+    // compared by identity, so a late removal notification cannot drop a newer result for the same key
+    private static final class Entry {
+        private final List<Car> cars;
+
+        private Entry(List<Car> cars) {
+            this.cars = List.copyOf(cars);
+        }
+    }
+
+    // a search in flight, compared by identity as searches for the same key may run at once
+    private static final class Search {
+        private final Key key;
+        private volatile boolean stale;
+
+        private Search(Key key) {
+            this.key = key;
+        }
+    }
+
+    private static final class Key {
+        private final String make;
+        private final String model;
+        private final String rentalGroup;
+        private final int fromDay;
+        private final int toDay;
+        private final int hash;
+
+        private Key(Criteria criteria) {
+            this.make = criteria.getMake();
+            this.model = criteria.getModel();
+            this.rentalGroup = criteria.getRentalGroup();
+            this.fromDay = (int) criteria.getFromDate().toEpochDay();
+            this.toDay = (int) criteria.getToDate().toEpochDay();
+            this.hash = Objects.hash(make, model, rentalGroup, fromDay, toDay);
+        }
+
+        private boolean overlaps(Car car, int fromDay, int toDay) {
+            return (make == null || make.equals(car.getMake()))
+                    && (model == null || model.equals(car.getModel()))
+                    && (rentalGroup == null || rentalGroup.equals(car.getRentalGroup()))
+                    && this.fromDay <= toDay && fromDay <= this.toDay;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return fromDay == key.fromDay && toDay == key.toDay && Objects.equals(make, key.make)
+                    && Objects.equals(model, key.model) && Objects.equals(rentalGroup, key.rentalGroup);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package io.rental;
+
+import java.util.Comparator;
+
+/**
+ * Order of the cars returned by a paged or streaming search, ties are broken by registration number so the
+ * order is total and pages never overlap.
+ */
+public enum SearchOrder {
+    REGISTRATION(Comparator.comparing(Car::getRegistrationNumber)),
+    PRICE(Comparator.comparingDouble(Car::getCostPerDay).thenComparing(Car::getRegistrationNumber));
+
+    private final Comparator<Car> comparator;
+
+    SearchOrder(Comparator<Car> comparator) {
+        this.comparator = comparator;
+    }
+
+    public Comparator<Car> comparator() {
+        return comparator;
+    }
+}
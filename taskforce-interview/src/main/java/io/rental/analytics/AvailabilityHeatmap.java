@@ -0,0 +1,215 @@
+package io.rental.analytics;
+
+import io.rental.Booking;
+import io.rental.Car;
+import io.rental.CarRentalCompany;
+import io.rental.RentalEventListener;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Number of free cars of each rental group or model on each day of a window, for fleet planning.
+ * <p>
+ * The window is built in one sweep over the fleet's schedules, see {@link CarRentalCompany#bookedCarsPerDay}. From
+ * then on bookings are added to and removed from the window as they commit, and a query only subtracts the
+ * booked cars from the group's fleet size for the days it asks for. Cars leaving the fleet or moving to
+ * another group, and queries reaching past the window, sweep again while writes are paused.
+ */
+public final class AvailabilityHeatmap implements RentalEventListener {
+    public static final int DEFAULT_WINDOW_DAYS = 180;
+
+    public enum Grouping {
+        RENTAL_GROUP,
+        MODEL
+    }
+
+    private final CarRentalCompany company;
+    private final Grouping grouping;
+    private final int windowDays;
+
+    // group or model of every car in the fleet
+    private final ConcurrentMap<String, String> carKeys = new ConcurrentHashMap<>();
+
+    private volatile Window window;
+    // set when a fleet change cannot be applied to the window, the next query sweeps again
+    private volatile boolean stale;
+
+    private AvailabilityHeatmap(CarRentalCompany company, Grouping grouping, int windowDays) {
+        this.company = company;
+        this.grouping = grouping;
+        this.windowDays = windowDays;
+    }
+
+    /**
+     * Sweep the bookings of a company for {@link #DEFAULT_WINDOW_DAYS} days from today and keep the heatmap up
+     * to date as they change.
+     * @param company company to follow
+     * @param grouping whether cars are counted per rental group or per model
+     * @return the heatmap, attached to the company as a listener
+     */
+    public static AvailabilityHeatmap attach(CarRentalCompany company, Grouping grouping) {
+        return attach(company, grouping, DEFAULT_WINDOW_DAYS);
+    }
+
+    /**
+     * Sweep the bookings of a company from today on and keep the heatmap up to date as they change.
+     * @param company company to follow
+     * @param grouping whether cars are counted per rental group or per model
+     * @param windowDays number of days kept up to date, queries ending later sweep again
+     * @return the heatmap, attached to the company as a listener
+     */
+    public static AvailabilityHeatmap attach(CarRentalCompany company, Grouping grouping, int windowDays) {
+        if (windowDays < 1) {
+            throw new IllegalArgumentException("Window must have at least one day");
+        }
+        AvailabilityHeatmap heatmap = new AvailabilityHeatmap(company, grouping, windowDays);
+        company.whileWritesPaused(() -> {
+            heatmap.window = heatmap.sweep(LocalDate.now(), windowDays);
+            company.addListener(heatmap);
+        });
+        return heatmap;
+    }
+
+    /**
+     * @param from first day
+     * @param days number of days
+     * @return free cars per day of every rental group or model in the fleet
+     */
+    public AvailabilityMatrix freeCars(LocalDate from, int days) {
+        if (from == null || days < 1) {
+            throw new IllegalArgumentException("A date range needs a start and at least one day");
+        }
+        int fromDay = (int) from.toEpochDay();
+        Window current = window;
+        if (stale || fromDay < current.firstDay || fromDay + days > current.firstDay + current.days) {
+            current = resweep(from, days);
+        }
+
+        Map<String, int[]> freeCars = new HashMap<>();
+        int offset = fromDay - current.firstDay;
+        current.rows.forEach((key, row) -> {
+            int cars = row.cars.get();
+            if (cars > 0) {
+                int[] free = new int[days];
+                for (int day = 0; day < days; day++) {
+                    free[day] = cars - row.booked.get(offset + day);
+                }
+                freeCars.put(key, free);
+            }
+        });
+        return new AvailabilityMatrix(from, days, freeCars);
+    }
+
+    @Override
+    public void carAdded(Car car) {
+        String key = key(car);
+        String previous = carKeys.put(car.getRegistrationNumber(), key);
+        if (previous == null) {
+            window.row(key).cars.incrementAndGet();
+        } else if (!previous.equals(key)) {
+            // the car's bookings are counted in the old group
+            stale = true;
+        }
+    }
+
+    @Override
+    public void carRemoved(Car car) {
+        if (carKeys.remove(car.getRegistrationNumber()) != null) {
+            // the car's bookings would have to be taken out of its group
+            stale = true;
+        }
+    }
+
+    @Override
+    public void bookingAdded(Booking booking) {
+        window.add(carKeys.get(booking.getCar().getRegistrationNumber()), booking, 1);
+    }
+
+    @Override
+    public void bookingsRemoved(String registrationNumber, List<Booking> bookings) {
+        String key = carKeys.get(registrationNumber);
+        bookings.forEach(booking -> window.add(key, booking, -1));
+    }
+
+    // Utility function to build a new window when the current one cannot answer a query, writes wait meanwhile
+    private synchronized Window resweep(LocalDate from, int days) {
+        Window current = window;
+        int fromDay = (int) from.toEpochDay();
+        if (stale || fromDay < current.firstDay || fromDay + days > current.firstDay + current.days) {
+            company.whileWritesPaused(() -> {
+                stale = false;
+                window = sweep(from, Math.max(days, windowDays));
+            });
+        }
+        return window;
+    }
+
+    // Utility function to count the booked cars of every group on every day of a window in one sweep
+    private Window sweep(LocalDate from, int days) {
+        Window swept = new Window((int) from.toEpochDay(), days);
+        carKeys.clear();
+        for (Car car : company.getCars()) {
+            String key = key(car);
+            carKeys.put(car.getRegistrationNumber(), key);
+            swept.row(key).cars.incrementAndGet();
+        }
+        company.bookedCarsPerDay(from, days, this::key).forEach((key, booked) -> {
+            AtomicIntegerArray row = swept.row(key).booked;
+            for (int day = 0; day < days; day++) {
+                row.set(day, booked[day]);
+            }
+        });
+        return swept;
+    }
+
+    private String key(Car car) {
+        return grouping == Grouping.RENTAL_GROUP ? car.getRentalGroup() : car.getMake() + " " + car.getModel();
+    }
+
+    // booked cars per group and day from the first day of the window on
+    private static final class Window {
+        private final int firstDay;
+        private final int days;
+        private final ConcurrentMap<String, Row> rows = new ConcurrentHashMap<>();
+
+        private Window(int firstDay, int days) {
+            this.firstDay = firstDay;
+            this.days = days;
+        }
+
+        private Row row(String key) {
+            return rows.computeIfAbsent(key, k -> new Row(days));
+        }
+
+        private void add(String key, Booking booking, int cars) {
+            if (key == null) {
+                return;
+            }
+            int first = Math.max(booking.getStartDay(), firstDay);
+            int last = Math.min(booking.getEndDay(), firstDay + days - 1);
+            if (first > last) {
+                return;
+            }
+            AtomicIntegerArray booked = row(key).booked;
+            for (int day = first; day <= last; day++) {
+                booked.addAndGet(day - firstDay, cars);
+            }
+        }
+    }
+
+    private static final class Row {
+        private final AtomicInteger cars = new AtomicInteger();
+        private final AtomicIntegerArray booked;
+
+        private Row(int days) {
+            this.booked = new AtomicIntegerArray(days);
+        }
+    }
+}
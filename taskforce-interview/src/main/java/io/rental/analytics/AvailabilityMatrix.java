@@ -0,0 +1,62 @@
+package io.rental.analytics;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Number of free cars per day and rental group or model, see {@link AvailabilityHeatmap#freeCars}.
+ */
+public final class AvailabilityMatrix {
+    private final LocalDate from;
+    private final int days;
+    private final Map<String, int[]> freeCars;
+
+    AvailabilityMatrix(LocalDate from, int days, Map<String, int[]> freeCars) {
+        this.from = from;
+        this.days = days;
+        this.freeCars = freeCars;
+    }
+
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public int getDays() {
+        return days;
+    }
+
+    /**
+     * @return rental groups or models of the fleet, sorted
+     */
+    public List<String> getKeys() {
+        List<String> keys = new ArrayList<>(freeCars.keySet());
+        Collections.sort(keys);
+        return keys;
+    }
+
+    /**
+     * @param key rental group or model
+     * @param date day in the matrix
+     * @return number of cars of the group or model that are free on the day, 0 for an unknown group or model
+     */
+    public int getFreeCars(String key, LocalDate date) {
+        int day = (int) (date.toEpochDay() - from.toEpochDay());
+        if (day < 0 || day >= days) {
+            throw new IllegalArgumentException("Date is outside the matrix");
+        }
+        int[] row = freeCars.get(key);
+        return row == null ? 0 : row[day];
+    }
+
+    /**
+     * @param key rental group or model
+     * @return new array of the free cars of the group or model from the first day on, all 0 for an unknown key
+     */
+    public int[] getFreeCars(String key) {
+        int[] row = freeCars.get(key);
+        return row == null ? new int[days] : row.clone();
+    }
+}
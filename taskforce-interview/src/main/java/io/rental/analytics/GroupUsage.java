@@ -0,0 +1,75 @@
+package io.rental.analytics;
+
+/**
+ * Revenue and use of the cars of a rental group over a date range, see {@link RentalAnalytics#usage}.
+ */
+public final class GroupUsage {
+    private final String rentalGroup;
+    private final int cars;
+    private final int days;
+    private final double revenue;
+    private final long rentedCarDays;
+    private final long maintenanceCarDays;
+
+    GroupUsage(String rentalGroup, int cars, int days, double revenue, long rentedCarDays, long maintenanceCarDays) {
+        this.rentalGroup = rentalGroup;
+        this.cars = cars;
+        this.days = days;
+        this.revenue = revenue;
+        this.rentedCarDays = rentedCarDays;
+        this.maintenanceCarDays = maintenanceCarDays;
+    }
+
+    public String getRentalGroup() {
+        return rentalGroup;
+    }
+
+    /**
+     * @return number of cars in the group now
+     */
+    public int getCars() {
+        return cars;
+    }
+
+    /**
+     * @return number of days in the range
+     */
+    public int getDays() {
+        return days;
+    }
+
+    /**
+     * @return daily cost of the rentals summed over their days in the range
+     */
+    public double getRevenue() {
+        return revenue;
+    }
+
+    public long getRentedCarDays() {
+        return rentedCarDays;
+    }
+
+    public long getMaintenanceCarDays() {
+        return maintenanceCarDays;
+    }
+
+    /**
+     * @return share of the group's car days in the range that were rented out, measured against the cars the
+     * group has now, or 0 if it has none
+     */
+    public double getUtilization() {
+        return cars == 0 ? 0 : (double) rentedCarDays / ((long) cars * days);
+    }
+
+    @Override
+    public String toString() {
+        return "GroupUsage{" +
+                "rentalGroup='" + rentalGroup + '\'' +
+                ", cars=" + cars +
+                ", days=" + days +
+                ", revenue=" + revenue +
+                ", rentedCarDays=" + rentedCarDays +
+                ", maintenanceCarDays=" + maintenanceCarDays +
+                '}';
+    }
+}
@@ -0,0 +1,86 @@
+package io.rental.analytics;
+
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Revenue, rented and maintenance car days of one rental group in one calendar month, per day and in total.
+ * Writers on different cars update it at the same time without locks; the daily figures and the month's
+ * totals are updated one after the other, so a query running alongside a booking may count it in one and
+ * not yet in the other.
+ */
+final class MonthRollup {
+    final int firstDay;
+    final int lastDay;
+
+    // daily revenue as raw double bits, so a day can be added to atomically
+    private final AtomicLongArray revenue;
+    private final AtomicIntegerArray rented;
+    private final AtomicIntegerArray maintenance;
+
+    private final DoubleAdder revenueTotal = new DoubleAdder();
+    private final LongAdder rentedTotal = new LongAdder();
+    private final LongAdder maintenanceTotal = new LongAdder();
+
+    MonthRollup(LocalDate firstOfMonth) {
+        this.firstDay = (int) firstOfMonth.toEpochDay();
+        this.lastDay = firstDay + firstOfMonth.lengthOfMonth() - 1;
+        this.revenue = new AtomicLongArray(firstOfMonth.lengthOfMonth());
+        this.rented = new AtomicIntegerArray(firstOfMonth.lengthOfMonth());
+        this.maintenance = new AtomicIntegerArray(firstOfMonth.lengthOfMonth());
+    }
+
+    /**
+     * Add a rental to every day from fromDay to toDay, both inside the month; negative counts take it away.
+     */
+    void addRental(int fromDay, int toDay, double dailyCost, int cars) {
+        long costBits = Double.doubleToRawLongBits(dailyCost);
+        for (int day = fromDay; day <= toDay; day++) {
+            revenue.accumulateAndGet(day - firstDay, costBits, MonthRollup::sum);
+            rented.addAndGet(day - firstDay, cars);
+        }
+        int days = toDay - fromDay + 1;
+        revenueTotal.add(dailyCost * days);
+        rentedTotal.add((long) cars * days);
+    }
+
+    void addMaintenance(int fromDay, int toDay, int cars) {
+        for (int day = fromDay; day <= toDay; day++) {
+            maintenance.addAndGet(day - firstDay, cars);
+        }
+        maintenanceTotal.add((long) cars * (toDay - fromDay + 1));
+    }
+
+    /**
+     * Add the figures of the days from fromDay to toDay that fall in the month, a month the range covers
+     * entirely is read from its totals.
+     */
+    void addTo(Tally tally, int fromDay, int toDay) {
+        if (fromDay <= firstDay && lastDay <= toDay) {
+            tally.revenue += revenueTotal.sum();
+            tally.rentedCarDays += rentedTotal.sum();
+            tally.maintenanceCarDays += maintenanceTotal.sum();
+            return;
+        }
+        for (int day = Math.max(fromDay, firstDay); day <= Math.min(toDay, lastDay); day++) {
+            tally.revenue += Double.longBitsToDouble(revenue.get(day - firstDay));
+            tally.rentedCarDays += rented.get(day - firstDay);
+            tally.maintenanceCarDays += maintenance.get(day - firstDay);
+        }
+    }
+
+    // Utility function to add two doubles held as raw bits
+    private static long sum(long a, long b) {
+        return Double.doubleToRawLongBits(Double.longBitsToDouble(a) + Double.longBitsToDouble(b));
+    }
+
+    // figures of a query, summed over months and groups by a single thread
+    static final class Tally {
+        double revenue;
+        long rentedCarDays;
+        long maintenanceCarDays;
+    }
+}
@@ -0,0 +1,177 @@
+package io.rental.analytics;
+
+import io.rental.Booking;
+import io.rental.Car;
+import io.rental.CarRentalCompany;
+import io.rental.RentalEventListener;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Revenue, utilization and maintenance downtime per rental group over date ranges, kept up to date as
+ * bookings commit. Each booking is added to per day figures grouped into calendar months, so a query reads
+ * the totals of the months it covers entirely and the days of at most two partial months per group: years
+ * of history are summed in microseconds without copying or scanning the bookings.
+ * <p>
+ * Rentals earn their booked daily cost on every day they run and count as a rented car day; maintenance
+ * counts as a maintenance car day. Repricing a car does not change the revenue of its existing bookings.
+ * Queries never take the company's locks; a query running alongside a booking may or may not count it.
+ */
+public final class RentalAnalytics implements RentalEventListener {
+
+    // rollups by rental group and month
+    private final ConcurrentMap<String, ConcurrentNavigableMap<YearMonth, MonthRollup>> rollups = new ConcurrentHashMap<>();
+
+    // rental group of every car in the fleet and the number of cars per group
+    private final ConcurrentMap<String, String> carGroups = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Integer> fleetSizes = new ConcurrentHashMap<>();
+
+    /**
+     * Start collecting the analytics of a company, including its fleet and bookings so far.
+     * @param company company to analyse
+     * @return the analytics, attached to the company as a listener
+     */
+    public static RentalAnalytics attach(CarRentalCompany company) {
+        RentalAnalytics analytics = new RentalAnalytics();
+        // nothing can commit between reading the history and listening for what comes after it
+        company.whileWritesPaused(() -> {
+            company.getCars().forEach(analytics::carAdded);
+            company.getBookings().forEach(analytics::bookingAdded);
+            company.addListener(analytics);
+        });
+        return analytics;
+    }
+
+    /**
+     * @param from first day of the range
+     * @param to last day of the range
+     * @return revenue of all rentals over their days in the range
+     */
+    public double revenue(LocalDate from, LocalDate to) {
+        double revenue = 0;
+        for (GroupUsage usage : usage(from, to).values()) {
+            revenue += usage.getRevenue();
+        }
+        return revenue;
+    }
+
+    /**
+     * @param from first day of the range
+     * @param to last day of the range
+     * @return revenue per month of all rentals over their days in the range, months without revenue are left out
+     */
+    public NavigableMap<YearMonth, Double> revenueByMonth(LocalDate from, LocalDate to) {
+        int fromDay = firstDay(from, to);
+        int toDay = (int) to.toEpochDay();
+        NavigableMap<YearMonth, Double> revenue = new TreeMap<>();
+        for (ConcurrentNavigableMap<YearMonth, MonthRollup> months : rollups.values()) {
+            months.subMap(YearMonth.from(from), true, YearMonth.from(to), true).forEach((month, rollup) -> {
+                MonthRollup.Tally tally = new MonthRollup.Tally();
+                rollup.addTo(tally, fromDay, toDay);
+                if (tally.revenue != 0) {
+                    revenue.merge(month, tally.revenue, Double::sum);
+                }
+            });
+        }
+        return revenue;
+    }
+
+    /**
+     * @param from first day of the range
+     * @param to last day of the range
+     * @return figures of every rental group that has cars or bookings in the range, by rental group
+     */
+    public Map<String, GroupUsage> usage(LocalDate from, LocalDate to) {
+        int fromDay = firstDay(from, to);
+        int toDay = (int) to.toEpochDay();
+        Set<String> groups = new HashSet<>(fleetSizes.keySet());
+        groups.addAll(rollups.keySet());
+
+        Map<String, GroupUsage> usage = new HashMap<>();
+        for (String group : groups) {
+            MonthRollup.Tally tally = new MonthRollup.Tally();
+            ConcurrentNavigableMap<YearMonth, MonthRollup> months = rollups.get(group);
+            if (months != null) {
+                for (MonthRollup rollup : months.subMap(YearMonth.from(from), true, YearMonth.from(to), true).values()) {
+                    rollup.addTo(tally, fromDay, toDay);
+                }
+            }
+            int cars = fleetSizes.getOrDefault(group, 0);
+            if (cars > 0 || tally.rentedCarDays != 0 || tally.maintenanceCarDays != 0) {
+                usage.put(group, new GroupUsage(group, cars, toDay - fromDay + 1, tally.revenue,
+                        tally.rentedCarDays, tally.maintenanceCarDays));
+            }
+        }
+        return usage;
+    }
+
+    @Override
+    public void carAdded(Car car) {
+        String previous = carGroups.put(car.getRegistrationNumber(), car.getRentalGroup());
+        if (previous != null) {
+            countCar(previous, -1);
+        }
+        countCar(car.getRentalGroup(), 1);
+    }
+
+    @Override
+    public void carRemoved(Car car) {
+        String group = carGroups.remove(car.getRegistrationNumber());
+        if (group != null) {
+            countCar(group, -1);
+        }
+    }
+
+    @Override
+    public void bookingAdded(Booking booking) {
+        record(booking, 1);
+    }
+
+    @Override
+    public void bookingsRemoved(String registrationNumber, List<Booking> bookings) {
+        bookings.forEach(booking -> record(booking, -1));
+    }
+
+    // Utility function to add a booking to the rollups of the months it runs in, or take it away again
+    private void record(Booking booking, int sign) {
+        ConcurrentNavigableMap<YearMonth, MonthRollup> months =
+                rollups.computeIfAbsent(booking.getCar().getRentalGroup(), g -> new ConcurrentSkipListMap<>());
+        int day = booking.getStartDay();
+        while (day <= booking.getEndDay()) {
+            YearMonth month = YearMonth.from(LocalDate.ofEpochDay(day));
+            MonthRollup rollup = months.computeIfAbsent(month, m -> new MonthRollup(m.atDay(1)));
+            int lastDay = Math.min(booking.getEndDay(), rollup.lastDay);
+            if (booking.isMaintenance()) {
+                rollup.addMaintenance(day, lastDay, sign);
+            } else {
+                rollup.addRental(day, lastDay, sign * booking.getDailyCost(), sign);
+            }
+            day = lastDay + 1;
+        }
+    }
+
+    // Utility function to move the number of cars in a group, a group is dropped once its last car has gone
+    private void countCar(String group, int cars) {
+        fleetSizes.merge(group, cars, (a, b) -> a + b == 0 ? null : a + b);
+    }
+
+    // Utility function to check a query's range and return its first day
+    private static int firstDay(LocalDate from, LocalDate to) {
+        if (from == null || to == null || to.isBefore(from)) {
+            throw new IllegalArgumentException("A date range needs a start and an end on or after it");
+        }
+        return (int) from.toEpochDay();
+    }
+}
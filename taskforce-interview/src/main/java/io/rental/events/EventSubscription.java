@@ -0,0 +1,162 @@
+package io.rental.events;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * A subscriber's queue of events and the virtual thread delivering them, see {@link RentalEventBus#subscribe}.
+ * Publishing only puts the event in the queue, the subscriber is called on the delivery thread with every event
+ * queued since its last call, up to the batch size, so a slow subscriber gets larger batches instead of holding
+ * up bookings.
+ */
+public final class EventSubscription implements AutoCloseable {
+    private final RingBuffer<RentalEvent> queue;
+    private final OverflowPolicy overflowPolicy;
+    private final Consumer<List<RentalEvent>> subscriber;
+    private final int maxBatch;
+    private final Consumer<EventSubscription> onClose;
+    private final Thread deliverer;
+
+    private final LongAdder dropped = new LongAdder();
+    private volatile long delivered;
+    private volatile long failedBatches;
+
+    // set by the delivery thread before it parks, publishers only unpark it when it is set
+    private volatile boolean waiting;
+    private volatile boolean closed;
+
+    EventSubscription(Consumer<List<RentalEvent>> subscriber, int capacity, OverflowPolicy overflowPolicy, int maxBatch,
+                      String name, Consumer<EventSubscription> onClose) {
+        if (maxBatch < 1) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        this.queue = new RingBuffer<>(capacity);
+        this.overflowPolicy = overflowPolicy;
+        this.subscriber = subscriber;
+        this.maxBatch = maxBatch;
+        this.onClose = onClose;
+        this.deliverer = Thread.ofVirtual().name(name).unstarted(this::deliver);
+    }
+
+    void start() {
+        deliverer.start();
+    }
+
+    /**
+     * @return number of events the queue holds
+     */
+    public int capacity() {
+        return queue.capacity();
+    }
+
+    /**
+     * @return number of events waiting to be delivered
+     */
+    public int backlog() {
+        return queue.size();
+    }
+
+    /**
+     * @return number of events handed to the subscriber
+     */
+    public long deliveredCount() {
+        return delivered;
+    }
+
+    /**
+     * @return number of events lost because the queue was full
+     */
+    public long droppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * @return number of batches the subscriber threw an exception for, delivery carries on with the next batch
+     */
+    public long failedBatchCount() {
+        return failedBatches;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Stop taking new events and wait until the events already queued have been delivered.
+     */
+    @Override
+    public void close() {
+        shutDown();
+        if (Thread.currentThread() != deliverer) {
+            try {
+                deliverer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    void publish(RentalEvent event) {
+        if (closed) {
+            return;
+        }
+        if (!queue.offer(event)) {
+            switch (overflowPolicy) {
+                case DROP_NEWEST -> dropped.increment();
+                case DROP_OLDEST -> {
+                    // other publishers may refill the slot that was freed, so make room until the event fits
+                    do {
+                        if (queue.poll() != null) {
+                            dropped.increment();
+                        }
+                    } while (!queue.offer(event));
+                }
+                case DISCONNECT -> {
+                    dropped.increment();
+                    shutDown();
+                }
+            }
+        }
+        if (waiting) {
+            LockSupport.unpark(deliverer);
+        }
+    }
+
+    private void shutDown() {
+        if (!closed) {
+            closed = true;
+            onClose.accept(this);
+            LockSupport.unpark(deliverer);
+        }
+    }
+
+    private void deliver() {
+        // subscribers may keep a batch, so every delivered batch gets a list of its own
+        List<RentalEvent> batch = new ArrayList<>();
+        while (true) {
+            if (queue.drainTo(batch, maxBatch) == 0) {
+                if (closed && queue.isEmpty()) {
+                    return;
+                }
+                waiting = true;
+                // an event queued before the flag was set would not wake us, look again before parking
+                if (queue.isEmpty() && !closed) {
+                    LockSupport.park(this);
+                }
+                waiting = false;
+                continue;
+            }
+            try {
+                subscriber.accept(Collections.unmodifiableList(batch));
+            } catch (RuntimeException e) {
+                failedBatches++;
+            }
+            delivered += batch.size();
+            batch = new ArrayList<>();
+        }
+    }
+}
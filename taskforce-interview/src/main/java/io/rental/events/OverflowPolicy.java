@@ -0,0 +1,14 @@
+package io.rental.events;
+
+/**
+ * What happens to an event published while a subscriber's queue is full. None of them make the publishing
+ * booking wait for the subscriber.
+ */
+public enum OverflowPolicy {
+    /** The new event is dropped, the subscriber keeps the older events it has not seen yet. */
+    DROP_NEWEST,
+    /** The oldest queued events make room for the new one, the subscriber sees the latest changes. */
+    DROP_OLDEST,
+    /** The subscription is closed, the subscriber gets the events queued so far and no more. */
+    DISCONNECT
+}
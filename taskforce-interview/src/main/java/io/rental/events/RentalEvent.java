@@ -0,0 +1,59 @@
+package io.rental.events;
+
+import io.rental.Booking;
+import io.rental.Car;
+
+/**
+ * A change committed to a {@link io.rental.CarRentalCompany}, as published by a {@link RentalEventBus}.
+ * Events of one car arrive in commit order. Sequence numbers are handed out as events are published, events of
+ * different cars committing at the same time may be queued out of sequence.
+ */
+public final class RentalEvent {
+
+    public enum Type {
+        CAR_ADDED,
+        BOOKING_CREATED,
+        MAINTENANCE_REGISTERED
+    }
+
+    private final long sequence;
+    private final Type type;
+    private final Car car;
+    private final Booking booking;
+
+    RentalEvent(long sequence, Type type, Car car, Booking booking) {
+        this.sequence = sequence;
+        this.type = type;
+        this.car = car;
+        this.booking = booking;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Car getCar() {
+        return car;
+    }
+
+    /**
+     * @return the booking or maintenance created, null for {@link Type#CAR_ADDED}
+     */
+    public Booking getBooking() {
+        return booking;
+    }
+
+    @Override
+    public String toString() {
+        return "RentalEvent{" +
+                "sequence=" + sequence +
+                ", type=" + type +
+                ", car=" + car +
+                ", booking=" + booking +
+                '}';
+    }
+}
@@ -0,0 +1,91 @@
+package io.rental.events;
+
+import io.rental.Booking;
+import io.rental.Car;
+import io.rental.CarRentalCompany;
+import io.rental.RentalEventListener;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Publishes the cars added to a {@link CarRentalCompany} and the bookings and maintenance it commits to
+ * in-process subscribers, so downstream systems learn about changes without polling the bookings.
+ * Every subscriber has a bounded lock-free queue of its own and is called on its own virtual thread; publishing
+ * an event costs the committing thread one queue insert per subscriber and never waits for a subscriber, a full
+ * queue is handled by the subscriber's {@link OverflowPolicy}.
+ */
+public final class RentalEventBus implements RentalEventListener, AutoCloseable {
+    public static final int DEFAULT_CAPACITY = 4096;
+    public static final int DEFAULT_MAX_BATCH = 256;
+
+    private final List<EventSubscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong subscribers = new AtomicLong();
+
+    /**
+     * Start publishing the changes of a company.
+     * @param company company whose changes are published
+     * @return the bus, attached to the company as a listener
+     */
+    public static RentalEventBus attach(CarRentalCompany company) {
+        RentalEventBus bus = new RentalEventBus();
+        company.addListener(bus);
+        return bus;
+    }
+
+    /**
+     * Subscribe with a queue of {@link #DEFAULT_CAPACITY} events that drops the oldest events when it is full.
+     * @param subscriber called with batches of up to {@link #DEFAULT_MAX_BATCH} events, the events of a car in commit order
+     * @return the subscription, close it to unsubscribe
+     */
+    public EventSubscription subscribe(Consumer<List<RentalEvent>> subscriber) {
+        return subscribe(subscriber, DEFAULT_CAPACITY, OverflowPolicy.DROP_OLDEST, DEFAULT_MAX_BATCH);
+    }
+
+    /**
+     * @param subscriber called with batches of events on the subscription's own thread, the events of a car in commit order
+     * @param capacity number of events queued for the subscriber, rounded up to a power of two
+     * @param overflowPolicy what happens to events published while the queue is full
+     * @param maxBatch largest number of events passed in one call
+     * @return the subscription, close it to unsubscribe
+     */
+    public EventSubscription subscribe(Consumer<List<RentalEvent>> subscriber, int capacity, OverflowPolicy overflowPolicy, int maxBatch) {
+        EventSubscription subscription = new EventSubscription(subscriber, capacity, overflowPolicy, maxBatch,
+                "rental-events-" + subscribers.incrementAndGet(), subscriptions::remove);
+        subscriptions.add(subscription);
+        subscription.start();
+        return subscription;
+    }
+
+    /**
+     * Close every subscription, events already queued are still delivered.
+     */
+    @Override
+    public void close() {
+        subscriptions.forEach(EventSubscription::close);
+    }
+
+    @Override
+    public void carAdded(Car car) {
+        publish(RentalEvent.Type.CAR_ADDED, car, null);
+    }
+
+    @Override
+    public void bookingAdded(Booking booking) {
+        publish(booking.isMaintenance() ? RentalEvent.Type.MAINTENANCE_REGISTERED : RentalEvent.Type.BOOKING_CREATED,
+                booking.getCar(), booking);
+    }
+
+    private void publish(RentalEvent.Type type, Car car, Booking booking) {
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+        RentalEvent event = new RentalEvent(sequence.incrementAndGet(), type, car, booking);
+        for (EventSubscription subscription : subscriptions) {
+            subscription.publish(event);
+        }
+    }
+}
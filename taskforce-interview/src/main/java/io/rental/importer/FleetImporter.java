@@ -0,0 +1,269 @@
+package io.rental.importer;
+
+import io.rental.Booking;
+import io.rental.BookingRejection;
+import io.rental.Car;
+import io.rental.CarRentalCompany;
+import io.rental.Renter;
+import io.rental.journal.JournalCodec;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streams a fleet and its booking history into a {@link CarRentalCompany}. Rows are read one at a time and
+ * bookings are handed to {@link CarRentalCompany#importBookings} in chunks, so memory stays constant however
+ * large the file is and every car's schedule is rebuilt once per chunk instead of once per booking. Bookings
+ * may lie in the past; rows that cannot be parsed or that clash are reported and skipped.
+ * <p>
+ * CSV rows, one per line, with blank lines and lines starting with {@code #} ignored:
+ * <pre>
+ * car,make,model,registrationNumber,rentalGroup,costPerDay
+ * booking,registrationNumber,startDate,endDate,dailyCost[,lastName,firstName,drivingLicenseNumber,dateOfBirth]
+ * maintenance,registrationNumber,startDate,endDate
+ * </pre>
+ * Fields may be double quoted, dates are ISO dates, an empty date of birth is unknown and a car must come before
+ * its bookings.
+ * <p>
+ * The binary format is a header followed by car and booking records in the journal encoding, see
+ * {@link #exportBinary(CarRentalCompany, OutputStream)}. Binary bookings carry their car, so they do not need it
+ * in the fleet.
+ */
+public final class FleetImporter {
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 16;
+
+    static final int MAGIC = 0x464c4554;
+    static final int VERSION = 1;
+    static final byte CAR = 1;
+    static final byte BOOKING = 2;
+
+    private static final int MAX_REJECTED_ROWS_KEPT = 1000;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final CarRentalCompany company;
+    private final int chunkSize;
+
+    public FleetImporter(CarRentalCompany company) {
+        this(company, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param company company to import into
+     * @param chunkSize number of bookings validated and added together
+     */
+    public FleetImporter(CarRentalCompany company, int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        this.company = company;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * @param reader CSV rows, left open
+     * @return what was imported and rejected
+     * @throws IOException if the rows cannot be read
+     */
+    public ImportReport importCsv(Reader reader) throws IOException {
+        Run run = new Run();
+        BufferedReader lines = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader, BUFFER_SIZE);
+        List<String> fields = new ArrayList<>();
+        long row = 0;
+        for (String line = lines.readLine(); line != null; line = lines.readLine()) {
+            row++;
+            if (line.isBlank() || line.startsWith("#")) {
+                continue;
+            }
+            run.rows++;
+            try {
+                split(line, fields);
+                readCsvRow(run, row, fields);
+            } catch (IllegalArgumentException | DateTimeException | IndexOutOfBoundsException e) {
+                run.reject(row, "Malformed row: " + e.getMessage());
+            }
+        }
+        return run.finish();
+    }
+
+    /**
+     * @param input binary records, left open
+     * @return what was imported and rejected
+     * @throws IOException if the records cannot be read or are not in the binary format
+     */
+    public ImportReport importBinary(InputStream input) throws IOException {
+        Run run = new Run();
+        DataInputStream in = new DataInputStream(new BufferedInputStream(input, BUFFER_SIZE));
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+            throw new IOException("Not a fleet file");
+        }
+        for (int type = in.read(); type != -1; type = in.read()) {
+            long row = ++run.rows;
+            switch (type) {
+                case CAR -> run.addCar(JournalCodec.readCar(in));
+                case BOOKING -> {
+                    // the record is read whole before the booking is checked, so the next record follows
+                    Booking booking;
+                    try {
+                        booking = JournalCodec.readBooking(in, company);
+                    } catch (IllegalArgumentException | DateTimeException e) {
+                        run.reject(row, "Malformed record: " + e.getMessage());
+                        continue;
+                    }
+                    run.addBooking(row, booking);
+                }
+                default -> throw new IOException("Unknown record type " + type + " in row " + row);
+            }
+        }
+        return run.finish();
+    }
+
+    /**
+     * Write the fleet and every booking of a company in the binary import format.
+     * @param company company to export
+     * @param output stream to write to, left open
+     */
+    public static void exportBinary(CarRentalCompany company, OutputStream output) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(output, BUFFER_SIZE));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        for (Car car : company.getCars()) {
+            out.writeByte(CAR);
+            JournalCodec.writeCar(out, car);
+        }
+        for (Booking booking : company.getBookings()) {
+            out.writeByte(BOOKING);
+            JournalCodec.writeBooking(out, booking);
+        }
+        out.flush();
+    }
+
+    // Utility function to turn the fields of a CSV row into a car or a booking
+    private void readCsvRow(Run run, long row, List<String> fields) {
+        String type = fields.get(0);
+        switch (type) {
+            case "car" -> run.addCar(new Car(fields.get(1), fields.get(2), fields.get(3), fields.get(4), Double.parseDouble(fields.get(5))));
+            case "booking", "maintenance" -> {
+                Car car = company.getCar(fields.get(1));
+                if (car == null) {
+                    run.reject(row, "Unknown car " + fields.get(1));
+                    return;
+                }
+                Booking.Builder booking = Booking.builder()
+                        .car(car)
+                        .startDate(LocalDate.parse(fields.get(2)))
+                        .endDate(LocalDate.parse(fields.get(3)));
+                if (type.equals("maintenance")) {
+                    booking.maintenance(true);
+                } else {
+                    booking.dailyCost(Double.parseDouble(fields.get(4)));
+                    if (fields.size() > 5) {
+                        String dateOfBirth = fields.get(8);
+                        booking.renter(new Renter(fields.get(5), fields.get(6), fields.get(7),
+                                dateOfBirth.isEmpty() ? null : LocalDate.parse(dateOfBirth)));
+                    }
+                }
+                run.addBooking(row, booking.build());
+            }
+            default -> run.reject(row, "Unknown row type " + type);
+        }
+    }
+
+    // Utility function to split a CSV line into fields, a quoted field may hold commas and doubled quotes
+    static void split(String line, List<String> fields) {
+        fields.clear();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quote");
+        }
+        fields.add(field.toString().trim());
+    }
+
+    // State of one import, bookings wait in the pending chunk until it is full
+    private final class Run {
+        private final long started = System.nanoTime();
+        private final List<Booking> pending = new ArrayList<>(chunkSize);
+        private final long[] pendingRows = new long[chunkSize];
+        private final List<RejectedRow> rejectedRows = new ArrayList<>();
+        private long rows;
+        private long cars;
+        private long bookings;
+        private long rejected;
+
+        private void addCar(Car car) {
+            company.addCar(car);
+            cars++;
+        }
+
+        private void addBooking(long row, Booking booking) {
+            pendingRows[pending.size()] = row;
+            pending.add(booking);
+            if (pending.size() == chunkSize) {
+                flush();
+            }
+        }
+
+        private void reject(long row, String reason) {
+            rejected++;
+            if (rejectedRows.size() < MAX_REJECTED_ROWS_KEPT) {
+                rejectedRows.add(new RejectedRow(row, reason));
+            }
+        }
+
+        private void flush() {
+            List<BookingRejection> rejections = company.importBookings(pending);
+            bookings += pending.size() - rejections.size();
+            if (!rejections.isEmpty()) {
+                Map<Booking, Long> rowsByBooking = new IdentityHashMap<>(pending.size());
+                for (int i = 0; i < pending.size(); i++) {
+                    rowsByBooking.put(pending.get(i), pendingRows[i]);
+                }
+                // keep the report in file order
+                rejections.sort((a, b) -> Long.compare(rowsByBooking.get(a.getBooking()), rowsByBooking.get(b.getBooking())));
+                for (BookingRejection rejection : rejections) {
+                    reject(rowsByBooking.get(rejection.getBooking()), rejection.getReason().getMessage());
+                }
+            }
+            pending.clear();
+        }
+
+        private ImportReport finish() {
+            flush();
+            rejectedRows.sort((a, b) -> Long.compare(a.getRow(), b.getRow()));
+            return new ImportReport(rows, cars, bookings, rejected, rejectedRows, System.nanoTime() - started);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package io.rental.importer;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Outcome of an import: what was read, what was imported, what was rejected and how fast it went.
+ * Every rejected row is counted, only the first ones are kept with their reason.
+ */
+public final class ImportReport {
+    private final long rows;
+    private final long cars;
+    private final long bookings;
+    private final long rejectedRowCount;
+    private final List<RejectedRow> rejectedRows;
+    private final long elapsedNanos;
+
+    ImportReport(long rows, long cars, long bookings, long rejectedRowCount, List<RejectedRow> rejectedRows, long elapsedNanos) {
+        this.rows = rows;
+        this.cars = cars;
+        this.bookings = bookings;
+        this.rejectedRowCount = rejectedRowCount;
+        this.rejectedRows = Collections.unmodifiableList(rejectedRows);
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * @return number of rows read
+     */
+    public long getRows() {
+        return rows;
+    }
+
+    /**
+     * @return number of cars added to the fleet
+     */
+    public long getCars() {
+        return cars;
+    }
+
+    /**
+     * @return number of bookings added
+     */
+    public long getBookings() {
+        return bookings;
+    }
+
+    public long getRejectedRowCount() {
+        return rejectedRowCount;
+    }
+
+    /**
+     * @return the first rejected rows in file order
+     */
+    public List<RejectedRow> getRejectedRows() {
+        return rejectedRows;
+    }
+
+    public long getElapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+    }
+
+    /**
+     * @return rows read per second
+     */
+    public double getRowsPerSecond() {
+        return elapsedNanos == 0 ? 0 : rows * 1e9 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d rows in %d ms (%.0f rows/s): %d cars, %d bookings, %d rejected",
+                rows, getElapsedMillis(), getRowsPerSecond(), cars, bookings, rejectedRowCount);
+    }
+}
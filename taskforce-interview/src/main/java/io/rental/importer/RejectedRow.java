@@ -0,0 +1,30 @@
+package io.rental.importer;
+
+/**
+ * A row of an import file that was not imported, with the reason.
+ */
+public final class RejectedRow {
+    private final long row;
+    private final String reason;
+
+    public RejectedRow(long row, String reason) {
+        this.row = row;
+        this.reason = reason;
+    }
+
+    /**
+     * @return number of the row in the file, the first row is 1
+     */
+    public long getRow() {
+        return row;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    @Override
+    public String toString() {
+        return "row " + row + ": " + reason;
+    }
+}
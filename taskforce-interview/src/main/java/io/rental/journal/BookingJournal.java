@@ -0,0 +1,490 @@
+package io.rental.journal;
+
+import io.rental.Booking;
+import io.rental.BookingException;
+import io.rental.Car;
+import io.rental.CarRentalCompany;
+import io.rental.ChangeLog;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of the changes committed to a {@link CarRentalCompany}, with snapshots for fast restart.
+ * <p>
+ * The journal is the company's {@link ChangeLog}: a change is appended before it is applied, and the committing
+ * thread waits until the record is fsynced, so a change is never acknowledged before it is durable and a change
+ * that cannot be encoded or written is not applied. Records are appended to an in-memory buffer and a background
+ * thread writes and fsyncs the buffer every sync interval, so all records of an interval share one fsync and
+ * their committers are released together (group commit). A sync interval of zero fsyncs on every change instead.
+ * Once a write or fsync has failed the journal refuses every further change. {@link #snapshot()} writes the full state and starts a
+ * new journal segment, segments the snapshot covers are deleted. {@link #open} loads the latest snapshot and
+ * replays only the journal records written after it.
+ * <p>
+ * Each record is framed as its length, a CRC32 and the payload, so a record torn by a crash is detected and
+ * dropped when the journal is opened again.
+ */
+public final class BookingJournal implements ChangeLog, Closeable {
+    private static final byte CAR_ADDED = 1;
+    private static final byte CAR_REMOVED = 2;
+    private static final byte CAR_PRICE_CHANGED = 3;
+    private static final byte BOOKING_ADDED = 4;
+    private static final byte BOOKINGS_REMOVED = 5;
+
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".bin";
+
+    // buffered bytes that trigger a sync ahead of the interval
+    private static final int SYNC_THRESHOLD = 1 << 20;
+    private static final int MAX_RECORD_LENGTH = 1 << 20;
+
+    private final Path directory;
+    private final CarRentalCompany company;
+    private final long syncIntervalMillis;
+    private final ScheduledExecutorService syncer;
+
+    // guarded by this, records waiting for the next sync
+    private final FrameBuffer record = new FrameBuffer();
+    private final DataOutputStream recordOut = new DataOutputStream(record);
+    private final FrameBuffer frames = new FrameBuffer();
+    private FrameBuffer pending = new FrameBuffer();
+    private long sequence;
+    // once set no record is appended, so the final sync covers every change that was logged
+    private boolean closed;
+    // last record fsynced, committers wait on this until it covers their records
+    private long durableSequence;
+
+    // guarded by syncLock, written while appends carry on into the pending buffer
+    private final Object syncLock = new Object();
+    private FrameBuffer spare = new FrameBuffer();
+    private FileChannel segment;
+
+    private volatile IOException failure;
+
+    private BookingJournal(Path directory, CarRentalCompany company, long syncIntervalMillis, long sequence) throws IOException {
+        this.directory = directory;
+        this.company = company;
+        this.syncIntervalMillis = syncIntervalMillis;
+        this.sequence = sequence;
+        this.durableSequence = sequence;
+        this.segment = openSegment(sequence + 1);
+        this.syncer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "booking-journal-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (syncIntervalMillis > 0) {
+            syncer.scheduleWithFixedDelay(this::syncQuietly, syncIntervalMillis, syncIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Restore a company from the journal in a directory and start journaling its changes.
+     * @param directory directory holding the journal segments and snapshots, created if missing
+     * @param company empty company to restore into
+     * @param syncIntervalMillis how often buffered records are fsynced, 0 to fsync every change
+     * @return the journal, attached to the company as its change log
+     */
+    public static BookingJournal open(Path directory, CarRentalCompany company, long syncIntervalMillis) throws IOException {
+        Files.createDirectories(directory);
+
+        long sequence = 0;
+        List<Path> snapshots = list(directory, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+        if (!snapshots.isEmpty()) {
+            sequence = SnapshotFile.read(snapshots.get(snapshots.size() - 1), company);
+        }
+
+        List<Path> segments = list(directory, SEGMENT_PREFIX, SEGMENT_SUFFIX);
+        for (int i = 0; i < segments.size(); i++) {
+            sequence = replay(segments.get(i), company, sequence, i == segments.size() - 1);
+        }
+
+        BookingJournal journal = new BookingJournal(directory, company, syncIntervalMillis, sequence);
+        company.setChangeLog(journal);
+        return journal;
+    }
+
+    /**
+     * @return sequence number of the last record appended
+     */
+    public synchronized long lastSequence() {
+        return sequence;
+    }
+
+    @Override
+    public void carAdded(Car car) {
+        append(CAR_ADDED, car, null, List.of());
+    }
+
+    @Override
+    public void carRemoved(Car car) {
+        append(CAR_REMOVED, car, null, List.of());
+    }
+
+    @Override
+    public void carPriceChanged(Car car) {
+        append(CAR_PRICE_CHANGED, car, null, List.of());
+    }
+
+    @Override
+    public void bookingsAdded(List<Booking> bookings) {
+        append(BOOKING_ADDED, null, null, bookings);
+    }
+
+    @Override
+    public void bookingsRemoved(String registrationNumber) {
+        append(BOOKINGS_REMOVED, null, registrationNumber, List.of());
+    }
+
+    /**
+     * Write and fsync every record appended so far.
+     */
+    public void sync() throws IOException {
+        synchronized (syncLock) {
+            FrameBuffer toWrite;
+            long toWriteSequence;
+            synchronized (this) {
+                checkFailure();
+                if (pending.size() == 0) {
+                    return;
+                }
+                toWrite = pending;
+                toWriteSequence = sequence;
+                pending = spare;
+            }
+            try {
+                toWrite.writeTo(segment);
+                segment.force(false);
+            } catch (IOException e) {
+                failure = e;
+                throw e;
+            } finally {
+                toWrite.reset();
+                spare = toWrite;
+                synchronized (this) {
+                    if (failure == null) {
+                        durableSequence = toWriteSequence;
+                    }
+                    notifyAll();
+                }
+            }
+        }
+    }
+
+    /**
+     * Write a snapshot of the company and drop the journal segments and snapshots it supersedes.
+     * Changes are paused only while the state is copied and a new segment is started.
+     */
+    public void snapshot() throws IOException {
+        AtomicLong snapshotSequence = new AtomicLong();
+        AtomicReference<List<Car>> cars = new AtomicReference<>();
+        AtomicReference<List<Booking>> bookings = new AtomicReference<>();
+        AtomicReference<IOException> rotateFailure = new AtomicReference<>();
+
+        company.whileWritesPaused(() -> {
+            snapshotSequence.set(lastSequence());
+            cars.set(company.getCars());
+            bookings.set(company.getBookings());
+            try {
+                rotate(snapshotSequence.get() + 1);
+            } catch (IOException e) {
+                rotateFailure.set(e);
+            }
+        });
+        if (rotateFailure.get() != null) {
+            throw rotateFailure.get();
+        }
+
+        // the snapshot and its directory entry are forced to disk before anything it supersedes is deleted
+        Path snapshot = directory.resolve(name(SNAPSHOT_PREFIX, snapshotSequence.get(), SNAPSHOT_SUFFIX));
+        SnapshotFile.write(snapshot, snapshotSequence.get(), cars.get(), bookings.get());
+
+        for (Path old : list(directory, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX)) {
+            if (!old.equals(snapshot)) {
+                Files.delete(old);
+            }
+        }
+        for (Path old : list(directory, SEGMENT_PREFIX, SEGMENT_SUFFIX)) {
+            if (firstSequence(old, SEGMENT_PREFIX, SEGMENT_SUFFIX) <= snapshotSequence.get()) {
+                Files.delete(old);
+            }
+        }
+    }
+
+    /**
+     * Stop journaling, a change that reaches the journal after this fails and is not applied. Changes appended
+     * before are synced, so their committers stop waiting.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            closed = true;
+        }
+        company.setChangeLog(null);
+        syncer.shutdown();
+        try {
+            sync();
+        } finally {
+            synchronized (syncLock) {
+                segment.close();
+            }
+        }
+    }
+
+    // Utility function to append the records of a change and wait until they are durable, a change that cannot
+    // be encoded leaves nothing behind
+    private void append(byte type, Car car, String registrationNumber, List<Booking> bookings) {
+        long appended;
+        synchronized (this) {
+            if (failure != null) {
+                throw new UncheckedIOException("Journal has failed", failure);
+            }
+            if (closed) {
+                throw new IllegalStateException("Journal is closed");
+            }
+            frames.reset();
+            long next = sequence;
+            try {
+                if (type == BOOKING_ADDED) {
+                    for (Booking booking : bookings) {
+                        startRecord(type, ++next);
+                        JournalCodec.writeBooking(recordOut, booking);
+                        frames.writeFrame(record);
+                    }
+                } else {
+                    startRecord(type, ++next);
+                    if (type == CAR_ADDED) {
+                        JournalCodec.writeCar(recordOut, car);
+                    } else if (type == BOOKINGS_REMOVED) {
+                        recordOut.writeUTF(registrationNumber);
+                    } else {
+                        recordOut.writeUTF(car.getRegistrationNumber());
+                        recordOut.writeDouble(car.getCostPerDay());
+                    }
+                    frames.writeFrame(record);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            frames.appendTo(pending);
+            sequence = next;
+            appended = next;
+            if (syncIntervalMillis > 0 && pending.size() >= SYNC_THRESHOLD) {
+                syncer.execute(this::syncQuietly);
+            }
+        }
+
+        try {
+            if (syncIntervalMillis == 0) {
+                sync();
+            }
+            awaitDurable(appended);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void startRecord(byte type, long recordSequence) throws IOException {
+        record.reset();
+        recordOut.writeByte(type);
+        recordOut.writeLong(recordSequence);
+    }
+
+    // Utility function to wait for the group fsync that covers a record
+    private synchronized void awaitDurable(long recordSequence) throws IOException {
+        while (durableSequence < recordSequence) {
+            checkFailure();
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted waiting for the journal to sync");
+            }
+        }
+    }
+
+    private void rotate(long firstSequence) throws IOException {
+        synchronized (syncLock) {
+            sync();
+            segment.close();
+            segment = openSegment(firstSequence);
+        }
+    }
+
+    private void syncQuietly() {
+        try {
+            sync();
+        } catch (IOException e) {
+            // kept in failure, the next change fails with it
+        }
+    }
+
+    private void checkFailure() throws IOException {
+        if (failure != null) {
+            throw new IOException("Journal has failed", failure);
+        }
+    }
+
+    private FileChannel openSegment(long firstSequence) throws IOException {
+        Path file = directory.resolve(name(SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        // the new segment's directory entry must be durable before records synced into it count
+        SnapshotFile.forceDirectory(directory);
+        return channel;
+    }
+
+    /**
+     * Apply the records of a segment that come after the given sequence number.
+     * A torn record at the end of the last segment is cut off, anywhere else it means the journal is corrupt.
+     * @return sequence number of the last record applied
+     */
+    private static long replay(Path file, CarRentalCompany company, long sequence, boolean last) throws IOException {
+        long validLength = 0;
+        CRC32 crc = new CRC32();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            while (true) {
+                byte[] payload;
+                try {
+                    int length = in.readInt();
+                    long checksum = in.readInt() & 0xffffffffL;
+                    if (length <= 0 || length > MAX_RECORD_LENGTH) {
+                        break;
+                    }
+                    payload = new byte[length];
+                    in.readFully(payload);
+                    crc.reset();
+                    crc.update(payload);
+                    if (crc.getValue() != checksum) {
+                        break;
+                    }
+                } catch (EOFException e) {
+                    break;
+                }
+                validLength += Integer.BYTES * 2 + payload.length;
+
+                DataInputStream record = new DataInputStream(new ByteArrayInputStream(payload));
+                byte type = record.readByte();
+                long recordSequence = record.readLong();
+                if (recordSequence > sequence) {
+                    apply(type, record, company);
+                    sequence = recordSequence;
+                }
+            }
+        }
+
+        if (validLength < Files.size(file)) {
+            if (!last) {
+                throw new IOException("Journal segment is corrupt: " + file);
+            }
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                channel.truncate(validLength);
+            }
+        }
+        return sequence;
+    }
+
+    private static void apply(byte type, DataInputStream record, CarRentalCompany company) throws IOException {
+        try {
+            switch (type) {
+                case CAR_ADDED:
+                    company.addCar(JournalCodec.readCar(record));
+                    break;
+                case CAR_REMOVED:
+                    company.removeCar(record.readUTF());
+                    break;
+                case CAR_PRICE_CHANGED:
+                    company.updateCarPrice(record.readUTF(), record.readDouble());
+                    break;
+                case BOOKING_ADDED:
+                    company.restoreBooking(JournalCodec.readBooking(record, company));
+                    break;
+                case BOOKINGS_REMOVED:
+                    company.removeBookings(record.readUTF());
+                    break;
+                default:
+                    throw new IOException("Unknown journal record type " + type);
+            }
+        } catch (BookingException e) {
+            throw new IOException("Journal does not replay cleanly", e);
+        }
+    }
+
+    private static List<Path> list(Path directory, String prefix, String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(f -> f.getFileName().toString().startsWith(prefix) && f.getFileName().toString().endsWith(suffix))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static String name(String prefix, long sequence, String suffix) {
+        // zero padded so that files sort by sequence number
+        return String.format("%s%020d%s", prefix, sequence, suffix);
+    }
+
+    private static long firstSequence(Path file, String prefix, String suffix) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length()));
+    }
+
+    /**
+     * Byte buffer that frames records and writes itself to a channel without copying.
+     */
+    private static final class FrameBuffer extends ByteArrayOutputStream {
+        private final CRC32 crc = new CRC32();
+
+        FrameBuffer() {
+            super(1 << 16);
+        }
+
+        void writeFrame(FrameBuffer payload) {
+            crc.reset();
+            crc.update(payload.buf, 0, payload.count);
+            writeInt(payload.count);
+            writeInt((int) crc.getValue());
+            write(payload.buf, 0, payload.count);
+        }
+
+        void appendTo(FrameBuffer buffer) {
+            buffer.write(buf, 0, count);
+        }
+
+        void writeTo(FileChannel channel) throws IOException {
+            ByteBuffer buffer = ByteBuffer.wrap(buf, 0, count);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+
+        private void writeInt(int value) {
+            write(value >>> 24);
+            write(value >>> 16);
+            write(value >>> 8);
+            write(value);
+        }
+    }
+}
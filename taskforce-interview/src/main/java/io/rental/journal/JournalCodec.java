@@ -0,0 +1,80 @@
+package io.rental.journal;
+
+import io.rental.Booking;
+import io.rental.Car;
+import io.rental.CarRentalCompany;
+import io.rental.Renter;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.LocalDate;
+
+/**
+ * Binary encoding of cars and bookings shared by the journal, the snapshots and the shard protocol.
+ * Dates are written as epoch days, a booking carries its car so it can be restored even when the car
+ * has since left the fleet.
+ */
+public final class JournalCodec {
+    // written for a renter whose date of birth is not known
+    private static final int UNKNOWN_DATE = Integer.MIN_VALUE;
+
+    private JournalCodec() {
+    }
+
+    public static void writeCar(DataOutput out, Car car) throws IOException {
+        out.writeUTF(car.getMake());
+        out.writeUTF(car.getModel());
+        out.writeUTF(car.getRegistrationNumber());
+        out.writeUTF(car.getRentalGroup());
+        out.writeDouble(car.getCostPerDay());
+    }
+
+    public static Car readCar(DataInput in) throws IOException {
+        return new Car(in.readUTF(), in.readUTF(), in.readUTF(), in.readUTF(), in.readDouble());
+    }
+
+    public static void writeBooking(DataOutput out, Booking booking) throws IOException {
+        writeCar(out, booking.getCar());
+        out.writeInt(booking.getStartDay());
+        out.writeInt(booking.getEndDay());
+        out.writeDouble(booking.getDailyCost());
+        out.writeBoolean(booking.isMaintenance());
+
+        Renter renter = booking.getRenter();
+        out.writeBoolean(renter != null);
+        if (renter != null) {
+            out.writeUTF(renter.getLastName());
+            out.writeUTF(renter.getFirstName());
+            out.writeUTF(renter.getDrivingLicenseNumber());
+            out.writeInt(renter.getDateOfBirth() == null ? UNKNOWN_DATE : (int) renter.getDateOfBirth().toEpochDay());
+        }
+    }
+
+    /**
+     * @param in input positioned at a booking
+     * @param company company the booking is restored into, its fleet supplies the car when it still holds it,
+     *                or null to keep the decoded car
+     * @return the decoded booking
+     */
+    public static Booking readBooking(DataInput in, CarRentalCompany company) throws IOException {
+        Car car = readCar(in);
+        Car fleetCar = company == null ? null : company.getCar(car.getRegistrationNumber());
+
+        Booking.Builder booking = Booking.builder()
+                .car(fleetCar != null ? fleetCar : car)
+                .startDate(LocalDate.ofEpochDay(in.readInt()))
+                .endDate(LocalDate.ofEpochDay(in.readInt()))
+                .dailyCost(in.readDouble())
+                .maintenance(in.readBoolean());
+        if (in.readBoolean()) {
+            String lastName = in.readUTF();
+            String firstName = in.readUTF();
+            String drivingLicenseNumber = in.readUTF();
+            int dateOfBirth = in.readInt();
+            booking.renter(new Renter(lastName, firstName, drivingLicenseNumber,
+                    dateOfBirth == UNKNOWN_DATE ? null : LocalDate.ofEpochDay(dateOfBirth)));
+        }
+        return booking.build();
+    }
+}
@@ -0,0 +1,101 @@
+package io.rental.journal;
+
+import io.rental.Booking;
+import io.rental.BookingException;
+import io.rental.Car;
+import io.rental.CarRentalCompany;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Full copy of the fleet and the bookings as of a journal sequence number.
+ * A snapshot is written to a temporary file, forced to disk and moved into place, and the move is forced too, so a
+ * crash never leaves a partial one behind and a snapshot that is in place survives a crash.
+ */
+final class SnapshotFile {
+    private static final int MAGIC = 0x52454e54;
+    private static final int VERSION = 1;
+
+    private SnapshotFile() {
+    }
+
+    static void write(Path file, long sequence, List<Car> cars, List<Booking> bookings) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        CRC32 crc = new CRC32();
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+             DataOutputStream out = new DataOutputStream(new CheckedOutputStream(
+                     new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16), crc))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(sequence);
+            out.writeInt(cars.size());
+            for (Car car : cars) {
+                JournalCodec.writeCar(out, car);
+            }
+            out.writeInt(bookings.size());
+            for (Booking booking : bookings) {
+                JournalCodec.writeBooking(out, booking);
+            }
+            out.flush();
+            out.writeLong(crc.getValue());
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        forceDirectory(file.getParent());
+    }
+
+    /**
+     * Force the entries of a directory to disk, so files created, moved or deleted in it stay that way after a crash.
+     */
+    static void forceDirectory(Path directory) throws IOException {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Load a snapshot into a company.
+     * @return sequence number of the last journal record the snapshot covers
+     */
+    static long read(Path file, CarRentalCompany company) throws IOException {
+        CRC32 crc = new CRC32();
+        try (DataInputStream in = new DataInputStream(new CheckedInputStream(
+                new BufferedInputStream(Files.newInputStream(file), 1 << 16), crc))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not a snapshot: " + file);
+            }
+            long sequence = in.readLong();
+            int cars = in.readInt();
+            for (int i = 0; i < cars; i++) {
+                company.addCar(JournalCodec.readCar(in));
+            }
+            int bookings = in.readInt();
+            for (int i = 0; i < bookings; i++) {
+                company.restoreBooking(JournalCodec.readBooking(in, company));
+            }
+            long expected = crc.getValue();
+            if (in.readLong() != expected) {
+                throw new IOException("Snapshot is corrupt: " + file);
+            }
+            return sequence;
+        } catch (BookingException e) {
+            throw new IOException("Snapshot holds clashing bookings: " + file, e);
+        }
+    }
+}
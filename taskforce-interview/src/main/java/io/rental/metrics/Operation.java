@@ -0,0 +1,14 @@
+package io.rental.metrics;
+
+/**
+ * Engine operations timed by {@link RentalMetrics}.
+ */
+public enum Operation {
+    SEARCH,
+    BOOKING,
+    BATCH_BOOKING,
+    MAINTENANCE,
+    UPCOMING_RENTALS,
+    BLENDED_PRICE,
+    ALTERNATIVES
+}
@@ -0,0 +1,60 @@
+package io.rental.metrics;
+
+/**
+ * Point in time summary of one histogram, durations in microseconds.
+ */
+public final class OperationStats {
+    private static final double NANOS_PER_MICRO = 1_000.0;
+
+    private final String name;
+    private final long count;
+    private final double mean;
+    private final double p50;
+    private final double p99;
+    private final double p999;
+    private final double max;
+
+    OperationStats(String name, LatencyHistogram histogram) {
+        this.name = name;
+        this.count = histogram.count();
+        this.mean = histogram.mean() / NANOS_PER_MICRO;
+        this.p50 = histogram.percentile(50) / NANOS_PER_MICRO;
+        this.p99 = histogram.percentile(99) / NANOS_PER_MICRO;
+        this.p999 = histogram.percentile(99.9) / NANOS_PER_MICRO;
+        this.max = histogram.max() / NANOS_PER_MICRO;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMeanMicros() {
+        return mean;
+    }
+
+    public double getP50Micros() {
+        return p50;
+    }
+
+    public double getP99Micros() {
+        return p99;
+    }
+
+    public double getP999Micros() {
+        return p999;
+    }
+
+    public double getMaxMicros() {
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-18s count=%d mean=%.1fus p50=%.1fus p99=%.1fus p99.9=%.1fus max=%.1fus",
+                name, count, mean, p50, p99, p999, max);
+    }
+}
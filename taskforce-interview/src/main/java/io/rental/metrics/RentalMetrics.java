@@ -0,0 +1,123 @@
+package io.rental.metrics;
+
+import io.rental.RejectionReason;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and latency histograms of a {@link io.rental.CarRentalCompany}, see
+ * {@link io.rental.CarRentalCompany#setMetrics(RentalMetrics)}. Every operation is timed into its own
+ * histogram, contended car lock acquisitions are timed into a lock wait histogram and rejections are counted
+ * by reason. Recording never blocks; a company without metrics only pays a null check per operation.
+ * <p>
+ * The metrics can be read through JMX after {@link #register(String)} or as text through {@link #dump()}.
+ */
+public final class RentalMetrics implements RentalMetricsMXBean {
+    private static final String OBJECT_NAME = "io.rental:type=RentalMetrics,name=";
+
+    private final Map<Operation, LatencyHistogram> operations = new EnumMap<>(Operation.class);
+    private final LatencyHistogram lockWait = new LatencyHistogram();
+    private final Map<RejectionReason, LongAdder> rejections = new EnumMap<>(RejectionReason.class);
+
+    public RentalMetrics() {
+        for (Operation operation : Operation.values()) {
+            operations.put(operation, new LatencyHistogram());
+        }
+        for (RejectionReason reason : RejectionReason.values()) {
+            rejections.put(reason, new LongAdder());
+        }
+    }
+
+    /**
+     * @param operation operation that ran
+     * @param startNanos {@link System#nanoTime()} when the operation started
+     */
+    public void record(Operation operation, long startNanos) {
+        operations.get(operation).record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * @param nanos time a thread waited for a contended lock
+     */
+    public void recordLockWait(long nanos) {
+        lockWait.record(nanos);
+    }
+
+    public void recordRejection(RejectionReason reason) {
+        rejections.get(reason).increment();
+    }
+
+    /**
+     * @param operation operation to look up
+     * @return histogram of the operation's durations
+     */
+    public LatencyHistogram histogram(Operation operation) {
+        return operations.get(operation);
+    }
+
+    /**
+     * @param reason rejection reason to look up
+     * @return number of requests rejected for the reason
+     */
+    public long rejections(RejectionReason reason) {
+        return rejections.get(reason).sum();
+    }
+
+    @Override
+    public List<OperationStats> getOperations() {
+        List<OperationStats> stats = new ArrayList<>();
+        operations.forEach((operation, histogram) -> stats.add(new OperationStats(operation.name(), histogram)));
+        return stats;
+    }
+
+    @Override
+    public OperationStats getLockWait() {
+        return new OperationStats("LOCK_WAIT", lockWait);
+    }
+
+    @Override
+    public Map<String, Long> getRejections() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        rejections.forEach((reason, count) -> counts.put(reason.name(), count.sum()));
+        return counts;
+    }
+
+    @Override
+    public String dump() {
+        StringBuilder text = new StringBuilder();
+        for (OperationStats stats : getOperations()) {
+            text.append(stats).append('\n');
+        }
+        text.append(getLockWait()).append('\n');
+        getRejections().forEach((reason, count) -> text.append(String.format("rejected %-18s %d%n", reason, count)));
+        return text.toString();
+    }
+
+    /**
+     * Register the metrics with the platform MBean server.
+     * @param name name that tells this company's metrics apart from others in the same JVM
+     * @return the name the metrics are registered under
+     * @throws JMException if the metrics cannot be registered, e.g. because the name is taken
+     */
+    public ObjectName register(String name) throws JMException {
+        ObjectName objectName = new ObjectName(OBJECT_NAME + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+        return objectName;
+    }
+
+    /**
+     * @param objectName name returned by {@link #register(String)}
+     * @throws JMException if the metrics are not registered under the name
+     */
+    public void unregister(ObjectName objectName) throws JMException {
+        ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+    }
+}
@@ -0,0 +1,27 @@
+package io.rental.metrics;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JMX view of {@link RentalMetrics}.
+ */
+public interface RentalMetricsMXBean {
+
+    List<OperationStats> getOperations();
+
+    /**
+     * @return time spent waiting for contended car locks, one sample per contended acquisition
+     */
+    OperationStats getLockWait();
+
+    /**
+     * @return number of rejected requests by rejection reason
+     */
+    Map<String, Long> getRejections();
+
+    /**
+     * @return the metrics as plain text, one line per operation and rejection reason
+     */
+    String dump();
+}
@@ -0,0 +1,144 @@
+package io.rental.server;
+
+import io.rental.Alternative;
+import io.rental.Booking;
+import io.rental.Car;
+import io.rental.CarPage;
+import io.rental.Renter;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Writes the JSON bodies of the front end's responses, requests are plain form parameters so only
+ * the writing side is needed.
+ */
+final class Json {
+
+    private Json() {
+    }
+
+    static String cars(Collection<Car> cars) {
+        StringBuilder json = new StringBuilder(cars.size() * 96 + 2).append('[');
+        for (Car car : cars) {
+            if (json.length() > 1) {
+                json.append(',');
+            }
+            car(json, car);
+        }
+        return json.append(']').toString();
+    }
+
+    static String page(CarPage page) {
+        StringBuilder json = new StringBuilder(cars(page.getCars())).insert(0, "{\"cars\":").append(",\"nextCursor\":");
+        if (page.getNextCursor() == null) {
+            json.append("null");
+        } else {
+            string(json, page.getNextCursor());
+        }
+        return json.append('}').toString();
+    }
+
+    static String bookings(Collection<Booking> bookings) {
+        StringBuilder json = new StringBuilder(bookings.size() * 192 + 2).append('[');
+        for (Booking booking : bookings) {
+            if (json.length() > 1) {
+                json.append(',');
+            }
+            booking(json, booking);
+        }
+        return json.append(']').toString();
+    }
+
+    static String alternatives(Collection<Alternative> alternatives) {
+        StringBuilder json = new StringBuilder(alternatives.size() * 256 + 2).append('[');
+        for (Alternative alternative : alternatives) {
+            if (json.length() > 1) {
+                json.append(',');
+            }
+            json.append("{\"kind\":\"").append(alternative.getKind())
+                    .append("\",\"penalty\":").append(alternative.getPenalty())
+                    .append(",\"totalCost\":").append(alternative.getTotalCost())
+                    .append(",\"bookings\":[");
+            for (int i = 0; i < alternative.getBookings().size(); i++) {
+                if (i > 0) {
+                    json.append(',');
+                }
+                booking(json, alternative.getBookings().get(i));
+            }
+            json.append("]}");
+        }
+        return json.append(']').toString();
+    }
+
+    static String prices(Map<String, Double> prices) {
+        StringBuilder json = new StringBuilder().append('{');
+        for (Map.Entry<String, Double> price : prices.entrySet()) {
+            if (json.length() > 1) {
+                json.append(',');
+            }
+            string(json, price.getKey()).append(':').append(price.getValue());
+        }
+        return json.append('}').toString();
+    }
+
+    static String price(String rentalGroup, Double price) {
+        StringBuilder json = new StringBuilder().append("{\"rentalGroup\":");
+        string(json, rentalGroup).append(",\"costPerDay\":").append(price);
+        return json.append('}').toString();
+    }
+
+    static String error(String message) {
+        return string(new StringBuilder().append("{\"error\":"), message).append('}').toString();
+    }
+
+    private static void car(StringBuilder json, Car car) {
+        json.append("{\"registrationNumber\":");
+        string(json, car.getRegistrationNumber()).append(",\"make\":");
+        string(json, car.getMake()).append(",\"model\":");
+        string(json, car.getModel()).append(",\"rentalGroup\":");
+        string(json, car.getRentalGroup()).append(",\"costPerDay\":").append(car.getCostPerDay()).append('}');
+    }
+
+    private static void booking(StringBuilder json, Booking booking) {
+        json.append("{\"car\":");
+        car(json, booking.getCar());
+        json.append(",\"startDate\":\"").append(booking.getStartDate())
+                .append("\",\"endDate\":\"").append(booking.getEndDate())
+                .append("\",\"maintenance\":").append(booking.isMaintenance());
+        Renter renter = booking.getRenter();
+        if (renter != null) {
+            json.append(",\"renter\":{\"lastName\":");
+            string(json, renter.getLastName()).append(",\"firstName\":");
+            string(json, renter.getFirstName()).append(",\"drivingLicenseNumber\":");
+            string(json, renter.getDrivingLicenseNumber()).append(",\"dateOfBirth\":");
+            string(json, renter.getDateOfBirth() == null ? null : renter.getDateOfBirth().toString()).append('}');
+        }
+        json.append('}');
+    }
+
+    private static StringBuilder string(StringBuilder json, String value) {
+        if (value == null) {
+            return json.append("null");
+        }
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+                }
+            }
+        }
+        return json.append('"');
+    }
+}
@@ -0,0 +1,311 @@
+package io.rental.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.rental.Booking;
+import io.rental.BookingException;
+import io.rental.Car;
+import io.rental.CarRentalCompany;
+import io.rental.Criteria;
+import io.rental.RejectionReason;
+import io.rental.Renter;
+import io.rental.SearchOrder;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * HTTP front end of a {@link CarRentalCompany} on the JDK's built-in server, every exchange runs on its own
+ * virtual thread. Requests pass their arguments as form parameters, in the query string or as a form encoded
+ * body, dates are ISO dates; responses are JSON.
+ * <pre>
+ * GET  /cars?make=&amp;model=&amp;rentalGroup=&amp;from=&amp;to=   cars matching the set criteria
+ * GET  /cars/page?make=&amp;model=&amp;rentalGroup=&amp;from=&amp;to=[&amp;order=&amp;cursor=&amp;pageSize=]  one page of them
+ * GET  /quotes?make=&amp;model=&amp;from=&amp;to=               available cars at their group's blended price
+ * GET  /alternatives?make=&amp;model=&amp;from=&amp;to=[&amp;maxShiftDays=&amp;limit=]  ranked ways to rent the model
+ * POST /bookings car=&amp;from=&amp;to=[&amp;drivingLicenseNumber=&amp;lastName=&amp;firstName=[&amp;dateOfBirth=]]
+ * POST /maintenance car=&amp;from=&amp;to=
+ * GET  /rentals/upcoming[?days=]
+ * GET  /rentals/renter?drivingLicenseNumber=[&amp;when=past|current|future]  the renter's bookings
+ * GET  /prices[?rentalGroup=]
+ * </pre>
+ * At most {@code maxInFlight} requests are admitted at a time, requests over the limit are turned away
+ * straight away with 503 and a Retry-After header instead of queueing, so a burst cannot pile up work
+ * faster than the engine commits it.
+ */
+public final class RentalServer implements Closeable {
+    private static final int ACCEPT_BACKLOG = 1024;
+    private static final int MAX_BODY_LENGTH = 64 * 1024;
+    private static final String RETRY_AFTER_SECONDS = "1";
+    private static final int DEFAULT_MAX_SHIFT_DAYS = 3;
+    private static final int DEFAULT_ALTERNATIVES = 10;
+    private static final int DEFAULT_PAGE_SIZE = 20;
+
+    private final CarRentalCompany company;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Semaphore admission;
+
+    private RentalServer(CarRentalCompany company, HttpServer server, int maxInFlight) {
+        this.company = company;
+        this.server = server;
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        this.admission = new Semaphore(maxInFlight);
+    }
+
+    /**
+     * Start serving a company.
+     * @param company company to serve
+     * @param address address to listen on, port 0 picks a free port
+     * @param maxInFlight number of requests handled at the same time
+     * @return the running server
+     * @throws IOException if the address cannot be bound
+     */
+    public static RentalServer start(CarRentalCompany company, InetSocketAddress address, int maxInFlight) throws IOException {
+        RentalServer rentalServer = new RentalServer(company, HttpServer.create(address, ACCEPT_BACKLOG), maxInFlight);
+        rentalServer.route("/cars", "GET", rentalServer::cars);
+        rentalServer.route("/cars/page", "GET", rentalServer::carPage);
+        rentalServer.route("/quotes", "GET", rentalServer::quotes);
+        rentalServer.route("/alternatives", "GET", rentalServer::alternatives);
+        rentalServer.route("/bookings", "POST", rentalServer::book);
+        rentalServer.route("/maintenance", "POST", rentalServer::maintenance);
+        rentalServer.route("/rentals/upcoming", "GET", rentalServer::upcomingRentals);
+        rentalServer.route("/rentals/renter", "GET", rentalServer::renterRentals);
+        rentalServer.route("/prices", "GET", rentalServer::prices);
+        rentalServer.server.setExecutor(rentalServer.executor);
+        rentalServer.server.start();
+        return rentalServer;
+    }
+
+    /**
+     * @return port the server listens on
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stop accepting requests and wait for the admitted ones to finish.
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.close();
+    }
+
+    private Response cars(Map<String, String> params) {
+        return Response.ok(Json.cars(company.matchingCars(criteria(params))));
+    }
+
+    private Response carPage(Map<String, String> params) throws BookingException {
+        String order = params.get("order");
+        String pageSize = params.get("pageSize");
+        return Response.ok(Json.page(company.searchPage(criteria(params),
+                order == null ? SearchOrder.REGISTRATION : SearchOrder.valueOf(order.toUpperCase()),
+                params.get("cursor"), pageSize == null ? DEFAULT_PAGE_SIZE : Integer.parseInt(pageSize))));
+    }
+
+    private Response quotes(Map<String, String> params) throws BookingException {
+        return Response.ok(Json.cars(company.getMatchingCarsIncludingBlendedPrice(required(params, "make"),
+                required(params, "model"), date(params, "from", true), date(params, "to", true))));
+    }
+
+    private Response alternatives(Map<String, String> params) throws BookingException {
+        String maxShiftDays = params.get("maxShiftDays");
+        String limit = params.get("limit");
+        return Response.ok(Json.alternatives(company.suggestAlternatives(required(params, "make"), required(params, "model"),
+                date(params, "from", true), date(params, "to", true),
+                maxShiftDays == null ? DEFAULT_MAX_SHIFT_DAYS : Integer.parseInt(maxShiftDays),
+                limit == null ? DEFAULT_ALTERNATIVES : Integer.parseInt(limit))));
+    }
+
+    private Response book(Map<String, String> params) throws BookingException {
+        Car car = company.getCar(required(params, "car"));
+        if (car == null) {
+            return Response.of(404, Json.error("Unknown car"));
+        }
+
+        Booking.Builder builder = Booking.builder()
+                .car(car)
+                .startDate(date(params, "from", true))
+                .endDate(date(params, "to", true));
+        if (params.containsKey("drivingLicenseNumber")) {
+            builder.renter(new Renter(required(params, "lastName"), required(params, "firstName"),
+                    params.get("drivingLicenseNumber"), date(params, "dateOfBirth", false)));
+        }
+        // rentals are charged the blended price they were quoted, callers cannot set their own
+        Double blendedPrice = company.getBlendedPrice(car.getRentalGroup());
+        builder.dailyCost(blendedPrice == null ? car.getCostPerDay() : blendedPrice);
+
+        Booking booking = builder.build();
+        company.addBooking(booking);
+        return Response.of(201, Json.bookings(List.of(booking)));
+    }
+
+    private Response maintenance(Map<String, String> params) throws BookingException {
+        Car car = company.getCar(required(params, "car"));
+        if (car == null) {
+            return Response.of(404, Json.error("Unknown car"));
+        }
+        company.registerCarMaintenance(car, date(params, "from", true), date(params, "to", true));
+        return Response.of(201, "{}");
+    }
+
+    private Response upcomingRentals(Map<String, String> params) {
+        String days = params.get("days");
+        return Response.ok(Json.bookings(days == null ? company.upcomingRentals() : company.upcomingRentals(Integer.parseInt(days))));
+    }
+
+    private Response renterRentals(Map<String, String> params) {
+        String license = required(params, "drivingLicenseNumber");
+        String when = params.get("when");
+        return Response.ok(Json.bookings(when == null ? company.getRenterBookings(license) : switch (when) {
+            case "past" -> company.pastRentals(license);
+            case "current" -> company.currentRentals(license);
+            case "future" -> company.futureRentals(license);
+            default -> throw new IllegalArgumentException("Unknown rentals " + when);
+        }));
+    }
+
+    private Response prices(Map<String, String> params) {
+        String rentalGroup = params.get("rentalGroup");
+        if (rentalGroup == null) {
+            return Response.ok(Json.prices(company.getBlendedPrice()));
+        }
+        Double price = company.getBlendedPrice(rentalGroup);
+        return price == null ? Response.of(404, Json.error("Unknown rental group")) : Response.ok(Json.price(rentalGroup, price));
+    }
+
+    private void route(String path, String method, Handler handler) {
+        server.createContext(path, exchange -> {
+            try (exchange) {
+                if (!admission.tryAcquire()) {
+                    exchange.getResponseHeaders().set("Retry-After", RETRY_AFTER_SECONDS);
+                    send(exchange, Response.of(503, Json.error("Too many requests")));
+                    return;
+                }
+                try {
+                    send(exchange, handle(exchange, path, method, handler));
+                } finally {
+                    admission.release();
+                }
+            }
+        });
+    }
+
+    private static Response handle(HttpExchange exchange, String path, String method, Handler handler) throws IOException {
+        // contexts match by prefix, anything below the route is not served
+        if (!exchange.getRequestURI().getPath().equals(path)) {
+            return Response.of(404, Json.error("Not found"));
+        }
+        if (!exchange.getRequestMethod().equals(method)) {
+            exchange.getResponseHeaders().set("Allow", method);
+            return Response.of(405, Json.error("Method not allowed"));
+        }
+        try {
+            return handler.handle(params(exchange));
+        } catch (BookingException e) {
+            return Response.of(status(e.getReason()), Json.error(e.getMessage()));
+        } catch (IllegalArgumentException | DateTimeException e) {
+            return Response.of(400, Json.error(e.getMessage()));
+        } catch (RuntimeException e) {
+            // the exchange is always answered, the details stay on the server
+            return Response.of(500, Json.error("Internal error"));
+        }
+    }
+
+    private static int status(RejectionReason reason) {
+        return switch (reason) {
+            case UNKNOWN_CAR -> 404;
+            case INVALID_ARGUMENTS -> 400;
+            default -> 409;
+        };
+    }
+
+    private static Map<String, String> params(HttpExchange exchange) throws IOException {
+        Map<String, String> params = new HashMap<>();
+        parse(exchange.getRequestURI().getRawQuery(), params);
+        if ("POST".equals(exchange.getRequestMethod())) {
+            InputStream body = exchange.getRequestBody();
+            byte[] bytes = body.readNBytes(MAX_BODY_LENGTH + 1);
+            if (bytes.length > MAX_BODY_LENGTH) {
+                throw new IllegalArgumentException("Request body too large");
+            }
+            parse(new String(bytes, StandardCharsets.UTF_8), params);
+        }
+        return params;
+    }
+
+    private static void parse(String form, Map<String, String> params) {
+        if (form == null || form.isEmpty()) {
+            return;
+        }
+        for (String pair : form.split("&")) {
+            int separator = pair.indexOf('=');
+            if (separator > 0) {
+                params.put(URLDecoder.decode(pair.substring(0, separator), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    private static Criteria criteria(Map<String, String> params) {
+        Criteria criteria = new Criteria();
+        criteria.setMake(params.get("make"));
+        criteria.setModel(params.get("model"));
+        criteria.setRentalGroup(params.get("rentalGroup"));
+        criteria.setFromDate(date(params, "from", false));
+        criteria.setToDate(date(params, "to", false));
+        return criteria;
+    }
+
+    private static String required(Map<String, String> params, String name) {
+        String value = params.get(name);
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException("Missing parameter " + name);
+        }
+        return value;
+    }
+
+    private static LocalDate date(Map<String, String> params, String name, boolean required) {
+        String value = required ? required(params, name) : params.get(name);
+        return value == null ? null : LocalDate.parse(value);
+    }
+
+    private static void send(HttpExchange exchange, Response response) throws IOException {
+        byte[] body = response.body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(response.status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Response handle(Map<String, String> params) throws BookingException;
+    }
+
+    private record Response(int status, String body) {
+        static Response ok(String body) {
+            return new Response(200, body);
+        }
+
+        static Response of(int status, String body) {
+            return new Response(status, body);
+        }
+    }
+}
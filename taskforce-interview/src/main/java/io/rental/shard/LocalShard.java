@@ -0,0 +1,92 @@
+package io.rental.shard;
+
+import io.rental.Booking;
+import io.rental.BookingException;
+import io.rental.Car;
+import io.rental.CarRentalCompany;
+import io.rental.Criteria;
+import io.rental.RejectionReason;
+import io.rental.RentalGroupTotal;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A shard backed by a {@link CarRentalCompany} in this process.
+ */
+public final class LocalShard implements RentalShard {
+    private final CarRentalCompany company;
+
+    public LocalShard(CarRentalCompany company) {
+        this.company = company;
+    }
+
+    public CarRentalCompany getCompany() {
+        return company;
+    }
+
+    @Override
+    public void addCar(Car car) {
+        company.addCar(car);
+    }
+
+    @Override
+    public Car removeCar(String registrationNumber) {
+        return company.removeCar(registrationNumber);
+    }
+
+    @Override
+    public Car getCar(String registrationNumber) {
+        return company.getCar(registrationNumber);
+    }
+
+    @Override
+    public void updateCarPrice(String registrationNumber, double costPerDay) throws BookingException {
+        company.updateCarPrice(registrationNumber, costPerDay);
+    }
+
+    @Override
+    public List<Car> matchingCars(Criteria criteria) {
+        return company.matchingCars(criteria);
+    }
+
+    @Override
+    public void addBooking(Booking booking) throws BookingException {
+        company.addBooking(booking);
+    }
+
+    @Override
+    public void restoreBooking(Booking booking) throws BookingException {
+        company.restoreBooking(booking);
+    }
+
+    @Override
+    public void registerCarMaintenance(String registrationNumber, LocalDate startDate, LocalDate endDate) throws BookingException {
+        Car car = company.getCar(registrationNumber);
+        if (car == null) {
+            throw new BookingException(RejectionReason.UNKNOWN_CAR);
+        }
+        company.registerCarMaintenance(car, startDate, endDate);
+    }
+
+    @Override
+    public List<Booking> rentalsStartingBetween(LocalDate fromDate, LocalDate toDate) {
+        return company.rentalsStartingBetween(fromDate, toDate);
+    }
+
+    @Override
+    public List<Booking> bookingsOf(String registrationNumber) {
+        return company.getBookings(registrationNumber);
+    }
+
+    @Override
+    public List<Booking> removeBookings(String registrationNumber) {
+        return company.removeBookings(registrationNumber);
+    }
+
+    @Override
+    public Map<String, RentalGroupTotal> rentalGroupTotals() {
+        return company.getRentalGroupTotals();
+    }
+}
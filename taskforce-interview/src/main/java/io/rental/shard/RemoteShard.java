@@ -0,0 +1,184 @@
+package io.rental.shard;
+
+import io.rental.Booking;
+import io.rental.BookingException;
+import io.rental.Car;
+import io.rental.Criteria;
+import io.rental.RejectionReason;
+import io.rental.RentalGroupTotal;
+import io.rental.journal.JournalCodec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A shard served by a {@link ShardServer} in another process. Bookings returned by the shard carry their own
+ * copy of the car.
+ */
+public final class RemoteShard implements RentalShard {
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private static final Result<Void> NO_RESULT = in -> null;
+
+    private final URI uri;
+    private final HttpClient client;
+
+    /**
+     * @param baseUri address of the shard server, e.g. {@code http://host:port}
+     */
+    public RemoteShard(URI baseUri) {
+        this.uri = baseUri.resolve(ShardProtocol.PATH);
+        this.client = HttpClient.newBuilder().connectTimeout(TIMEOUT).build();
+    }
+
+    @Override
+    public void addCar(Car car) {
+        unchecked(ShardProtocol.ADD_CAR, out -> JournalCodec.writeCar(out, car), NO_RESULT);
+    }
+
+    @Override
+    public Car removeCar(String registrationNumber) {
+        return unchecked(ShardProtocol.REMOVE_CAR, out -> out.writeUTF(registrationNumber), ShardProtocol::readCar);
+    }
+
+    @Override
+    public Car getCar(String registrationNumber) {
+        return unchecked(ShardProtocol.GET_CAR, out -> out.writeUTF(registrationNumber), ShardProtocol::readCar);
+    }
+
+    @Override
+    public void updateCarPrice(String registrationNumber, double costPerDay) throws BookingException {
+        call(ShardProtocol.UPDATE_CAR_PRICE, out -> {
+            out.writeUTF(registrationNumber);
+            out.writeDouble(costPerDay);
+        }, NO_RESULT);
+    }
+
+    @Override
+    public List<Car> matchingCars(Criteria criteria) {
+        return unchecked(ShardProtocol.MATCHING_CARS, out -> ShardProtocol.writeCriteria(out, criteria), ShardProtocol::readCars);
+    }
+
+    @Override
+    public void addBooking(Booking booking) throws BookingException {
+        call(ShardProtocol.ADD_BOOKING, out -> JournalCodec.writeBooking(out, booking), NO_RESULT);
+    }
+
+    @Override
+    public void restoreBooking(Booking booking) throws BookingException {
+        call(ShardProtocol.RESTORE_BOOKING, out -> JournalCodec.writeBooking(out, booking), NO_RESULT);
+    }
+
+    @Override
+    public void registerCarMaintenance(String registrationNumber, LocalDate startDate, LocalDate endDate) throws BookingException {
+        call(ShardProtocol.REGISTER_MAINTENANCE, out -> {
+            out.writeUTF(registrationNumber);
+            ShardProtocol.writeDate(out, startDate);
+            ShardProtocol.writeDate(out, endDate);
+        }, NO_RESULT);
+    }
+
+    @Override
+    public List<Booking> rentalsStartingBetween(LocalDate fromDate, LocalDate toDate) {
+        return unchecked(ShardProtocol.RENTALS_STARTING_BETWEEN, out -> {
+            ShardProtocol.writeDate(out, fromDate);
+            ShardProtocol.writeDate(out, toDate);
+        }, RemoteShard::readBookings);
+    }
+
+    @Override
+    public List<Booking> bookingsOf(String registrationNumber) {
+        return unchecked(ShardProtocol.BOOKINGS_OF, out -> out.writeUTF(registrationNumber), RemoteShard::readBookings);
+    }
+
+    @Override
+    public List<Booking> removeBookings(String registrationNumber) {
+        return unchecked(ShardProtocol.REMOVE_BOOKINGS, out -> out.writeUTF(registrationNumber), RemoteShard::readBookings);
+    }
+
+    @Override
+    public Map<String, RentalGroupTotal> rentalGroupTotals() {
+        return unchecked(ShardProtocol.RENTAL_GROUP_TOTALS, out -> { }, in -> {
+            int size = in.readInt();
+            Map<String, RentalGroupTotal> totals = new HashMap<>();
+            for (int i = 0; i < size; i++) {
+                totals.put(in.readUTF(), new RentalGroupTotal(in.readDouble(), in.readLong()));
+            }
+            return totals;
+        });
+    }
+
+    @Override
+    public String toString() {
+        return "RemoteShard[" + uri + "]";
+    }
+
+    // Utility function to decode bookings, they keep the car they were sent with
+    private static List<Booking> readBookings(DataInputStream in) throws IOException {
+        return ShardProtocol.readBookings(in, null);
+    }
+
+    // Utility function to run an operation the shard cannot reject
+    private <T> T unchecked(byte op, Arguments arguments, Result<T> result) {
+        try {
+            return call(op, arguments, result);
+        } catch (BookingException e) {
+            throw new IllegalStateException("Shard rejected operation " + op, e);
+        }
+    }
+
+    // Utility function to send an operation and read its result
+    private <T> T call(byte op, Arguments arguments, Result<T> result) throws BookingException {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(op);
+            arguments.write(out);
+            out.flush();
+
+            HttpRequest request = HttpRequest.newBuilder(uri)
+                    .timeout(TIMEOUT)
+                    .header("Content-Type", ShardProtocol.CONTENT_TYPE)
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(bytes.toByteArray()))
+                    .build();
+            HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() != 200) {
+                throw new IOException("Shard " + uri + " answered " + response.statusCode());
+            }
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(response.body()));
+            if (in.readByte() == ShardProtocol.REJECTED) {
+                throw new BookingException(RejectionReason.valueOf(in.readUTF()), in.readUTF());
+            }
+            return result.read(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UncheckedIOException(new InterruptedIOException("Interrupted calling shard " + uri));
+        }
+    }
+
+    @FunctionalInterface
+    private interface Arguments {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface Result<T> {
+        T read(DataInputStream in) throws IOException;
+    }
+}
@@ -0,0 +1,62 @@
+package io.rental.shard;
+
+import io.rental.Booking;
+import io.rental.BookingException;
+import io.rental.Car;
+import io.rental.CarRentalCompany;
+import io.rental.Criteria;
+import io.rental.RentalGroupTotal;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One independent engine behind a {@link ShardedCarRentalCompany}, either in this process ({@link LocalShard})
+ * or in another one ({@link RemoteShard}). The operations mirror {@link CarRentalCompany}; a remote shard that
+ * cannot be reached fails with an {@link java.io.UncheckedIOException}.
+ */
+public interface RentalShard {
+
+    void addCar(Car car);
+
+    /**
+     * @return the removed car or null if the shard does not hold it, its bookings are kept
+     */
+    Car removeCar(String registrationNumber);
+
+    Car getCar(String registrationNumber);
+
+    void updateCarPrice(String registrationNumber, double costPerDay) throws BookingException;
+
+    /**
+     * @return cars matching the criteria ordered by registration number
+     */
+    List<Car> matchingCars(Criteria criteria);
+
+    void addBooking(Booking booking) throws BookingException;
+
+    /**
+     * Add a booking that may lie in the past, used to move a car's bookings between shards.
+     */
+    void restoreBooking(Booking booking) throws BookingException;
+
+    void registerCarMaintenance(String registrationNumber, LocalDate startDate, LocalDate endDate) throws BookingException;
+
+    /**
+     * @return bookings starting between the two dates, both inclusive, sorted by start date
+     */
+    List<Booking> rentalsStartingBetween(LocalDate fromDate, LocalDate toDate);
+
+    /**
+     * @return bookings of the car sorted by start date
+     */
+    List<Booking> bookingsOf(String registrationNumber);
+
+    /**
+     * @return the removed bookings of the car
+     */
+    List<Booking> removeBookings(String registrationNumber);
+
+    Map<String, RentalGroupTotal> rentalGroupTotals();
+}
@@ -0,0 +1,129 @@
+package io.rental.shard;
+
+import io.rental.Booking;
+import io.rental.Car;
+import io.rental.CarRentalCompany;
+import io.rental.Criteria;
+import io.rental.journal.JournalCodec;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary request and response bodies exchanged between {@link RemoteShard} and {@link ShardServer}.
+ * A request is an operation code followed by its arguments, a response a status followed by the result or,
+ * for a rejection, the reason and message. Cars and bookings use the journal encoding.
+ */
+final class ShardProtocol {
+    static final String PATH = "/shard";
+    static final String CONTENT_TYPE = "application/octet-stream";
+
+    static final byte ADD_CAR = 1;
+    static final byte REMOVE_CAR = 2;
+    static final byte GET_CAR = 3;
+    static final byte UPDATE_CAR_PRICE = 4;
+    static final byte MATCHING_CARS = 5;
+    static final byte ADD_BOOKING = 6;
+    static final byte RESTORE_BOOKING = 7;
+    static final byte REGISTER_MAINTENANCE = 8;
+    static final byte RENTALS_STARTING_BETWEEN = 9;
+    static final byte BOOKINGS_OF = 10;
+    static final byte REMOVE_BOOKINGS = 11;
+    static final byte RENTAL_GROUP_TOTALS = 12;
+
+    static final byte OK = 0;
+    static final byte REJECTED = 1;
+
+    private ShardProtocol() {
+    }
+
+    static void writeString(DataOutput out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    static String readString(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    static void writeDate(DataOutput out, LocalDate date) throws IOException {
+        out.writeBoolean(date != null);
+        if (date != null) {
+            out.writeInt((int) date.toEpochDay());
+        }
+    }
+
+    static LocalDate readDate(DataInput in) throws IOException {
+        return in.readBoolean() ? LocalDate.ofEpochDay(in.readInt()) : null;
+    }
+
+    static void writeCriteria(DataOutput out, Criteria criteria) throws IOException {
+        writeString(out, criteria.getMake());
+        writeString(out, criteria.getModel());
+        writeString(out, criteria.getRentalGroup());
+        writeDate(out, criteria.getFromDate());
+        writeDate(out, criteria.getToDate());
+    }
+
+    static Criteria readCriteria(DataInput in) throws IOException {
+        Criteria criteria = new Criteria();
+        criteria.setMake(readString(in));
+        criteria.setModel(readString(in));
+        criteria.setRentalGroup(readString(in));
+        criteria.setFromDate(readDate(in));
+        criteria.setToDate(readDate(in));
+        return criteria;
+    }
+
+    static void writeCar(DataOutput out, Car car) throws IOException {
+        out.writeBoolean(car != null);
+        if (car != null) {
+            JournalCodec.writeCar(out, car);
+        }
+    }
+
+    static Car readCar(DataInput in) throws IOException {
+        return in.readBoolean() ? JournalCodec.readCar(in) : null;
+    }
+
+    static void writeCars(DataOutput out, List<Car> cars) throws IOException {
+        out.writeInt(cars.size());
+        for (Car car : cars) {
+            JournalCodec.writeCar(out, car);
+        }
+    }
+
+    static List<Car> readCars(DataInput in) throws IOException {
+        int size = in.readInt();
+        List<Car> cars = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            cars.add(JournalCodec.readCar(in));
+        }
+        return cars;
+    }
+
+    static void writeBookings(DataOutput out, List<Booking> bookings) throws IOException {
+        out.writeInt(bookings.size());
+        for (Booking booking : bookings) {
+            JournalCodec.writeBooking(out, booking);
+        }
+    }
+
+    /**
+     * @param company company whose fleet supplies the cars of the bookings, or null to keep the decoded cars
+     */
+    static List<Booking> readBookings(DataInput in, CarRentalCompany company) throws IOException {
+        int size = in.readInt();
+        List<Booking> bookings = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            bookings.add(JournalCodec.readBooking(in, company));
+        }
+        return bookings;
+    }
+}
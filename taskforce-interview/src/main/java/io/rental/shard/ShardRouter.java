@@ -0,0 +1,25 @@
+package io.rental.shard;
+
+import io.rental.Car;
+
+/**
+ * Picks the shard a new car is placed on, e.g. the shard of the branch the car belongs to.
+ * Once placed, a car stays on its shard until it is moved with {@link ShardedCarRentalCompany#moveCar}.
+ */
+@FunctionalInterface
+public interface ShardRouter {
+
+    /**
+     * @param car car joining the fleet
+     * @param shards number of shards
+     * @return index of the shard to place the car on
+     */
+    int shardFor(Car car, int shards);
+
+    /**
+     * @return router spreading cars evenly over the shards by registration number
+     */
+    static ShardRouter byRegistrationHash() {
+        return (car, shards) -> Math.floorMod(car.getRegistrationNumber().hashCode(), shards);
+    }
+}
@@ -0,0 +1,158 @@
+package io.rental.shard;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.rental.BookingException;
+import io.rental.CarRentalCompany;
+import io.rental.RentalGroupTotal;
+import io.rental.journal.BookingJournal;
+import io.rental.journal.JournalCodec;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves a {@link CarRentalCompany} as a shard to {@link RemoteShard}s in other processes, over HTTP on the JDK's
+ * built-in server with every request on its own virtual thread. Run {@link #main(String[])} to start a shard
+ * as a process of its own.
+ */
+public final class ShardServer implements Closeable {
+    private static final int ACCEPT_BACKLOG = 1024;
+    private static final long JOURNAL_SYNC_INTERVAL_MILLIS = 10;
+
+    private final CarRentalCompany company;
+    private final LocalShard shard;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private ShardServer(CarRentalCompany company, HttpServer server) {
+        this.company = company;
+        this.shard = new LocalShard(company);
+        this.server = server;
+    }
+
+    /**
+     * @param company company to serve
+     * @param address address to listen on, port 0 picks a free port
+     * @return the running server
+     * @throws IOException if the address cannot be bound
+     */
+    public static ShardServer start(CarRentalCompany company, InetSocketAddress address) throws IOException {
+        ShardServer shardServer = new ShardServer(company, HttpServer.create(address, ACCEPT_BACKLOG));
+        shardServer.server.createContext(ShardProtocol.PATH, shardServer::handle);
+        shardServer.server.setExecutor(shardServer.executor);
+        shardServer.server.start();
+        return shardServer;
+    }
+
+    /**
+     * Run a shard process: {@code ShardServer <port> [journal directory]}. With a journal directory the shard
+     * recovers its state from the journal on start and journals every change.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: ShardServer <port> [journal directory]");
+            System.exit(2);
+        }
+        CarRentalCompany company = new CarRentalCompany();
+        BookingJournal journal = args.length > 1 ? BookingJournal.open(Paths.get(args[1]), company, JOURNAL_SYNC_INTERVAL_MILLIS) : null;
+        ShardServer shardServer = start(company, new InetSocketAddress(Integer.parseInt(args[0])));
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            shardServer.close();
+            if (journal != null) {
+                try {
+                    journal.close();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        }));
+        System.out.println("Shard listening on port " + shardServer.getPort());
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.close();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"POST".equals(exchange.getRequestMethod()) || !ShardProtocol.PATH.equals(exchange.getRequestURI().getPath())) {
+                send(exchange, 404, "Not found".getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            try {
+                DataInputStream in = new DataInputStream(exchange.getRequestBody());
+                byte op = in.readByte();
+                ByteArrayOutputStream result = new ByteArrayOutputStream();
+                apply(op, in, new DataOutputStream(result));
+                out.writeByte(ShardProtocol.OK);
+                result.writeTo(out);
+            } catch (BookingException e) {
+                bytes.reset();
+                out.writeByte(ShardProtocol.REJECTED);
+                out.writeUTF(e.getReason().name());
+                out.writeUTF(e.getMessage());
+            } catch (RuntimeException | IOException e) {
+                send(exchange, 500, String.valueOf(e).getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+            out.flush();
+            send(exchange, 200, bytes.toByteArray());
+        }
+    }
+
+    private void apply(byte op, DataInputStream in, DataOutputStream out) throws IOException, BookingException {
+        switch (op) {
+            case ShardProtocol.ADD_CAR -> shard.addCar(JournalCodec.readCar(in));
+            case ShardProtocol.REMOVE_CAR -> ShardProtocol.writeCar(out, shard.removeCar(in.readUTF()));
+            case ShardProtocol.GET_CAR -> ShardProtocol.writeCar(out, shard.getCar(in.readUTF()));
+            case ShardProtocol.UPDATE_CAR_PRICE -> shard.updateCarPrice(in.readUTF(), in.readDouble());
+            case ShardProtocol.MATCHING_CARS -> ShardProtocol.writeCars(out, shard.matchingCars(ShardProtocol.readCriteria(in)));
+            case ShardProtocol.ADD_BOOKING -> shard.addBooking(JournalCodec.readBooking(in, company));
+            case ShardProtocol.RESTORE_BOOKING -> shard.restoreBooking(JournalCodec.readBooking(in, company));
+            case ShardProtocol.REGISTER_MAINTENANCE ->
+                    shard.registerCarMaintenance(in.readUTF(), ShardProtocol.readDate(in), ShardProtocol.readDate(in));
+            case ShardProtocol.RENTALS_STARTING_BETWEEN ->
+                    ShardProtocol.writeBookings(out, shard.rentalsStartingBetween(ShardProtocol.readDate(in), ShardProtocol.readDate(in)));
+            case ShardProtocol.BOOKINGS_OF -> ShardProtocol.writeBookings(out, shard.bookingsOf(in.readUTF()));
+            case ShardProtocol.REMOVE_BOOKINGS -> ShardProtocol.writeBookings(out, shard.removeBookings(in.readUTF()));
+            case ShardProtocol.RENTAL_GROUP_TOTALS -> {
+                Map<String, RentalGroupTotal> totals = shard.rentalGroupTotals();
+                out.writeInt(totals.size());
+                for (Map.Entry<String, RentalGroupTotal> total : totals.entrySet()) {
+                    out.writeUTF(total.getKey());
+                    out.writeDouble(total.getValue().getSum());
+                    out.writeLong(total.getValue().getCount());
+                }
+            }
+            default -> throw new IOException("Unknown shard operation " + op);
+        }
+        out.flush();
+    }
+
+    private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", ShardProtocol.CONTENT_TYPE);
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
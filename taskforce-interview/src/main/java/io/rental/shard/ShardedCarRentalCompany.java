@@ -0,0 +1,402 @@
+package io.rental.shard;
+
+import com.google.common.util.concurrent.Striped;
+import io.rental.Booking;
+import io.rental.BookingException;
+import io.rental.Car;
+import io.rental.Criteria;
+import io.rental.RejectionReason;
+import io.rental.RentalGroupTotal;
+
+import java.io.Closeable;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Car rental engine partitioned over independent shards, e.g. one per branch or per registration hash.
+ * Each car lives on exactly one shard together with its bookings, so bookings and maintenance are routed to
+ * that shard and commit under its own locks. Searches, upcoming rentals and pricing fan out to every shard in
+ * parallel and the sorted results are merged.
+ * <p>
+ * A directory maps each registration number to its shard. Cars can move between shards with
+ * {@link #moveCar(String, int)}: the car and its bookings are copied to the target first, the directory is
+ * switched and only then are they removed from the source. Results are only taken from the shard the directory
+ * names. A search reads optimistically and runs again under a lock if a directory switch happened while it fanned
+ * out, so a search running during a move sees the car exactly once.
+ */
+public class ShardedCarRentalCompany implements Closeable {
+    private static final int UPCOMING_RENTAL_DAYS = 7;
+    private static final int CAR_LOCK_STRIPES = 64;
+
+    private static final Comparator<Car> BY_REGISTRATION = Comparator.comparing(Car::getRegistrationNumber);
+    private static final Comparator<Booking> BY_START_DATE = Comparator.comparingInt(Booking::getStartDay);
+
+    private final List<RentalShard> shards;
+    private final ShardRouter router;
+
+    // shard holding each car and its bookings
+    private final ConcurrentMap<String, Integer> directory = new ConcurrentHashMap<>();
+
+    // bookings take a car's read lock, moves take its write lock
+    private final Striped<ReadWriteLock> carLocks = Striped.readWriteLock(CAR_LOCK_STRIPES);
+
+    // held for writing while a move switches the directory and clears the source, searches validate against it
+    private final StampedLock switches = new StampedLock();
+
+    private final ExecutorService fanOut = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * Put shards behind one facade, the directory is rebuilt from the cars the shards already hold.
+     * @param shards shards to partition the fleet over
+     * @param router picks the shard of a new car
+     */
+    public ShardedCarRentalCompany(List<? extends RentalShard> shards, ShardRouter router) {
+        this.shards = List.copyOf(shards);
+        this.router = router;
+        List<List<Car>> fleets = scatter(shard -> shard.matchingCars(new Criteria()));
+        for (int i = 0; i < fleets.size(); i++) {
+            for (Car car : fleets.get(i)) {
+                directory.put(car.getRegistrationNumber(), i);
+            }
+        }
+    }
+
+    public int getShardCount() {
+        return shards.size();
+    }
+
+    /**
+     * @param registrationNumber registration number of the car
+     * @return index of the shard holding the car's bookings, -1 if no shard has held the car
+     */
+    public int shardOf(String registrationNumber) {
+        return directory.getOrDefault(registrationNumber, -1);
+    }
+
+    /**
+     * Add a car on the shard the router picks, a car already in the fleet is replaced on its own shard.
+     * @param car car to add
+     */
+    public void addCar(Car car) {
+        addCar(car, router.shardFor(car, shards.size()));
+    }
+
+    /**
+     * Add a car on a given shard, a car already in the fleet is replaced on its own shard instead.
+     * @param car car to add
+     * @param shard index of the shard, e.g. of the car's branch
+     */
+    public void addCar(Car car, int shard) {
+        checkShard(shard);
+        Lock lock = carLocks.get(car.getRegistrationNumber()).writeLock();
+        lock.lock();
+        try {
+            int owner = directory.computeIfAbsent(car.getRegistrationNumber(), r -> shard);
+            shards.get(owner).addCar(car);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Take a car out of the fleet, its bookings are kept on its shard.
+     * @param registrationNumber registration number of the car
+     * @return the removed car or null if there is no such car
+     */
+    public Car removeCar(String registrationNumber) {
+        Lock lock = carLocks.get(registrationNumber).writeLock();
+        lock.lock();
+        try {
+            Integer owner = directory.get(registrationNumber);
+            return owner == null ? null : shards.get(owner).removeCar(registrationNumber);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Car getCar(String registrationNumber) {
+        Integer owner = directory.get(registrationNumber);
+        return owner == null ? null : shards.get(owner).getCar(registrationNumber);
+    }
+
+    public void updateCarPrice(String registrationNumber, double costPerDay) throws BookingException {
+        Lock lock = carLocks.get(registrationNumber).readLock();
+        lock.lock();
+        try {
+            shards.get(owner(registrationNumber)).updateCarPrice(registrationNumber, costPerDay);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Move a car and all its bookings to another shard, e.g. when the car is transferred to another branch.
+     * Bookings of the car wait for the move, bookings of other cars carry on.
+     * @param registrationNumber registration number of the car
+     * @param target index of the shard to move the car to
+     * @throws BookingException if the car is not in the fleet or its bookings cannot be restored on the target
+     */
+    public void moveCar(String registrationNumber, int target) throws BookingException {
+        checkShard(target);
+        Lock lock = carLocks.get(registrationNumber).writeLock();
+        lock.lock();
+        try {
+            int source = owner(registrationNumber);
+            if (source == target) {
+                return;
+            }
+            RentalShard from = shards.get(source);
+            RentalShard to = shards.get(target);
+            Car car = from.getCar(registrationNumber);
+            if (car == null) {
+                throw new BookingException(RejectionReason.UNKNOWN_CAR);
+            }
+
+            to.addCar(car);
+            try {
+                for (Booking booking : from.bookingsOf(registrationNumber)) {
+                    to.restoreBooking(booking);
+                }
+            } catch (BookingException | RuntimeException e) {
+                // leave the car where it was
+                to.removeBookings(registrationNumber);
+                to.removeCar(registrationNumber);
+                throw e;
+            }
+
+            long stamp = switches.writeLock();
+            try {
+                directory.put(registrationNumber, target);
+                from.removeCar(registrationNumber);
+                from.removeBookings(registrationNumber);
+            } finally {
+                switches.unlockWrite(stamp);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Find the cars matching the criteria on every shard.
+     * @param criteria search criteria, criteria that are not set match every car
+     * @return matching cars ordered by registration number
+     */
+    public List<Car> matchingCars(Criteria criteria) {
+        return withoutSwitches(() -> gather(scatter(shard -> shard.matchingCars(criteria)),
+                Car::getRegistrationNumber, BY_REGISTRATION));
+    }
+
+    public List<Car> availableCars(String make, String model, LocalDate startDate, LocalDate endDate) throws BookingException {
+        if (make == null || model == null || startDate == null || endDate == null) {
+            throw new BookingException(RejectionReason.INVALID_ARGUMENTS);
+        }
+
+        Criteria criteria = new Criteria();
+        criteria.setMake(make);
+        criteria.setModel(model);
+        criteria.setFromDate(startDate);
+        criteria.setToDate(endDate);
+        return matchingCars(criteria);
+    }
+
+    /**
+     * Book a car on the shard that holds it.
+     * @param booking booking to add
+     * @throws BookingException if the car is not in the fleet or the shard rejects the booking
+     */
+    public void addBooking(Booking booking) throws BookingException {
+        String registrationNumber = booking.getCar().getRegistrationNumber();
+        Lock lock = carLocks.get(registrationNumber).readLock();
+        lock.lock();
+        try {
+            shards.get(owner(registrationNumber)).addBooking(booking);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void registerCarMaintenance(Car car, LocalDate startDate, LocalDate endDate) throws BookingException {
+        String registrationNumber = car.getRegistrationNumber();
+        Lock lock = carLocks.get(registrationNumber).readLock();
+        lock.lock();
+        try {
+            shards.get(owner(registrationNumber)).registerCarMaintenance(registrationNumber, startDate, endDate);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public List<Booking> upcomingRentals() {
+        return upcomingRentals(UPCOMING_RENTAL_DAYS);
+    }
+
+    /**
+     * @param days number of days to look ahead
+     * @return bookings starting between tomorrow and the given number of days from today, sorted by start date
+     */
+    public List<Booking> upcomingRentals(int days) {
+        LocalDate today = LocalDate.now();
+        return rentalsStartingBetween(today.plusDays(1), today.plusDays(days));
+    }
+
+    /**
+     * @return bookings starting between two dates on every shard, both inclusive, sorted by start date
+     */
+    public List<Booking> rentalsStartingBetween(LocalDate fromDate, LocalDate toDate) {
+        return withoutSwitches(() -> gather(scatter(shard -> shard.rentalsStartingBetween(fromDate, toDate)),
+                b -> b.getCar().getRegistrationNumber(), BY_START_DATE));
+    }
+
+    /**
+     * @return average daily cost of every rental group across all shards
+     */
+    public Map<String, Double> getBlendedPrice() {
+        Map<String, Double> prices = new HashMap<>();
+        rentalGroupTotals().forEach((group, total) -> prices.put(group, total.getBlendedPrice()));
+        return prices;
+    }
+
+    /**
+     * @param rentalGroup rental group to price
+     * @return average daily cost of the group's cars across all shards or null if the group has no cars
+     */
+    public Double getBlendedPrice(String rentalGroup) {
+        RentalGroupTotal total = rentalGroupTotals().get(rentalGroup);
+        return total == null ? null : total.getBlendedPrice();
+    }
+
+    /**
+     * Stop the fan-out threads, the shards themselves are left running.
+     */
+    @Override
+    public void close() {
+        fanOut.close();
+    }
+
+    private Map<String, RentalGroupTotal> rentalGroupTotals() {
+        Map<String, RentalGroupTotal> totals = new HashMap<>();
+        for (Map<String, RentalGroupTotal> shardTotals : scatter(RentalShard::rentalGroupTotals)) {
+            shardTotals.forEach((group, total) -> totals.merge(group, total, RentalGroupTotal::plus));
+        }
+        return totals;
+    }
+
+    private int owner(String registrationNumber) throws BookingException {
+        Integer owner = directory.get(registrationNumber);
+        if (owner == null) {
+            throw new BookingException(RejectionReason.UNKNOWN_CAR);
+        }
+        return owner;
+    }
+
+    private void checkShard(int shard) {
+        if (shard < 0 || shard >= shards.size()) {
+            throw new IllegalArgumentException("No shard " + shard);
+        }
+    }
+
+    // Utility function to run a search no directory switch overlaps: optimistically first, and if a move switched
+    // a car meanwhile, again while switches wait
+    private <T> T withoutSwitches(Supplier<T> search) {
+        long stamp = switches.tryOptimisticRead();
+        T result = search.get();
+        if (switches.validate(stamp)) {
+            return result;
+        }
+        stamp = switches.readLock();
+        try {
+            return search.get();
+        } finally {
+            switches.unlockRead(stamp);
+        }
+    }
+
+    // run a query on every shard at once, results come back in shard order
+    private <T> List<T> scatter(Function<RentalShard, T> query) {
+        List<Future<T>> futures = new ArrayList<>(shards.size());
+        for (RentalShard shard : shards) {
+            futures.add(fanOut.submit(() -> query.apply(shard)));
+        }
+
+        List<T> results = new ArrayList<>(shards.size());
+        try {
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            futures.forEach(f -> f.cancel(true));
+            throw new IllegalStateException("Interrupted while waiting for the shards", e);
+        } catch (ExecutionException e) {
+            futures.forEach(f -> f.cancel(true));
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+        return results;
+    }
+
+    // k-way merge of sorted shard results, keeping only results from the shard that owns their car
+    private <T> List<T> gather(List<List<T>> results, Function<T, String> registrationOf, Comparator<T> order) {
+        int size = 0;
+        PriorityQueue<Cursor<T>> heads = new PriorityQueue<>((a, b) -> order.compare(a.head(), b.head()));
+        for (int shard = 0; shard < results.size(); shard++) {
+            List<T> result = results.get(shard);
+            size += result.size();
+            if (!result.isEmpty()) {
+                heads.add(new Cursor<>(shard, result));
+            }
+        }
+
+        List<T> merged = new ArrayList<>(size);
+        while (!heads.isEmpty()) {
+            Cursor<T> cursor = heads.poll();
+            T next = cursor.head();
+            Integer owner = directory.get(registrationOf.apply(next));
+            if (owner == null || owner == cursor.shard) {
+                merged.add(next);
+            }
+            if (cursor.advance()) {
+                heads.add(cursor);
+            }
+        }
+        return merged;
+    }
+
+    private static final class Cursor<T> {
+        private final int shard;
+        private final List<T> result;
+        private int index;
+
+        private Cursor(int shard, List<T> result) {
+            this.shard = shard;
+            this.result = result;
+        }
+
+        private T head() {
+            return result.get(index);
+        }
+
+        private boolean advance() {
+            return ++index < result.size();
+        }
+    }
+}
@@ -0,0 +1,407 @@
+package io.rental.store;
+
+import io.rental.Booking;
+import io.rental.BookingStore;
+import io.rental.Car;
+import io.rental.Renter;
+import io.utils.OrdinalDictionary;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Booking store that keeps bookings as primitive columns in memory-mapped files instead of heap objects,
+ * so booking histories larger than the heap can be searched without GC pressure.
+ * <p>
+ * Each booking is a row across the columns car state, start and end as epoch days, daily cost, maintenance
+ * flag and renter, where the car state is the ordinal of the car exactly as the booking was made and the renter
+ * is the position of the renter's fields in a mapped log, so a booking reads back as it was added even after
+ * its car is replaced or its renter renamed. Two further columns chain every row to the row of the same car
+ * starting before it and to the previous row starting on the same day. A car's bookings never overlap, so its
+ * chain runs from the latest booking down to the earliest in both start and end: availability checks and gap
+ * lookups read the columns down the chain and stop at the first booking that ends before the days asked about,
+ * whatever the length of the car's history. A window of start days walks only the bookings starting in it.
+ * Only the chain heads, the registration ordinals and the car states live on the heap. {@link Booking} objects
+ * are built on the way out of {@link #startingBetween}, {@link #bookings()} and {@link #bookingsOf(String)}.
+ * <p>
+ * Removing a car's bookings marks their rows in a tombstone column and empties the car's chain; the rows stay
+ * in the day chains, which skip them. The store only grows: rows, renters, registration ordinals and car
+ * states are not reclaimed.
+ * <p>
+ * The files are working storage that start empty, durability comes from the booking journal.
+ */
+public class MappedBookingStore implements BookingStore, Closeable {
+    // no row, see BookingStore.NONE for no day
+    private static final int NONE = -1;
+    private static final int CHAIN_CHUNK = 1 << 12;
+    private static final int MAX_CHAIN_CHUNKS = 1 << 16;
+    // date of birth of a renter who did not give it
+    private static final int NO_DATE = Integer.MIN_VALUE;
+
+    private final MappedColumn carColumn;
+    private final MappedColumn startColumn;
+    private final MappedColumn endColumn;
+    private final MappedColumn costColumn;
+    private final MappedColumn maintenanceColumn;
+    private final MappedColumn renterColumn;
+    private final MappedColumn previousForCarColumn;
+    private final MappedColumn previousForDayColumn;
+    private final MappedColumn removedColumn;
+    // renters one after another: length of the rest, date of birth, then the names as length-prefixed UTF-8
+    private final MappedColumn renterLog;
+
+    // rows are readable once published through a chain
+    private final AtomicInteger rows = new AtomicInteger();
+    private final AtomicInteger removedRows = new AtomicInteger();
+    private final AtomicInteger renterBytes = new AtomicInteger();
+
+    // ordinals of the car chains by registration number, never removed as the chain heads are indexed by them
+    private final OrdinalDictionary<Void> registrations = new OrdinalDictionary<>();
+
+    // every car as some booking was made with it
+    private final StateTable<Car> carStates = new StateTable<>();
+
+    // row of each car's latest booking by car ordinal, allocated in chunks so it grows without copying
+    private final AtomicReferenceArray<AtomicIntegerArray> carHeads = new AtomicReferenceArray<>(MAX_CHAIN_CHUNKS);
+
+    // latest row starting on each epoch day
+    private final NavigableMap<Integer, AtomicInteger> dayHeads = new ConcurrentSkipListMap<>();
+
+    /**
+     * @param directory directory for the column files, created if missing; existing column files are cleared
+     */
+    public MappedBookingStore(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        carColumn = new MappedColumn(directory.resolve("car.col"), Integer.BYTES);
+        startColumn = new MappedColumn(directory.resolve("start.col"), Integer.BYTES);
+        endColumn = new MappedColumn(directory.resolve("end.col"), Integer.BYTES);
+        costColumn = new MappedColumn(directory.resolve("cost.col"), Double.BYTES);
+        maintenanceColumn = new MappedColumn(directory.resolve("maintenance.col"), Byte.BYTES);
+        renterColumn = new MappedColumn(directory.resolve("renter.col"), Integer.BYTES);
+        previousForCarColumn = new MappedColumn(directory.resolve("previous-car.col"), Integer.BYTES);
+        previousForDayColumn = new MappedColumn(directory.resolve("previous-day.col"), Integer.BYTES);
+        removedColumn = new MappedColumn(directory.resolve("removed.col"), Byte.BYTES);
+        renterLog = new MappedColumn(directory.resolve("renters.log"), Byte.BYTES);
+    }
+
+    @Override
+    public boolean isBooked(Car car, int fromDay, int toDay) {
+        for (int row = head(car); row != NONE; row = previous(row)) {
+            if (endColumn.getInt(row) < fromDay) {
+                // as does every booking further down
+                return false;
+            }
+            if (startColumn.getInt(row) <= toDay) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int firstFreeStart(Car car, int fromDay, int days, int latestStart) {
+        if (fromDay > latestStart) {
+            return BookingStore.NONE;
+        }
+        // the bookings that may be in the way, latest first, down to the first ending before the earliest start
+        int[] blocking = new int[8];
+        int count = 0;
+        int lastDay = latestStart + days - 1;
+        for (int row = head(car); row != NONE && endColumn.getInt(row) >= fromDay; row = previous(row)) {
+            if (startColumn.getInt(row) <= lastDay) {
+                if (count == blocking.length) {
+                    blocking = Arrays.copyOf(blocking, 2 * count);
+                }
+                blocking[count++] = row;
+            }
+        }
+
+        int start = fromDay;
+        for (int i = count - 1; i >= 0 && startColumn.getInt(blocking[i]) <= start + days - 1; i--) {
+            start = Math.max(start, endColumn.getInt(blocking[i]) + 1);
+        }
+        return start <= latestStart ? start : BookingStore.NONE;
+    }
+
+    @Override
+    public int lastFreeStart(Car car, int fromDay, int days, int earliestStart) {
+        int start = fromDay;
+        for (int row = head(car); row != NONE && start >= earliestStart; row = previous(row)) {
+            if (startColumn.getInt(row) > start + days - 1) {
+                continue;
+            }
+            if (endColumn.getInt(row) < start) {
+                break;
+            }
+            // the period must end before the blocking booking starts
+            start = startColumn.getInt(row) - days;
+        }
+        return start >= earliestStart ? start : BookingStore.NONE;
+    }
+
+    @Override
+    public int lastFreeDay(Car car, int fromDay, int latestDay) {
+        int nextStart = Integer.MAX_VALUE;
+        for (int row = head(car); row != NONE; row = previous(row)) {
+            int start = startColumn.getInt(row);
+            if (start <= fromDay) {
+                if (endColumn.getInt(row) >= fromDay) {
+                    return BookingStore.NONE;
+                }
+                break;
+            }
+            nextStart = start;
+        }
+        return nextStart == Integer.MAX_VALUE ? latestDay : Math.min(latestDay, nextStart - 1);
+    }
+
+    @Override
+    public void markBookedDays(Car car, int firstDay, int[] difference) {
+        int lastDay = firstDay + difference.length - 2;
+        for (int row = head(car); row != NONE; row = previous(row)) {
+            int end = endColumn.getInt(row);
+            if (end < firstDay) {
+                break;
+            }
+            int start = startColumn.getInt(row);
+            if (start <= lastDay) {
+                difference[Math.max(start, firstDay) - firstDay]++;
+                difference[Math.min(end, lastDay) - firstDay + 1]--;
+            }
+        }
+    }
+
+    @Override
+    public void add(Booking booking) {
+        int car = registrations.add(booking.getCar().getRegistrationNumber(), null);
+        int start = booking.getStartDay();
+        int row = rows.getAndIncrement();
+
+        carColumn.putInt(row, carStates.ordinalOf(booking.getCar(), booking.getCar()));
+        startColumn.putInt(row, start);
+        endColumn.putInt(row, booking.getEndDay());
+        costColumn.putDouble(row, booking.getDailyCost());
+        maintenanceColumn.putByte(row, (byte) (booking.isMaintenance() ? 1 : 0));
+        renterColumn.putInt(row, appendRenter(booking.getRenter()));
+        removedColumn.putByte(row, (byte) 0);
+
+        // the company serialises adds per car, so the car chain has a single writer; the row goes in after the
+        // bookings starting later, which for bookings added in date order is at the head
+        AtomicIntegerArray heads = carHead(car);
+        int head = heads.get(car % CHAIN_CHUNK);
+        if (head == NONE || startColumn.getInt(head) < start) {
+            previousForCarColumn.putInt(row, head);
+            heads.set(car % CHAIN_CHUNK, row);
+        } else {
+            int later = head;
+            int next = previousForCarColumn.getInt(later);
+            while (next != NONE && startColumn.getInt(next) > start) {
+                later = next;
+                next = previousForCarColumn.getInt(later);
+            }
+            previousForCarColumn.putInt(row, next);
+            // publishes the row's columns to readers walking the chain
+            previousForCarColumn.putIntRelease(later, row);
+        }
+
+        // other cars may start on the same day concurrently
+        AtomicInteger dayHead = dayHeads.computeIfAbsent(start, d -> new AtomicInteger(NONE));
+        int previous;
+        do {
+            previous = dayHead.get();
+            previousForDayColumn.putInt(row, previous);
+        } while (!dayHead.compareAndSet(previous, row));
+    }
+
+    @Override
+    public List<Booking> startingBetween(LocalDate fromDate, LocalDate toDate) {
+        List<Booking> results = new ArrayList<>();
+        if (toDate.isBefore(fromDate)) {
+            return results;
+        }
+        List<Integer> dayRows = new ArrayList<>();
+        for (AtomicInteger dayHead : dayHeads.subMap((int) fromDate.toEpochDay(), true, (int) toDate.toEpochDay(), true).values()) {
+            // chains run from the newest row, reverse them to keep the order bookings were added in
+            dayRows.clear();
+            for (int row = dayHead.get(); row != NONE; row = previousForDayColumn.getInt(row)) {
+                if (removedColumn.getByte(row) == 0) {
+                    dayRows.add(row);
+                }
+            }
+            Collections.reverse(dayRows);
+            for (int row : dayRows) {
+                results.add(booking(row));
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public List<Booking> bookings() {
+        // rows are only complete once published, collect them through the car chains
+        List<Integer> published = new ArrayList<>();
+        for (int car = 0, size = registrations.size(); car < size; car++) {
+            for (int row = carHead(car).get(car % CHAIN_CHUNK); row != NONE; row = previous(row)) {
+                published.add(row);
+            }
+        }
+        Collections.sort(published);
+
+        List<Booking> results = new ArrayList<>(published.size());
+        for (int row : published) {
+            results.add(booking(row));
+        }
+        return results;
+    }
+
+    @Override
+    public List<Booking> bookingsOf(String registrationNumber) {
+        List<Booking> results = new ArrayList<>();
+        int car = registrations.ordinalOf(registrationNumber);
+        if (car == NONE) {
+            return results;
+        }
+        for (int row = carHead(car).get(car % CHAIN_CHUNK); row != NONE; row = previous(row)) {
+            results.add(booking(row));
+        }
+        Collections.reverse(results);
+        return results;
+    }
+
+    @Override
+    public List<Booking> removeBookingsOf(String registrationNumber) {
+        List<Booking> removed = bookingsOf(registrationNumber);
+        if (removed.isEmpty()) {
+            return removed;
+        }
+        // the company serialises removals with the car's adds, so the chain does not change under us
+        int car = registrations.ordinalOf(registrationNumber);
+        AtomicIntegerArray heads = carHead(car);
+        for (int row = heads.get(car % CHAIN_CHUNK); row != NONE; row = previous(row)) {
+            removedColumn.putByte(row, (byte) 1);
+        }
+        heads.set(car % CHAIN_CHUNK, NONE);
+        removedRows.addAndGet(removed.size());
+        return removed;
+    }
+
+    /**
+     * @return number of bookings held
+     */
+    public int size() {
+        return rows.get() - removedRows.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (MappedColumn column : new MappedColumn[]{carColumn, startColumn, endColumn, costColumn,
+                maintenanceColumn, renterColumn, previousForCarColumn, previousForDayColumn, removedColumn, renterLog}) {
+            column.close();
+        }
+    }
+
+    private Booking booking(int row) {
+        int renter = renterColumn.getInt(row);
+        return Booking.builder()
+                .car(carStates.get(carColumn.getInt(row)))
+                .startDate(LocalDate.ofEpochDay(startColumn.getInt(row)))
+                .endDate(LocalDate.ofEpochDay(endColumn.getInt(row)))
+                .dailyCost(costColumn.getDouble(row))
+                .maintenance(maintenanceColumn.getByte(row) == 1)
+                .renter(renter == NONE ? null : readRenter(renter))
+                .build();
+    }
+
+    // Utility function to write a renter's fields to the renter log, returning where they start
+    private int appendRenter(Renter renter) {
+        if (renter == null) {
+            return NONE;
+        }
+        byte[][] names = {utf8(renter.getLastName()), utf8(renter.getFirstName()), utf8(renter.getDrivingLicenseNumber())};
+        int length = Integer.BYTES + names.length * Short.BYTES;
+        for (byte[] name : names) {
+            length += name.length;
+        }
+        ByteBuffer record = ByteBuffer.allocate(Integer.BYTES + length);
+        record.putInt(length);
+        record.putInt(renter.getDateOfBirth() == null ? NO_DATE : (int) renter.getDateOfBirth().toEpochDay());
+        for (byte[] name : names) {
+            record.putShort((short) name.length).put(name);
+        }
+
+        int position = renterBytes.getAndAdd(record.capacity());
+        if (position < 0 || position + record.capacity() < 0) {
+            throw new IllegalStateException("Renter log is full");
+        }
+        renterLog.putBytes(position, record.array());
+        return position;
+    }
+
+    private Renter readRenter(int position) {
+        byte[] length = new byte[Integer.BYTES];
+        renterLog.getBytes(position, length);
+        byte[] fields = new byte[ByteBuffer.wrap(length).getInt()];
+        renterLog.getBytes(position + Integer.BYTES, fields);
+
+        ByteBuffer record = ByteBuffer.wrap(fields);
+        int dateOfBirth = record.getInt();
+        String lastName = readName(record);
+        String firstName = readName(record);
+        String drivingLicenseNumber = readName(record);
+        return new Renter(lastName, firstName, drivingLicenseNumber,
+                dateOfBirth == NO_DATE ? null : LocalDate.ofEpochDay(dateOfBirth));
+    }
+
+    private static byte[] utf8(String name) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) {
+            throw new IllegalArgumentException("Renter field too long: " + bytes.length + " bytes");
+        }
+        return bytes;
+    }
+
+    private static String readName(ByteBuffer record) {
+        int length = record.getShort() & 0xFFFF;
+        String name = new String(record.array(), record.position(), length, StandardCharsets.UTF_8);
+        record.position(record.position() + length);
+        return name;
+    }
+
+    // Utility function to find the row of a car's latest booking
+    private int head(Car car) {
+        int ordinal = registrations.ordinalOf(car.getRegistrationNumber());
+        return ordinal == NONE ? NONE : carHead(ordinal).get(ordinal % CHAIN_CHUNK);
+    }
+
+    // Utility function to step down a car's chain to the booking starting before the row's
+    private int previous(int row) {
+        return previousForCarColumn.getIntAcquire(row);
+    }
+
+    private AtomicIntegerArray carHead(int car) {
+        int chunk = car / CHAIN_CHUNK;
+        AtomicIntegerArray heads = carHeads.get(chunk);
+        if (heads == null) {
+            AtomicIntegerArray empty = new AtomicIntegerArray(CHAIN_CHUNK);
+            for (int i = 0; i < CHAIN_CHUNK; i++) {
+                empty.set(i, NONE);
+            }
+            heads = carHeads.compareAndSet(chunk, null, empty) ? empty : carHeads.get(chunk);
+        }
+        return heads;
+    }
+}
@@ -0,0 +1,128 @@
+package io.rental.store;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Fixed width column of values kept in a memory-mapped file.
+ * The file is mapped in segments as it grows, so the column can be far larger than the heap;
+ * values are read and written with absolute positions, which is safe from many threads at once. Ints can also be
+ * read with acquire and written with release semantics, so a value can publish the values written before it.
+ */
+final class MappedColumn implements Closeable {
+    static final int SEGMENT_RECORDS = 1 << 20;
+    private static final int MAX_SEGMENTS = 1 << 11;
+    // mapped buffers are big-endian, like getInt and putInt
+    private static final VarHandle INTS = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+
+    private final FileChannel channel;
+    private final int width;
+    private final AtomicReferenceArray<MappedByteBuffer> segments = new AtomicReferenceArray<>(MAX_SEGMENTS);
+
+    MappedColumn(Path file, int width) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.width = width;
+    }
+
+    int getInt(int record) {
+        return segment(record).getInt(offset(record));
+    }
+
+    void putInt(int record, int value) {
+        segment(record).putInt(offset(record), value);
+    }
+
+    int getIntAcquire(int record) {
+        return (int) INTS.getAcquire(segment(record), offset(record));
+    }
+
+    void putIntRelease(int record, int value) {
+        INTS.setRelease(segment(record), offset(record), value);
+    }
+
+    double getDouble(int record) {
+        return segment(record).getDouble(offset(record));
+    }
+
+    void putDouble(int record, double value) {
+        segment(record).putDouble(offset(record), value);
+    }
+
+    byte getByte(int record) {
+        return segment(record).get(offset(record));
+    }
+
+    void putByte(int record, byte value) {
+        segment(record).put(offset(record), value);
+    }
+
+    /**
+     * Write a run of bytes to a column of bytes, the run may go on into the next segment.
+     * @param record first record of the run
+     * @param bytes values of the records
+     */
+    void putBytes(int record, byte[] bytes) {
+        for (int done = 0; done < bytes.length; ) {
+            MappedByteBuffer segment = segment(record + done);
+            int offset = offset(record + done);
+            int length = Math.min(bytes.length - done, segment.capacity() - offset);
+            segment.put(offset, bytes, done, length);
+            done += length;
+        }
+    }
+
+    /**
+     * Read a run of bytes from a column of bytes, see {@link #putBytes(int, byte[])}.
+     * @param record first record of the run
+     * @param bytes filled with the values of the records
+     */
+    void getBytes(int record, byte[] bytes) {
+        for (int done = 0; done < bytes.length; ) {
+            MappedByteBuffer segment = segment(record + done);
+            int offset = offset(record + done);
+            int length = Math.min(bytes.length - done, segment.capacity() - offset);
+            segment.get(offset, bytes, done, length);
+            done += length;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private int offset(int record) {
+        return (record % SEGMENT_RECORDS) * width;
+    }
+
+    private MappedByteBuffer segment(int record) {
+        int index = record / SEGMENT_RECORDS;
+        MappedByteBuffer segment = segments.get(index);
+        return segment != null ? segment : map(index);
+    }
+
+    private synchronized MappedByteBuffer map(int index) {
+        MappedByteBuffer segment = segments.get(index);
+        if (segment == null) {
+            try {
+                long size = (long) SEGMENT_RECORDS * width;
+                // mapping past the end of the file grows it
+                segment = channel.map(FileChannel.MapMode.READ_WRITE, index * size, size);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot map column segment " + index, e);
+            }
+            segments.set(index, segment);
+        }
+        return segment;
+    }
+}
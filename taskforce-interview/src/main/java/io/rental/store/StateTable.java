@@ -0,0 +1,54 @@
+package io.rental.store;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Append-only table handing out a dense ordinal per distinct state of a value, e.g. of a car, so a row can keep
+ * the state its booking was made with as an int. States are never dropped, like the rows that refer to them.
+ * Lookups by ordinal are lock-free, adds of new states are serialised.
+ */
+final class StateTable<T> {
+    private static final int CHUNK = 1 << 12;
+    private static final int MAX_CHUNKS = 1 << 16;
+
+    private final Map<Object, Integer> ordinals = new ConcurrentHashMap<>();
+    private final AtomicReferenceArray<AtomicReferenceArray<T>> chunks = new AtomicReferenceArray<>(MAX_CHUNKS);
+    private int size;
+
+    /**
+     * @param key key equal for equal states, e.g. the state itself when its equals compares every field
+     * @param state state to add if it is new
+     * @return ordinal of the state
+     */
+    int ordinalOf(Object key, T state) {
+        Integer ordinal = ordinals.get(key);
+        return ordinal != null ? ordinal : add(key, state);
+    }
+
+    /**
+     * @param ordinal ordinal handed out by this table
+     * @return the state of the ordinal
+     */
+    T get(int ordinal) {
+        return chunks.get(ordinal / CHUNK).get(ordinal % CHUNK);
+    }
+
+    // writes the state before its ordinal is handed out, a reader given the ordinal sees it
+    private synchronized int add(Object key, T state) {
+        Integer existing = ordinals.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        int ordinal = size++;
+        AtomicReferenceArray<T> chunk = chunks.get(ordinal / CHUNK);
+        if (chunk == null) {
+            chunk = new AtomicReferenceArray<>(CHUNK);
+            chunks.set(ordinal / CHUNK, chunk);
+        }
+        chunk.set(ordinal % CHUNK, state);
+        ordinals.put(key, ordinal);
+        return ordinal;
+    }
+}
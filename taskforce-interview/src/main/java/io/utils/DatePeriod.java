@@ -19,4 +19,11 @@ public class DatePeriod {
     public LocalDate getEnd() {
         return end;
     }
+
+    /**
+     * @return this period packed as epoch days, see {@link EpochDayPeriod}
+     */
+    public long toEpochDayPeriod() {
+        return EpochDayPeriod.of(start, end);
+    }
 }
@@ -11,8 +11,9 @@ public class DatePeriodUtil {
      * @return true if
      */
     public static boolean areOverlapping(DatePeriod period1, DatePeriod period2) {
-    	// If either start date lies within the other period the periods overlap
-    	return ( isInPeriod(period1.getStart(), period2) || isInPeriod(period2.getStart(), period1) );
+    	// compared as epoch days, the periods overlap if each starts no later than the other ends
+    	return period1.getStart().toEpochDay() <= period2.getEnd().toEpochDay()
+                && period2.getStart().toEpochDay() <= period1.getEnd().toEpochDay();
     }
 
     /**
@@ -22,8 +23,7 @@ public class DatePeriodUtil {
      * @return
      */
     public static boolean isInPeriod(LocalDate date, DatePeriod period) {
-        return (date.isAfter(period.getStart()) && date.isBefore(period.getEnd()))
-                || date.isEqual(period.getStart())
-                || date.isEqual(period.getEnd());
+        long day = date.toEpochDay();
+        return period.getStart().toEpochDay() <= day && day <= period.getEnd().toEpochDay();
     }
 }
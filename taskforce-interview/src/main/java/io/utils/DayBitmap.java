@@ -0,0 +1,80 @@
+package io.utils;
+
+/**
+ * Day granularity occupancy bitmap over a fixed window of epoch days, one bit per day.
+ * The window starts on a multiple of 64 days so every word covers the same days in every bitmap,
+ * and a range check is a handful of masked word tests however long the range is.
+ */
+public final class DayBitmap {
+    private static final int WORD_DAYS = Long.SIZE;
+
+    private final int firstDay;
+    private final long[] words;
+
+    /**
+     * @param fromDay first day the bitmap must cover, rounded down to a word boundary
+     * @param days number of days the bitmap must cover at least
+     */
+    public DayBitmap(int fromDay, int days) {
+        this.firstDay = Math.floorDiv(fromDay, WORD_DAYS) * WORD_DAYS;
+        this.words = new long[(fromDay - firstDay + days + WORD_DAYS - 1) / WORD_DAYS];
+    }
+
+    private DayBitmap(int firstDay, long[] words) {
+        this.firstDay = firstDay;
+        this.words = words;
+    }
+
+    public int getFirstDay() {
+        return firstDay;
+    }
+
+    public int getLastDay() {
+        return firstDay + words.length * WORD_DAYS - 1;
+    }
+
+    /**
+     * @return true if every day of the range lies inside the window
+     */
+    public boolean covers(int fromDay, int toDay) {
+        return fromDay >= firstDay && toDay <= getLastDay();
+    }
+
+    /**
+     * Mark the days of a range as occupied, days outside the window are ignored.
+     */
+    public void set(int fromDay, int toDay) {
+        int from = Math.max(fromDay, firstDay) - firstDay;
+        int to = Math.min(toDay, getLastDay()) - firstDay;
+        for (int word = from / WORD_DAYS; word <= to / WORD_DAYS && from <= to; word++) {
+            words[word] |= mask(word, from, to);
+        }
+    }
+
+    /**
+     * @return true if any day of the range is occupied, the range must lie inside the window
+     */
+    public boolean isAnySet(int fromDay, int toDay) {
+        assert covers(fromDay, toDay);
+        int from = fromDay - firstDay;
+        int to = toDay - firstDay;
+        for (int word = from / WORD_DAYS; word <= to / WORD_DAYS; word++) {
+            if ((words[word] & mask(word, from, to)) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public DayBitmap copy() {
+        return new DayBitmap(firstDay, words.clone());
+    }
+
+    // bits of a word that fall between two offsets from the first day, both inclusive
+    private static long mask(int word, int from, int to) {
+        int wordStart = word * WORD_DAYS;
+        int low = Math.max(from - wordStart, 0);
+        int high = Math.min(to - wordStart, WORD_DAYS - 1);
+        return (-1L >>> (WORD_DAYS - 1 - high)) & (-1L << low);
+    }
+}
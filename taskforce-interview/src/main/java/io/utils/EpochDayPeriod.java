@@ -0,0 +1,62 @@
+package io.utils;
+
+import java.time.LocalDate;
+
+/**
+ * Allocation-free date periods as epoch day bounds packed into a single long, start in the high
+ * 32 bits and end in the low 32 bits. Both bounds are inclusive, like {@link DatePeriod}.
+ * Packed periods compare as longs in start date order, so sorted arrays of them can be binary searched.
+ */
+public final class EpochDayPeriod {
+
+    private EpochDayPeriod() {
+    }
+
+    /**
+     * @param startDay first day of the period as an epoch day
+     * @param endDay last day of the period as an epoch day
+     * @return packed period
+     */
+    public static long of(int startDay, int endDay) {
+        assert startDay <= endDay;
+        return ((long) startDay << 32) | (endDay & 0xffffffffL);
+    }
+
+    public static long of(LocalDate start, LocalDate end) {
+        return of((int) start.toEpochDay(), (int) end.toEpochDay());
+    }
+
+    public static int start(long period) {
+        return (int) (period >> 32);
+    }
+
+    public static int end(long period) {
+        return (int) period;
+    }
+
+    /**
+     * @return the largest packed value of a period starting on the given day, every period starting on or
+     * before that day compares less or equal to it
+     */
+    public static long latestStartingOn(int startDay) {
+        return ((long) startDay << 32) | 0xffffffffL;
+    }
+
+    /**
+     * Check two periods to see if they are overlapping, sharing a single day counts as overlapping.
+     */
+    public static boolean areOverlapping(long period1, long period2) {
+        return areOverlapping(start(period1), end(period1), start(period2), end(period2));
+    }
+
+    public static boolean areOverlapping(int startDay1, int endDay1, int startDay2, int endDay2) {
+        return startDay1 <= endDay2 && startDay2 <= endDay1;
+    }
+
+    /**
+     * Inclusive in period check, i.e. if day is equal to start or end of period then still classified as in period.
+     */
+    public static boolean isInPeriod(int day, long period) {
+        return start(period) <= day && day <= end(period);
+    }
+}
@@ -0,0 +1,195 @@
+package io.utils;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Dictionary handing out dense int ordinals for string keys, 0 for the first key added, 1 for the next and so
+ * on, with an optional value per ordinal. A key keeps its ordinal until it is removed, the ordinal of a removed
+ * key is handed out again to a later key.
+ * <p>
+ * Keys sit in an open addressing table of ordinals with linear probing, each ordinal's key, hash and value in
+ * one entry, so a lookup is a few int reads and one string comparison and allocates nothing. Lookups are
+ * lock-free, adds and removals are serialised and publish a slot only after its entry is written. A lookup by
+ * key always answers with the value of that key; an ordinal found earlier only names the same key while the
+ * caller keeps the key from being removed.
+ */
+public final class OrdinalDictionary<V> {
+    public static final int NONE = -1;
+
+    private static final int MIN_CAPACITY = 16;
+    // slot of a removed key, lookups probe past it and adds may take it
+    private static final int REMOVED = -1;
+
+    private volatile Table<V> table = new Table<>(MIN_CAPACITY);
+
+    // ordinals of removed keys, handed out again before new ones
+    private int[] freeOrdinals = new int[0];
+    private int freeCount;
+
+    /**
+     * @return ordinal of the key or {@link #NONE} if it is not held
+     */
+    public int ordinalOf(String key) {
+        Entry<V> entry = entry(table, key);
+        return entry == null ? NONE : entry.ordinal();
+    }
+
+    /**
+     * @return value of the key or null if it is not held
+     */
+    public V get(String key) {
+        Entry<V> entry = entry(table, key);
+        return entry == null ? null : entry.value();
+    }
+
+    /**
+     * @param ordinal ordinal handed out by this dictionary
+     * @return value added with the key of the ordinal or null if the key was removed
+     */
+    public V get(int ordinal) {
+        Entry<V> entry = table.entries.get(ordinal);
+        return entry == null ? null : entry.value();
+    }
+
+    /**
+     * @param ordinal ordinal handed out by this dictionary
+     * @return key of the ordinal or null if the key was removed
+     */
+    public String key(int ordinal) {
+        Entry<V> entry = table.entries.get(ordinal);
+        return entry == null ? null : entry.key();
+    }
+
+    /**
+     * Add a key unless it is already there, a key added before keeps its ordinal and value.
+     * @param key key to add
+     * @param value value of the key if it is new
+     * @return ordinal of the key
+     */
+    public synchronized int add(String key, V value) {
+        Table<V> current = table;
+        Entry<V> existing = entry(current, key);
+        if (existing != null) {
+            return existing.ordinal();
+        }
+
+        int ordinal = freeCount > 0 ? freeOrdinals[--freeCount] : current.limit;
+        if (current.used == current.capacity() || ordinal == current.capacity()) {
+            // too few empty slots left, or no ordinal left: double when full, else only drop the removed slots
+            current = current.rebuild(current.size == current.capacity() ? 2 * current.capacity() : current.capacity());
+            table = current;
+        }
+        current.put(new Entry<>(key, key.hashCode(), value, ordinal));
+        return ordinal;
+    }
+
+    /**
+     * Remove a key, its ordinal is handed out again to a later key.
+     * @param key key to remove
+     * @return value of the key or null if it was not held
+     */
+    public synchronized V remove(String key) {
+        Table<V> current = table;
+        int hash = key.hashCode();
+        for (int slot = spread(hash) & current.mask; ; slot = (slot + 1) & current.mask) {
+            int stored = current.slots.get(slot);
+            if (stored == 0) {
+                return null;
+            }
+            Entry<V> entry = stored == REMOVED ? null : current.entries.get(stored - 1);
+            if (entry != null && entry.hash() == hash && entry.key().equals(key)) {
+                current.slots.set(slot, REMOVED);
+                current.entries.set(entry.ordinal(), null);
+                current.size--;
+                if (freeCount == freeOrdinals.length) {
+                    freeOrdinals = Arrays.copyOf(freeOrdinals, Math.max(MIN_CAPACITY, 2 * freeCount));
+                }
+                freeOrdinals[freeCount++] = entry.ordinal();
+                return entry.value();
+            }
+        }
+    }
+
+    /**
+     * @return number of keys held
+     */
+    public int size() {
+        return table.size;
+    }
+
+    // spreads the high bits of the hash into the slot index, as HashMap does
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    // Utility function to find the entry of a key, a slot whose ordinal was handed out again reads as a miss
+    private static <V> Entry<V> entry(Table<V> current, String key) {
+        int hash = key.hashCode();
+        for (int slot = spread(hash) & current.mask; ; slot = (slot + 1) & current.mask) {
+            int stored = current.slots.get(slot);
+            if (stored == 0) {
+                return null;
+            }
+            if (stored != REMOVED) {
+                Entry<V> entry = current.entries.get(stored - 1);
+                if (entry != null && entry.hash() == hash && entry.key().equals(key)) {
+                    return entry;
+                }
+            }
+        }
+    }
+
+    private record Entry<V>(String key, int hash, V value, int ordinal) {
+    }
+
+    private static final class Table<V> {
+        private final int mask;
+        // ordinal plus one of the key in each slot, 0 for a slot never taken, REMOVED for a removed key's slot
+        private final AtomicIntegerArray slots;
+        private final AtomicReferenceArray<Entry<V>> entries;
+        // slots not empty, held and removed
+        private int used;
+        // one more than the highest ordinal handed out
+        private int limit;
+        private volatile int size;
+
+        private Table(int capacity) {
+            this.mask = 2 * capacity - 1;
+            this.slots = new AtomicIntegerArray(2 * capacity);
+            this.entries = new AtomicReferenceArray<>(capacity);
+        }
+
+        private int capacity() {
+            return entries.length();
+        }
+
+        // writes the entry before its slot, a reader that finds the slot sees it
+        private void put(Entry<V> entry) {
+            entries.set(entry.ordinal(), entry);
+            int slot = spread(entry.hash()) & mask;
+            while (slots.get(slot) > 0) {
+                slot = (slot + 1) & mask;
+            }
+            if (slots.get(slot) == 0) {
+                used++;
+            }
+            slots.set(slot, entry.ordinal() + 1);
+            limit = Math.max(limit, entry.ordinal() + 1);
+            size++;
+        }
+
+        private Table<V> rebuild(int capacity) {
+            Table<V> rebuilt = new Table<>(capacity);
+            for (int ordinal = 0; ordinal < limit; ordinal++) {
+                Entry<V> entry = entries.get(ordinal);
+                if (entry != null) {
+                    rebuilt.put(entry);
+                }
+            }
+            rebuilt.limit = limit;
+            return rebuilt;
+        }
+    }
+}
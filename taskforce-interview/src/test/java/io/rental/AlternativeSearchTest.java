@@ -0,0 +1,147 @@
+package io.rental;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class AlternativeSearchTest {
+    private static final Car POLO_A = new Car("VW", "Polo", "XX01 ABC", "A1", 60);
+    private static final Car POLO_B = new Car("VW", "Polo", "XX02 ABC", "A1", 62);
+    private static final Car UP = new Car("VW", "Up", "XX03 ABC", "A1", 50);
+    private static final Car GOLF = new Car("VW", "Golf", "XX04 ABC", "B2", 90);
+
+    private CarRentalCompany carRentalCompany;
+
+    @BeforeEach
+    public void setUp() throws BookingException {
+        carRentalCompany = new CarRentalCompany();
+        for (Car car : List.of(POLO_A, POLO_B, UP, GOLF)) {
+            carRentalCompany.addCar(car);
+        }
+        carRentalCompany.addBooking(booking(POLO_A, 8, 11));
+        carRentalCompany.addBooking(booking(POLO_B, 12, 20));
+        carRentalCompany.addBooking(booking(UP, 13, 13));
+    }
+
+    @Test
+    public void rankedAlternativesWhenTheModelIsBooked() throws BookingException {
+        List<Alternative> alternatives = carRentalCompany.suggestAlternatives("VW", "Polo", day(10), day(14), 7, 3);
+
+        assertThat(alternatives.size()).isEqualTo(3);
+        // the free Polo two days later beats splitting the rental
+        assertThat(alternatives.get(0).getKind()).isEqualTo(Alternative.Kind.SHIFTED_DATES);
+        assertThat(alternatives.get(0).getPenalty()).isEqualTo(2);
+        assertThat(alternatives.get(0).getBookings().get(0).getStartDate()).isEqualTo(day(12));
+
+        // the cheaper split first: the Up until it is booked then the first Polo
+        Alternative split = alternatives.get(1);
+        assertThat(split.getKind()).isEqualTo(Alternative.Kind.SPLIT_RENTAL);
+        assertThat(split.getBookings().get(0).getCar()).isEqualTo(UP);
+        assertThat(split.getBookings().get(0).getEndDate()).isEqualTo(day(12));
+        assertThat(split.getBookings().get(1).getCar()).isEqualTo(POLO_A);
+        assertThat(split.getBookings().get(1).getStartDate()).isEqualTo(day(13));
+        assertThat(split.getTotalCost()).isEqualTo(270.0);
+        assertThat(alternatives.get(2).getBookings().get(0).getCar()).isEqualTo(POLO_B);
+
+        // a suggestion can be booked as it is
+        carRentalCompany.addBookings(split.getBookings());
+        assertThat(carRentalCompany.getBookings().size()).isEqualTo(5);
+    }
+
+    @Test
+    public void freeCarsComeFirstAndShiftsStayWithinBounds() throws BookingException {
+        List<Alternative> alternatives = carRentalCompany.suggestAlternatives("VW", "Polo", day(3), day(4), 0, 10);
+        assertThat(alternatives.get(0).getKind()).isEqualTo(Alternative.Kind.AVAILABLE);
+        assertThat(alternatives.get(1).getKind()).isEqualTo(Alternative.Kind.AVAILABLE);
+        assertThat(alternatives.get(2).getKind()).isEqualTo(Alternative.Kind.OTHER_MODEL);
+        assertThat(alternatives.size()).isEqualTo(3);
+
+        // no shift allowed and both Polos booked: only the Up is left
+        alternatives = carRentalCompany.suggestAlternatives("VW", "Polo", day(11), day(12), 0, 10);
+        assertThat(alternatives.stream().noneMatch(a -> a.getKind() == Alternative.Kind.SHIFTED_DATES)).isTrue();
+        assertThat(alternatives.get(0).getBookings().get(0).getCar()).isEqualTo(UP);
+
+        BookingException e = assertThrows(BookingException.class,
+                () -> carRentalCompany.suggestAlternatives("VW", "Polo", day(-1), day(2), 3, 3));
+        assertThat(e.getReason()).isEqualTo(RejectionReason.BOOKING_IN_THE_PAST);
+    }
+
+    @Test
+    public void carsFreeForTheWholePeriodAreNotSplitWith() throws BookingException {
+        // the Up is booked on the second day, the first Polo is free throughout and the second booked throughout
+        List<Alternative> alternatives = carRentalCompany.suggestAlternatives("VW", "Up", day(12), day(14), 0, 10);
+
+        assertThat(alternatives.size()).isEqualTo(1);
+        assertThat(alternatives.get(0).getKind()).isEqualTo(Alternative.Kind.OTHER_MODEL);
+        assertThat(alternatives.get(0).getBookings().get(0).getCar()).isEqualTo(POLO_A);
+    }
+
+    @Test
+    public void splitsReadEachCandidateOnce() {
+        FleetIndex fleet = new FleetIndex();
+        HeapBookingStore heap = new HeapBookingStore();
+        int[] isBookedCalls = new int[1];
+        BookingStore store = new BookingStore() {
+            @Override
+            public boolean isBooked(Car car, int fromDay, int toDay) {
+                isBookedCalls[0]++;
+                return heap.isBooked(car, fromDay, toDay);
+            }
+
+            @Override
+            public int lastFreeDay(Car car, int fromDay, int latestDay) {
+                return heap.lastFreeDay(car, fromDay, latestDay);
+            }
+
+            @Override
+            public void markBookedDays(Car car, int firstDay, int[] difference) {
+                heap.markBookedDays(car, firstDay, difference);
+            }
+
+            @Override
+            public void add(Booking booking) {
+                heap.add(booking);
+            }
+
+            @Override
+            public List<Booking> startingBetween(LocalDate fromDate, LocalDate toDate) {
+                return heap.startingBetween(fromDate, toDate);
+            }
+
+            @Override
+            public List<Booking> bookings() {
+                return heap.bookings();
+            }
+        };
+        // every Polo is free for the first two days only and no car is free for the rest, so no split is found
+        int cars = 200;
+        for (int i = 0; i < cars; i++) {
+            Car polo = new Car("VW", "Polo", String.format("YY%03d ABC", i), "A1", 60);
+            fleet.add(polo);
+            store.add(booking(polo, 12, 20));
+        }
+
+        List<Alternative> alternatives = new AlternativeSearch(fleet, store).find("VW", "Polo", day(10), day(14), 0, 3);
+        assertThat(alternatives.isEmpty()).isTrue();
+        // one check per car for the requested dates, none per pair
+        assertThat(isBookedCalls[0]).isEqualTo(cars);
+    }
+
+    private static LocalDate day(int days) {
+        return LocalDate.now().plusDays(days);
+    }
+
+    private static Booking booking(Car car, int fromDays, int toDays) {
+        return Booking.builder()
+                .car(car)
+                .startDate(day(fromDays))
+                .endDate(day(toDays))
+                .dailyCost(car.getCostPerDay())
+                .build();
+    }
+}
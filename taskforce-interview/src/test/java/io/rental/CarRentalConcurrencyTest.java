@@ -0,0 +1,135 @@
+package io.rental;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.stream.Collectors.groupingBy;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class CarRentalConcurrencyTest {
+
+    private static final int CARS = 4;
+    private static final int WRITERS = 8;
+    private static final int READERS = 2;
+    private static final int ATTEMPTS_PER_WRITER = 2_000;
+
+    /* Many threads race to book a handful of cars for overlapping periods, no car may end up double booked */
+    @Test
+    public void concurrentBookingsNeverOverlap() throws Exception {
+        CarRentalCompany carRentalCompany = new CarRentalCompany();
+        List<Car> cars = new ArrayList<>();
+        for (int i = 0; i < CARS; i++) {
+            Car car = new Car("VW", "Polo", "XX1" + i + " " + i + "UR", "A1", 65 + i);
+            cars.add(car);
+            carRentalCompany.addCar(car);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS + READERS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger writersDone = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int w = 0; w < WRITERS; w++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < ATTEMPTS_PER_WRITER; i++) {
+                    // same Car value with a fresh instance, clashes must be found by registration number
+                    Car template = cars.get(random.nextInt(CARS));
+                    Car car = new Car(template.getMake(), template.getModel(), template.getRegistrationNumber(),
+                            template.getRentalGroup(), template.getCostPerDay());
+                    LocalDate startDate = LocalDate.now().plusDays(random.nextInt(365));
+                    Booking booking = Booking.builder()
+                            .car(car)
+                            .startDate(startDate)
+                            .endDate(startDate.plusDays(random.nextInt(5)))
+                            .build();
+                    try {
+                        carRentalCompany.addBooking(booking);
+                        accepted.incrementAndGet();
+                    } catch (BookingException e) {
+                        // clash with a booking made by another thread
+                    }
+                }
+                writersDone.incrementAndGet();
+                return null;
+            }));
+        }
+
+        for (int r = 0; r < READERS; r++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                while (writersDone.get() < WRITERS) {
+                    carRentalCompany.availableCars("VW", "Polo", LocalDate.now().plusDays(10), LocalDate.now().plusDays(12));
+                    carRentalCompany.upcomingRentals();
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        List<Booking> bookings = carRentalCompany.getBookings();
+        assertThat(bookings.size()).isEqualTo(accepted.get());
+
+        Map<String, List<Booking>> byCar = bookings.stream().collect(groupingBy(b -> b.getCar().getRegistrationNumber()));
+        for (List<Booking> carBookings : byCar.values()) {
+            carBookings.sort((a, b) -> a.getStartDate().compareTo(b.getStartDate()));
+            for (int i = 0; i < carBookings.size() - 1; i++) {
+                assertThat(carBookings.get(i).getEndDate().isBefore(carBookings.get(i + 1).getStartDate())).isTrue();
+            }
+        }
+    }
+
+    /* A parallel search finds the same cars in the same order as a sequential one */
+    @Test
+    public void parallelSearchMatchesSequentialSearch() throws BookingException {
+        CarRentalCompany carRentalCompany = new CarRentalCompany();
+        LocalDate startDate = LocalDate.now().plusDays(5);
+        for (int i = 0; i < 5_000; i++) {
+            Car car = new Car("VW", "Polo", String.format("XX%05d", i), "A1", 65);
+            carRentalCompany.addCar(car);
+            if (i % 3 == 0) {
+                Booking booking = Booking.builder()
+                        .car(car)
+                        .startDate(startDate.plusDays(i % 5))
+                        .endDate(startDate.plusDays(i % 5).plusDays(2))
+                        .build();
+                carRentalCompany.addBooking(booking);
+            }
+        }
+
+        carRentalCompany.setParallelSearchThreshold(Integer.MAX_VALUE);
+        List<Car> sequential = carRentalCompany.availableCars("VW", "Polo", startDate, startDate.plusDays(1));
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        carRentalCompany.setSearchPool(pool);
+        carRentalCompany.setParallelSearchThreshold(100);
+        List<Car> parallel = carRentalCompany.availableCars("VW", "Polo", startDate, startDate.plusDays(1));
+        pool.shutdown();
+
+        assertThat(sequential.size()).isLessThan(5_000);
+        assertThat(parallel.equals(sequential)).isTrue();
+
+        assertThrows(IllegalArgumentException.class, () -> carRentalCompany.setSearchPool(null));
+        assertThrows(IllegalArgumentException.class, () -> carRentalCompany.setParallelSearchThreshold(0));
+    }
+}
@@ -2,11 +2,19 @@ package io.rental;
 
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public class CarRentalTest {
 
@@ -49,6 +57,35 @@ public class CarRentalTest {
         assertThat(availableCars.size()).isEqualTo(1);
     }
 
+    @Test
+    public void testFindCarsWithPartialCriteria() {
+        CarRentalCompany carRentalCompany = new CarRentalCompany();
+        addSampleBookings(carRentalCompany);
+
+        // make only
+        Criteria criteria = new Criteria();
+        criteria.setMake("VW");
+        assertThat(carRentalCompany.matchingCars(criteria).size()).isEqualTo(4);
+
+        // model only, Polo CAR3 is booked in the period
+        criteria = new Criteria();
+        criteria.setModel("Polo");
+        criteria.setFromDate(LocalDate.now().plusDays(3));
+        criteria.setToDate(LocalDate.now().plusDays(4));
+        assertThat(carRentalCompany.matchingCars(criteria).size()).isEqualTo(1);
+
+        // rental group only
+        criteria = new Criteria();
+        criteria.setRentalGroup("A1");
+        assertThat(carRentalCompany.matchingCars(criteria).size()).isEqualTo(2);
+
+        // no car of that make
+        criteria = new Criteria();
+        criteria.setMake("Ford");
+        criteria.setModel("Polo");
+        assertThat(carRentalCompany.matchingCars(criteria).size()).isEqualTo(0);
+    }
+
     /* Test for Story 3 - Booking A Car*/
     @Test
     public void bookCar() throws BookingException {
@@ -58,11 +95,12 @@ public class CarRentalTest {
         // add a new booking - successful
         assertThat(carRentalCompany.getBookings().size()).isEqualTo(3);
 
-        Booking booking = new Booking();
-        booking.setCar(CAR1);
-        booking.setRenter(RENTER1);
-        booking.setStartDate(LocalDate.now().plusDays(10));
-        booking.setEndDate(LocalDate.now().plusDays(15));
+        Booking booking = Booking.builder()
+                .car(CAR1)
+                .renter(RENTER1)
+                .startDate(LocalDate.now().plusDays(10))
+                .endDate(LocalDate.now().plusDays(15))
+                .build();
         carRentalCompany.addBooking(booking);
 
         assertThat(carRentalCompany.getBookings().size()).isEqualTo(4);
@@ -76,6 +114,67 @@ public class CarRentalTest {
         assertThat(carRentalCompany.getBookings().size()).isEqualTo(4);
     }
 
+    @Test
+    public void bookCarsInBatch() throws BookingException {
+        CarRentalCompany carRentalCompany = new CarRentalCompany();
+        addSampleBookings(carRentalCompany);
+
+        Booking clashWithExisting = Booking.builder()
+                .car(CAR1)
+                .renter(RENTER2)
+                .startDate(LocalDate.now().plusDays(5))
+                .endDate(LocalDate.now().plusDays(9))
+                .build();
+
+        Booking first = Booking.builder()
+                .car(CAR4)
+                .renter(RENTER3)
+                .startDate(LocalDate.now().plusDays(10))
+                .endDate(LocalDate.now().plusDays(12))
+                .build();
+
+        Booking clashInBatch = Booking.builder()
+                .car(CAR4)
+                .renter(RENTER4)
+                .startDate(LocalDate.now().plusDays(12))
+                .endDate(LocalDate.now().plusDays(14))
+                .build();
+
+        // batch with clashes is rejected as a whole
+        try {
+            carRentalCompany.addBookings(List.of(clashWithExisting, first, clashInBatch));
+        } catch (BatchBookingException e) {
+            assertThat(e.getRejections().size()).isEqualTo(2);
+        }
+        assertThat(carRentalCompany.getBookings().size()).isEqualTo(3);
+
+        // valid batch is added
+        Booking movedFromExisting = clashWithExisting.toBuilder().startDate(LocalDate.now().plusDays(8)).build();
+        Booking movedInBatch = clashInBatch.toBuilder().startDate(LocalDate.now().plusDays(13)).build();
+        carRentalCompany.addBookings(List.of(movedFromExisting, first, movedInBatch));
+        assertThat(carRentalCompany.getBookings().size()).isEqualTo(6);
+    }
+
+    @Test
+    public void batchRejectionSerialisesWithoutItsRejections() throws Exception {
+        Booking booking = Booking.builder().car(CAR1).startDate(LocalDate.now()).endDate(LocalDate.now()).build();
+        List<BookingRejection> rejections = new ArrayList<>(List.of(new BookingRejection(booking, RejectionReason.ALREADY_BOOKED)));
+        BatchBookingException e = new BatchBookingException(rejections);
+        rejections.clear();
+        assertThat(e.getRejections().size()).isEqualTo(1);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(e);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            BatchBookingException read = (BatchBookingException) in.readObject();
+            assertThat(read.getReason()).isEqualTo(RejectionReason.BATCH_REJECTED);
+            assertThat(read.getMessage()).isEqualTo(e.getMessage());
+            assertThat(read.getRejections().isEmpty()).isTrue();
+        }
+    }
+
     /* Test for Story 4 - Find Upcoming Rentals*/
     @Test
     public void findUpcomingRentals() throws BookingException {
@@ -86,11 +185,12 @@ public class CarRentalTest {
         assertThat(carRentalCompany.upcomingRentals().size()).isEqualTo(2);
 
         // adding new booking at the end with intermediate start date
-        Booking booking = new Booking();
-        booking.setCar(CAR4);
-        booking.setRenter(RENTER4);
-        booking.setStartDate(LocalDate.now().plusDays(2));
-        booking.setEndDate(booking.getStartDate().plusDays(4));
+        Booking booking = Booking.builder()
+                .car(CAR4)
+                .renter(RENTER4)
+                .startDate(LocalDate.now().plusDays(2))
+                .endDate(LocalDate.now().plusDays(6))
+                .build();
         carRentalCompany.addBooking(booking);
 
         List<Booking>  upcomingRentals = carRentalCompany.upcomingRentals();
@@ -104,6 +204,17 @@ public class CarRentalTest {
 
     }
 
+    @Test
+    public void findRentalsStartingInWindow() {
+        CarRentalCompany carRentalCompany = new CarRentalCompany();
+
+        addSampleBookings(carRentalCompany);
+
+        assertThat(carRentalCompany.rentalsStartingBetween(LocalDate.now(), LocalDate.now().plusDays(3)).size()).isEqualTo(3);
+        assertThat(carRentalCompany.rentalsStartingBetween(LocalDate.now().plusDays(2), LocalDate.now().plusDays(3)).size()).isEqualTo(1);
+        assertThat(carRentalCompany.upcomingRentals(2).size()).isEqualTo(1);
+    }
+
     /* Test for Story 5 - Book car for maintenance */
     @Test
     public void bookCarForMaintenance() throws BookingException {
@@ -114,11 +225,12 @@ public class CarRentalTest {
         assertThat(carRentalCompany.getBookings().size()).isEqualTo(3);
 
         // add new booking as maintenance
-        Booking maintenanceBooking = new Booking();
-        maintenanceBooking.setCar(CAR4);
-        maintenanceBooking.setStartDate(LocalDate.now().plusDays(20));
-        maintenanceBooking.setEndDate(LocalDate.now().plusDays(25));
-        maintenanceBooking.setMaintenance(true);
+        Booking maintenanceBooking = Booking.builder()
+                .car(CAR4)
+                .startDate(LocalDate.now().plusDays(20))
+                .endDate(LocalDate.now().plusDays(25))
+                .maintenance(true)
+                .build();
 
         carRentalCompany.addBooking(maintenanceBooking);
 
@@ -142,21 +254,168 @@ public class CarRentalTest {
 
         assertThat(carsWithBlendedPrices.get(0).getCostPerDay()).isEqualTo(67.5);
 
+        // quoting leaves the rates of the fleet untouched
+        assertThat(CAR3.getCostPerDay()).isEqualTo(65.0);
+        assertThat(carRentalCompany.getBlendedPrice().get(CAR3.getRentalGroup())).isEqualTo(67.5);
+
         //make booking with blended price
         assertThat(carRentalCompany.getBookings().size()).isEqualTo(3);
 
-        Booking bookingWithBlendedPrice = new Booking();
-        bookingWithBlendedPrice.setCar(CAR3);
-        bookingWithBlendedPrice.setRenter(RENTER4);
-        bookingWithBlendedPrice.setStartDate(LocalDate.now().plusDays(30));
-        bookingWithBlendedPrice.setEndDate(LocalDate.now().plusDays(35));
-        bookingWithBlendedPrice.setDailyCost(blendedPrices.get(CAR3.getRentalGroup()));
+        Booking bookingWithBlendedPrice = Booking.builder()
+                .car(CAR3)
+                .renter(RENTER4)
+                .startDate(LocalDate.now().plusDays(30))
+                .endDate(LocalDate.now().plusDays(35))
+                .dailyCost(blendedPrices.get(CAR3.getRentalGroup()))
+                .build();
         carRentalCompany.addBooking(bookingWithBlendedPrice);
 
         assertThat(carRentalCompany.getBookings().size()).isEqualTo(4);
 
     }
 
+    @Test
+    public void blendedPriceFollowsFleetChanges() throws BookingException {
+        CarRentalCompany carRentalCompany = new CarRentalCompany();
+        carRentalCompany.addCar(new Car("VW", "Polo", "XX13 3UR",  "A1", 65));
+        carRentalCompany.addCar(new Car("VW", "Polo", "XX14 4UR",  "A1", 70));
+        carRentalCompany.addCar(new Car("VW", "Golf", "XX11 1UR", "B2", 90));
+
+        carRentalCompany.updateCarPrice("XX14 4UR", 80);
+        assertThat(carRentalCompany.getBlendedPrice("A1")).isEqualTo(72.5);
+
+        carRentalCompany.removeCar("XX13 3UR");
+        assertThat(carRentalCompany.getBlendedPrice("A1")).isEqualTo(80.0);
+
+        carRentalCompany.removeCar("XX11 1UR");
+        assertThat(carRentalCompany.getBlendedPrice().size()).isEqualTo(1);
+    }
+
+    @Test
+    public void repricingReplacesTheCarAndKeepsBookedPrices() throws BookingException {
+        CarRentalCompany carRentalCompany = new CarRentalCompany();
+        carRentalCompany.setSearchCache(new SearchCache(100, null));
+        addSampleBookings(carRentalCompany);
+        LocalDate from = LocalDate.now().plusDays(30);
+
+        assertThat(carRentalCompany.availableCars("VW", "Polo", from, from).get(0).getCostPerDay()).isEqualTo(65.0);
+        carRentalCompany.getMatchingCarsIncludingBlendedPrice("VW", "Polo", from, from);
+        carRentalCompany.updateCarPrice(CAR3.getRegistrationNumber(), 75);
+
+        // the fleet and cached searches see the new car, the booked car and the old instance keep their price
+        assertThat(carRentalCompany.getCar(CAR3.getRegistrationNumber()).getCostPerDay()).isEqualTo(75.0);
+        assertThat(carRentalCompany.availableCars("VW", "Polo", from, from).get(0).getCostPerDay()).isEqualTo(75.0);
+        assertThat(carRentalCompany.getBookings(CAR3.getRegistrationNumber()).get(0).getCar().getCostPerDay()).isEqualTo(65.0);
+        assertThat(CAR3.getCostPerDay()).isEqualTo(65.0);
+    }
+
+    @Test
+    public void limitConcurrentRentalsPerRenter() throws BookingException {
+        CarRentalCompany carRentalCompany = new CarRentalCompany();
+        addSampleBookings(carRentalCompany);
+        carRentalCompany.setMaxConcurrentRentals(1);
+
+        // RENTER1 has CAR1 from today for a week
+        Booking second = Booking.builder().car(CAR2).renter(RENTER1)
+                .startDate(LocalDate.now().plusDays(9)).endDate(LocalDate.now().plusDays(10)).build();
+        Booking third = Booking.builder().car(CAR4).renter(RENTER1)
+                .startDate(LocalDate.now().plusDays(6)).endDate(LocalDate.now().plusDays(9)).build();
+        carRentalCompany.addBookings(List.of(second));
+        BookingException e = assertThrows(BookingException.class, () -> carRentalCompany.addBooking(third));
+        assertThat(e.getReason()).isEqualTo(RejectionReason.TOO_MANY_RENTALS);
+
+        // CAR1 is back before the third rental starts and the second one starts after it
+        carRentalCompany.addBooking(third.toBuilder().startDate(LocalDate.now().plusDays(8)).endDate(LocalDate.now().plusDays(8)).build());
+        assertThat(carRentalCompany.currentRentals(RENTER1.getDrivingLicenseNumber()).size()).isEqualTo(1);
+        assertThat(carRentalCompany.futureRentals(RENTER1.getDrivingLicenseNumber()).size()).isEqualTo(2);
+        assertThat(carRentalCompany.pastRentals(RENTER1.getDrivingLicenseNumber()).isEmpty()).isTrue();
+        assertThat(carRentalCompany.getRenter(RENTER1.getDrivingLicenseNumber()).getFirstName()).isEqualTo("Joe");
+
+        carRentalCompany.removeBookings(CAR1.getRegistrationNumber());
+        assertThat(carRentalCompany.getRenterBookings(RENTER1.getDrivingLicenseNumber()).size()).isEqualTo(2);
+    }
+
+    @Test
+    public void changesTheLogFailsOnAreNotApplied() throws BookingException {
+        CarRentalCompany carRentalCompany = new CarRentalCompany();
+        addSampleBookings(carRentalCompany);
+        List<Booking> notified = new ArrayList<>();
+        carRentalCompany.addListener(new RentalEventListener() {
+            @Override
+            public void bookingAdded(Booking booking) {
+                notified.add(booking);
+            }
+        });
+        carRentalCompany.setChangeLog(new ChangeLog() {
+            @Override
+            public void carAdded(Car car) {
+            }
+
+            @Override
+            public void carRemoved(Car car) {
+            }
+
+            @Override
+            public void carPriceChanged(Car car) {
+            }
+
+            @Override
+            public void bookingsAdded(List<Booking> bookings) {
+                throw new UncheckedIOException(new IOException("Disk full"));
+            }
+
+            @Override
+            public void bookingsRemoved(String registrationNumber) {
+            }
+        });
+
+        Booking booking = Booking.builder().car(CAR4).renter(RENTER4)
+                .startDate(LocalDate.now().plusDays(1)).endDate(LocalDate.now().plusDays(2)).build();
+        assertThrows(UncheckedIOException.class, () -> carRentalCompany.addBooking(booking));
+        assertThrows(UncheckedIOException.class, () -> carRentalCompany.addBookings(List.of(booking)));
+        assertThat(carRentalCompany.getBookings(CAR4.getRegistrationNumber()).isEmpty()).isTrue();
+        assertThat(notified.isEmpty()).isTrue();
+
+        carRentalCompany.setChangeLog(null);
+        carRentalCompany.addBooking(booking);
+        assertThat(notified.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void valueTypesCompareByValue() {
+        assertThat(new Car("VW", "Golf", "XX11 1UR", "B2", 90)).isEqualTo(CAR1);
+        assertThat(new Car("VW", "Golf", "XX11 1UR", "B2", 95).equals(CAR1)).isFalse();
+        assertThat(new Car(new String("VW"), "Golf", "XX11 1UR", "B2", 90).getMake()).isSameAs(CAR1.getMake());
+        assertThat(new Renter("Hydrogen", "Jo", "HYDRO010190JX8NM", null)).isEqualTo(RENTER1);
+        assertThat(assertThrows(NullPointerException.class, () -> new Renter("Hydrogen", null, "HYDRO010190JX8NM", null))
+                .getMessage()).isEqualTo("firstName");
+
+        Booking booking = Booking.builder().car(CAR1).renter(RENTER1).startDate(LocalDate.now()).endDate(LocalDate.now()).build();
+        assertThat(booking.toBuilder().build()).isEqualTo(booking);
+        assertThat(booking.toBuilder().build().hashCode()).isEqualTo(booking.hashCode());
+        assertThat(booking.getStartDay()).isEqualTo((int) LocalDate.now().toEpochDay());
+    }
+
+    @Test
+    public void bookingsMustHaveACarAndDatesInOrder() {
+        Booking.Builder builder = Booking.builder().car(CAR1).startDate(LocalDate.now().plusDays(2));
+        assertThat(assertThrows(NullPointerException.class, builder::build).getMessage()).isEqualTo("endDate");
+        builder.endDate(LocalDate.now().plusDays(1));
+        assertThat(assertThrows(IllegalArgumentException.class, builder::build).getMessage()).isEqualTo("Booking ends before it starts");
+    }
+
+    @Test
+    public void bookedCarsPerDayNeedsADateRangeAndAGrouping() {
+        CarRentalCompany carRentalCompany = new CarRentalCompany();
+        addSampleBookings(carRentalCompany);
+        LocalDate today = LocalDate.now();
+
+        assertThrows(IllegalArgumentException.class, () -> carRentalCompany.bookedCarsPerDay(today, 0, Car::getRentalGroup));
+        assertThrows(IllegalArgumentException.class, () -> carRentalCompany.bookedCarsPerDay(null, 3, Car::getRentalGroup));
+        assertThrows(IllegalArgumentException.class, () -> carRentalCompany.bookedCarsPerDay(today, 3, null));
+        assertThat(carRentalCompany.bookedCarsPerDay(today, 3, Car::getRentalGroup).get("C1")).isEqualTo(new int[]{0, 1, 1});
+    }
+
     public void addSampleBookings(CarRentalCompany carRentalCompany){
 
         try{
@@ -167,27 +426,30 @@ public class CarRentalTest {
 
             Booking booking;
 
-            booking = new Booking();
-            booking.setCar(CAR1);
-            booking.setRenter(RENTER1);
-            booking.setStartDate(LocalDate.now());
-            booking.setEndDate(booking.getStartDate().plusDays(7));
+            booking = Booking.builder()
+                    .car(CAR1)
+                    .renter(RENTER1)
+                    .startDate(LocalDate.now())
+                    .endDate(LocalDate.now().plusDays(7))
+                    .build();
 
             carRentalCompany.addBooking(booking);
 
-            booking = new Booking();
-            booking.setCar(CAR2);
-            booking.setRenter(RENTER2);
-            booking.setStartDate(LocalDate.now().plusDays(1));
-            booking.setEndDate(booking.getStartDate().plusDays(7));
+            booking = Booking.builder()
+                    .car(CAR2)
+                    .renter(RENTER2)
+                    .startDate(LocalDate.now().plusDays(1))
+                    .endDate(LocalDate.now().plusDays(8))
+                    .build();
 
             carRentalCompany.addBooking(booking);
 
-            booking = new Booking();
-            booking.setCar(CAR3);
-            booking.setRenter(RENTER3);
-            booking.setStartDate(LocalDate.now().plusDays(3));
-            booking.setEndDate(booking.getStartDate().plusDays(7));
+            booking = Booking.builder()
+                    .car(CAR3)
+                    .renter(RENTER3)
+                    .startDate(LocalDate.now().plusDays(3))
+                    .endDate(LocalDate.now().plusDays(10))
+                    .build();
 
             carRentalCompany.addBooking(booking);
         } catch (BookingException e) {
@@ -0,0 +1,56 @@
+package io.rental;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+public class CarScheduleTest {
+    private static final Car CAR = new Car("VW", "Golf", "XX11 1UR", "B2", 90);
+    private static final int TODAY = (int) LocalDate.now().toEpochDay();
+
+    @Test
+    public void testBookingsInsideAndOutsideBitmapWindow() {
+        CarSchedule schedule = new CarSchedule();
+        schedule.add(booking(10, 12));
+        schedule.add(booking(CarSchedule.BITMAP_WINDOW_DAYS + 100, CarSchedule.BITMAP_WINDOW_DAYS + 105));
+        schedule.add(booking(-400, -390));
+
+        // answered from the bitmap
+        assertThat(schedule.isBooked(TODAY + 12, TODAY + 20)).isTrue();
+        assertThat(schedule.isBooked(TODAY + 13, TODAY + 20)).isFalse();
+
+        // answered from the sorted periods
+        assertThat(schedule.isBooked(TODAY + CarSchedule.BITMAP_WINDOW_DAYS + 90, TODAY + CarSchedule.BITMAP_WINDOW_DAYS + 100)).isTrue();
+        assertThat(schedule.isBooked(TODAY + CarSchedule.BITMAP_WINDOW_DAYS + 106, TODAY + CarSchedule.BITMAP_WINDOW_DAYS + 200)).isFalse();
+        assertThat(schedule.isBooked(TODAY - 395, TODAY - 395)).isTrue();
+
+        // straddling the end of the window
+        assertThat(schedule.isBooked(TODAY + 700, TODAY + CarSchedule.BITMAP_WINDOW_DAYS + 100)).isTrue();
+    }
+
+    @Test
+    public void testFreeGapsAroundBookings() {
+        CarSchedule schedule = new CarSchedule();
+        schedule.add(booking(20, 25));
+        schedule.addAll(List.of(booking(10, 12), booking(14, 15)));
+
+        assertThat(schedule.firstFreeStart(TODAY + 10, 2, TODAY + 30)).isEqualTo(TODAY + 16);
+        assertThat(schedule.firstFreeStart(TODAY + 10, 5, TODAY + 20)).isEqualTo(CarSchedule.NONE);
+        assertThat(schedule.lastFreeStart(TODAY + 21, 3, TODAY)).isEqualTo(TODAY + 17);
+        assertThat(schedule.lastFreeStart(TODAY + 13, 2, TODAY + 11)).isEqualTo(CarSchedule.NONE);
+        assertThat(schedule.lastFreeDay(TODAY + 16, TODAY + 30)).isEqualTo(TODAY + 19);
+        assertThat(schedule.lastFreeDay(TODAY + 26, TODAY + 30)).isEqualTo(TODAY + 30);
+        assertThat(schedule.lastFreeDay(TODAY + 11, TODAY + 30)).isEqualTo(CarSchedule.NONE);
+    }
+
+    private static Booking booking(int fromDays, int toDays) {
+        return Booking.builder()
+                .car(CAR)
+                .startDate(LocalDate.now().plusDays(fromDays))
+                .endDate(LocalDate.now().plusDays(toDays))
+                .build();
+    }
+}
@@ -0,0 +1,97 @@
+package io.rental;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class CarSearchTest {
+
+    private static final int CARS = 50;
+    private static final LocalDate START = LocalDate.now().plusDays(1);
+
+    private final AtomicInteger availabilityChecks = new AtomicInteger();
+
+    private CarRentalCompany carRentalCompany;
+    private Criteria criteria;
+
+    @BeforeEach
+    public void setUp() throws BookingException {
+        carRentalCompany = new CarRentalCompany(new HeapBookingStore() {
+            @Override
+            public boolean isBooked(Car car, int fromDay, int toDay) {
+                availabilityChecks.incrementAndGet();
+                return super.isBooked(car, fromDay, toDay);
+            }
+        });
+        for (int i = 0; i < CARS; i++) {
+            // prices run against registration order and repeat, so ties are broken by registration
+            carRentalCompany.addCar(new Car("VW", "Polo", String.format("XX%02d ABC", i), "A1", 100 - i % 10));
+        }
+        for (int i = 0; i < CARS; i += 3) {
+            carRentalCompany.addBooking(Booking.builder().car(carRentalCompany.getCar(String.format("XX%02d ABC", i)))
+                    .startDate(START).endDate(START).dailyCost(50).build());
+        }
+        criteria = new Criteria();
+        criteria.setMake("VW");
+        criteria.setModel("Polo");
+        criteria.setFromDate(START);
+        criteria.setToDate(START);
+        availabilityChecks.set(0);
+    }
+
+    @Test
+    public void pagesCoverEveryAvailableCarOnceInOrder() throws BookingException {
+        for (SearchOrder order : SearchOrder.values()) {
+            List<Car> paged = new ArrayList<>();
+            String cursor = null;
+            do {
+                CarPage page = carRentalCompany.searchPage(criteria, order, cursor, 7);
+                paged.addAll(page.getCars());
+                cursor = page.getNextCursor();
+            } while (cursor != null);
+
+            List<Car> expected = carRentalCompany.matchingCars(criteria);
+            expected.sort(order.comparator());
+            assertThat(paged).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    public void searchStopsCheckingOnceThePageIsFull() throws BookingException {
+        CarPage page = carRentalCompany.searchPage(criteria, SearchOrder.REGISTRATION, null, 4);
+
+        // XX00 and XX03 are booked, so six cars are checked for four free ones
+        assertThat(page.getCars().stream().map(Car::getRegistrationNumber).collect(Collectors.toList()))
+                .isEqualTo(List.of("XX01 ABC", "XX02 ABC", "XX04 ABC", "XX05 ABC"));
+        assertThat(availabilityChecks.get()).isEqualTo(6);
+
+        availabilityChecks.set(0);
+        List<Car> cheapest = carRentalCompany.searchCars(criteria, SearchOrder.PRICE).limit(3).collect(Collectors.toList());
+        assertThat(cheapest.get(0).getCostPerDay()).isEqualTo(91.0);
+        assertThat(availabilityChecks.get()).isLessThan(CARS / 2);
+
+        assertThrows(BookingException.class, () -> carRentalCompany.searchCars(criteria, null));
+        assertThrows(BookingException.class, () -> carRentalCompany.searchCars(null, SearchOrder.PRICE));
+    }
+
+    @Test
+    public void pagesDoNotShiftWhenTheFleetChanges() throws BookingException {
+        CarPage first = carRentalCompany.searchPage(criteria, SearchOrder.REGISTRATION, null, 2);
+        carRentalCompany.removeCar("XX01 ABC");
+        carRentalCompany.addCar(new Car("VW", "Polo", "XX00 AAA", "A1", 100));
+
+        CarPage second = carRentalCompany.searchPage(criteria, SearchOrder.REGISTRATION, first.getNextCursor(), 2);
+        assertThat(second.getCars().get(0).getRegistrationNumber()).isEqualTo("XX04 ABC");
+        assertThrows(UnsupportedOperationException.class, () -> second.getCars().clear());
+        assertThrows(BookingException.class,
+                () -> carRentalCompany.searchPage(criteria, SearchOrder.PRICE, first.getNextCursor(), 2));
+    }
+}
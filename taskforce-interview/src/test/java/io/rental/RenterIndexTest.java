@@ -0,0 +1,61 @@
+package io.rental;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class RenterIndexTest {
+    private static final Renter RENTER = new Renter("Hydrogen", "Joe", "HYDRO010190JX8NM", LocalDate.of(1990, 1, 1));
+    private static final int TODAY = (int) LocalDate.now().toEpochDay();
+
+    @Test
+    public void testPastCurrentAndFutureRentals() {
+        RenterIndex index = new RenterIndex();
+        Booking past = booking("XX01 ABC", -20, -10);
+        Booking longRunning = booking("XX02 ABC", -30, 30);
+        Booking endedYesterday = booking("XX03 ABC", -5, -1);
+        Booking startsToday = booking("XX04 ABC", 0, 3);
+        Booking future = booking("XX05 ABC", 1, 2);
+        List.of(future, startsToday, past, endedYesterday, longRunning).forEach(index::add);
+        index.add(Booking.builder().car(new Car("VW", "Polo", "XX06 ABC", "A1", 60))
+                .startDate(LocalDate.now()).endDate(LocalDate.now()).maintenance(true).build());
+
+        RenterIndex.History history = index.history(RENTER.getDrivingLicenseNumber());
+        assertThat(history.all()).isEqualTo(List.of(longRunning, past, endedYesterday, startsToday, future));
+        assertThat(history.past(TODAY)).isEqualTo(List.of(past, endedYesterday));
+        assertThat(history.current(TODAY)).isEqualTo(List.of(longRunning, startsToday));
+        assertThat(history.future(TODAY)).isEqualTo(List.of(future));
+        assertThrows(UnsupportedOperationException.class, () -> history.future(TODAY).clear());
+
+        index.remove(longRunning);
+        assertThat(index.history(RENTER.getDrivingLicenseNumber()).current(TODAY)).isEqualTo(List.of(startsToday));
+        assertThat(index.history("UNKNOWN").all().isEmpty()).isTrue();
+    }
+
+    @Test
+    public void testMaxConcurrentCountsOnlyOverlappingDays() {
+        RenterIndex.History history = RenterIndex.History.EMPTY
+                .with(booking("XX01 ABC", 10, 12))
+                .with(booking("XX02 ABC", 13, 15))
+                .with(booking("XX03 ABC", 5, 20));
+
+        // the two short rentals follow each other, so at most two rentals run on any day
+        assertThat(history.maxConcurrent(TODAY + 10, TODAY + 15)).isEqualTo(2);
+        assertThat(history.maxConcurrent(TODAY + 16, TODAY + 30)).isEqualTo(1);
+        assertThat(history.maxConcurrent(TODAY + 21, TODAY + 30)).isEqualTo(0);
+        assertThat(history.with(booking("XX04 ABC", 12, 13)).maxConcurrent(TODAY, TODAY + 30)).isEqualTo(3);
+    }
+
+    private static Booking booking(String registrationNumber, int startOffset, int endOffset) {
+        return Booking.builder()
+                .car(new Car("VW", "Polo", registrationNumber, "A1", 60))
+                .renter(RENTER)
+                .startDate(LocalDate.now().plusDays(startOffset))
+                .endDate(LocalDate.now().plusDays(endOffset))
+                .build();
+    }
+}
@@ -0,0 +1,164 @@
+package io.rental;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+public class SearchCacheTest {
+
+    private static final LocalDate START = LocalDate.now().plusDays(10);
+
+    private CarRentalCompany carRentalCompany;
+    private SearchCache searchCache;
+
+    @BeforeEach
+    public void setUp() {
+        carRentalCompany = new CarRentalCompany();
+        carRentalCompany.addCar(new Car("VW", "Polo", "XX11 1UR", "B1", 65));
+        carRentalCompany.addCar(new Car("VW", "Golf", "XX11 2UR", "B1", 80));
+        carRentalCompany.addCar(new Car("Ford", "Focus", "XX11 3UR", "B1", 70));
+        searchCache = new SearchCache(100, Duration.ofMinutes(5));
+        carRentalCompany.setSearchCache(searchCache);
+    }
+
+    @Test
+    public void repeatedSearchIsServedFromTheCache() throws BookingException {
+        List<Car> first = carRentalCompany.availableCars("VW", "Polo", START, START.plusDays(2));
+        List<Car> second = carRentalCompany.availableCars("VW", "Polo", START, START.plusDays(2));
+
+        assertThat(second.equals(first)).isTrue();
+        assertThat(searchCache.stats().missCount()).isEqualTo(1L);
+        assertThat(searchCache.stats().hitCount()).isEqualTo(1L);
+    }
+
+    @Test
+    public void onlyOverlappingBookingsOfMatchingCarsInvalidate() throws BookingException {
+        carRentalCompany.availableCars("VW", "Polo", START, START.plusDays(2));
+        carRentalCompany.matchingCars(groupSearch("B1"));
+
+        // another model, and the same car on other dates, leave the Polo search cached, the group search goes
+        book("XX11 2UR", START, START.plusDays(1));
+        book("XX11 1UR", START.plusDays(5), START.plusDays(6));
+        assertThat(searchCache.invalidationCount()).isEqualTo(1L);
+        assertThat(searchCache.size()).isEqualTo(1L);
+
+        carRentalCompany.availableCars("VW", "Polo", START, START.plusDays(2));
+        assertThat(searchCache.stats().hitCount()).isEqualTo(1L);
+
+        book("XX11 1UR", START.plusDays(2), START.plusDays(3));
+        List<Car> available = carRentalCompany.availableCars("VW", "Polo", START, START.plusDays(2));
+        assertThat(available.isEmpty()).isTrue();
+        assertThat(searchCache.stats().hitCount()).isEqualTo(1L);
+    }
+
+    @Test
+    public void newCarsInvalidateMatchingSearches() throws BookingException {
+        carRentalCompany.availableCars("VW", "Polo", START, START.plusDays(2));
+        carRentalCompany.availableCars("Ford", "Focus", START, START.plusDays(2));
+
+        carRentalCompany.addCar(new Car("VW", "Polo", "XX11 4UR", "B1", 65));
+
+        assertThat(carRentalCompany.availableCars("VW", "Polo", START, START.plusDays(2)).size()).isEqualTo(2);
+        assertThat(carRentalCompany.availableCars("Ford", "Focus", START, START.plusDays(2)).size()).isEqualTo(1);
+        assertThat(searchCache.stats().hitCount()).isEqualTo(1L);
+    }
+
+    @Test
+    public void onlySearchesAMatchingBookingRacedDropTheirResult() {
+        Criteria polo = new Criteria();
+        polo.setMake("VW");
+        polo.setModel("Polo");
+        polo.setFromDate(START);
+        polo.setToDate(START.plusDays(2));
+
+        // a Ford booked while the Polo search runs leaves its result cached
+        searchCache.get(polo, c -> {
+            searchCache.bookingAdded(booking("XX11 3UR", START, START.plusDays(1)));
+            return new ArrayList<>();
+        });
+        assertThat(searchCache.size()).isEqualTo(1L);
+        searchCache.get(polo, c -> new ArrayList<>());
+        assertThat(searchCache.stats().hitCount()).isEqualTo(1L);
+
+        // a Polo booked on the same dates while the search runs again drops it
+        searchCache.bookingAdded(booking("XX11 1UR", START, START));
+        searchCache.get(polo, c -> {
+            searchCache.bookingAdded(booking("XX11 1UR", START.plusDays(1), START.plusDays(1)));
+            return new ArrayList<>();
+        });
+        assertThat(searchCache.size()).isEqualTo(0L);
+    }
+
+    /* Searches racing with bookings never leave a stale result behind */
+    @Test
+    public void cachedResultsMatchFreshSearchesAfterConcurrentBookings() throws Exception {
+        for (int i = 0; i < 50; i++) {
+            carRentalCompany.addCar(new Car("Seat", "Ibiza", String.format("YY%02d ABC", i), "A1", 55));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            boolean booker = t % 2 == 0;
+            futures.add(executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < 2_000; i++) {
+                    LocalDate day = START.plusDays(random.nextInt(20));
+                    if (booker) {
+                        try {
+                            book(String.format("YY%02d ABC", random.nextInt(50)), day, day);
+                        } catch (BookingException e) {
+                            // already booked
+                        }
+                    } else {
+                        carRentalCompany.availableCars("Seat", "Ibiza", day, day);
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        for (int d = 0; d < 20; d++) {
+            LocalDate day = START.plusDays(d);
+            List<Car> cached = carRentalCompany.availableCars("Seat", "Ibiza", day, day);
+            carRentalCompany.setSearchCache(null);
+            List<Car> fresh = carRentalCompany.availableCars("Seat", "Ibiza", day, day);
+            carRentalCompany.setSearchCache(searchCache);
+            assertThat(cached.equals(fresh)).isTrue();
+        }
+    }
+
+    private Criteria groupSearch(String rentalGroup) {
+        Criteria criteria = new Criteria();
+        criteria.setRentalGroup(rentalGroup);
+        criteria.setFromDate(START);
+        criteria.setToDate(START.plusDays(1));
+        return criteria;
+    }
+
+    private void book(String registrationNumber, LocalDate startDate, LocalDate endDate) throws BookingException {
+        carRentalCompany.addBooking(booking(registrationNumber, startDate, endDate));
+    }
+
+    private Booking booking(String registrationNumber, LocalDate startDate, LocalDate endDate) {
+        return Booking.builder()
+                .car(carRentalCompany.getCar(registrationNumber))
+                .startDate(startDate)
+                .endDate(endDate)
+                .build();
+    }
+}
@@ -0,0 +1,67 @@
+package io.rental.analytics;
+
+import io.rental.Booking;
+import io.rental.BookingException;
+import io.rental.Car;
+import io.rental.CarRentalCompany;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+public class AvailabilityHeatmapTest {
+
+    private static final Car POLO = new Car("VW", "Polo", "XX11 1UR", "B1", 65);
+    private static final Car GOLF = new Car("VW", "Golf", "XX11 2UR", "B1", 80);
+    private static final Car FOCUS = new Car("Ford", "Focus", "XX11 3UR", "C1", 70);
+    private static final LocalDate START = LocalDate.now().plusDays(1);
+
+    private CarRentalCompany carRentalCompany;
+
+    @BeforeEach
+    public void setUp() throws BookingException {
+        carRentalCompany = new CarRentalCompany();
+        carRentalCompany.addCar(POLO);
+        carRentalCompany.addCar(GOLF);
+        carRentalCompany.addCar(FOCUS);
+        carRentalCompany.addBooking(booking(POLO, START, START.plusDays(2)));
+        carRentalCompany.registerCarMaintenance(GOLF, START.plusDays(1), START.plusDays(1));
+    }
+
+    @Test
+    public void sweepCountsFreeCarsPerGroupAndDay() {
+        AvailabilityHeatmap heatmap = AvailabilityHeatmap.attach(carRentalCompany, AvailabilityHeatmap.Grouping.RENTAL_GROUP, 30);
+
+        AvailabilityMatrix matrix = heatmap.freeCars(START, 4);
+        assertThat(matrix.getKeys()).isEqualTo(List.of("B1", "C1"));
+        assertThat(matrix.getFreeCars("B1")).isEqualTo(new int[]{1, 0, 1, 2});
+        assertThat(matrix.getFreeCars("C1")).isEqualTo(new int[]{1, 1, 1, 1});
+        assertThat(matrix.getFreeCars("B1", START.plusDays(3))).isEqualTo(2);
+    }
+
+    @Test
+    public void bookingsAndFleetChangesReachTheHeatmap() throws BookingException {
+        AvailabilityHeatmap heatmap = AvailabilityHeatmap.attach(carRentalCompany, AvailabilityHeatmap.Grouping.MODEL, 30);
+
+        carRentalCompany.addBooking(booking(FOCUS, START.plusDays(3), START.plusDays(4)));
+        carRentalCompany.addCar(new Car("Ford", "Focus", "XX11 4UR", "C1", 70));
+        assertThat(heatmap.freeCars(START, 5).getFreeCars("Ford Focus")).isEqualTo(new int[]{2, 2, 2, 1, 1});
+
+        carRentalCompany.removeCar(POLO.getRegistrationNumber());
+        carRentalCompany.removeBookings(FOCUS.getRegistrationNumber());
+        AvailabilityMatrix matrix = heatmap.freeCars(START, 5);
+        assertThat(matrix.getKeys()).isEqualTo(List.of("Ford Focus", "VW Golf"));
+        assertThat(matrix.getFreeCars("Ford Focus")).isEqualTo(new int[]{2, 2, 2, 2, 2});
+        assertThat(matrix.getFreeCars("VW Golf")).isEqualTo(new int[]{1, 0, 1, 1, 1});
+
+        // beyond the window the bookings are swept again
+        assertThat(heatmap.freeCars(START.plusDays(60), 3).getFreeCars("VW Golf")).isEqualTo(new int[]{1, 1, 1});
+    }
+
+    private static Booking booking(Car car, LocalDate startDate, LocalDate endDate) {
+        return Booking.builder().car(car).startDate(startDate).endDate(endDate).dailyCost(car.getCostPerDay()).build();
+    }
+}
@@ -0,0 +1,91 @@
+package io.rental.analytics;
+
+import io.rental.Booking;
+import io.rental.BookingException;
+import io.rental.Car;
+import io.rental.CarRentalCompany;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class RentalAnalyticsTest {
+
+    private static final Car POLO = new Car("VW", "Polo", "XX11 1UR", "B1", 65);
+    private static final Car GOLF = new Car("VW", "Golf", "XX11 2UR", "B1", 80);
+    private static final Car FOCUS = new Car("Ford", "Focus", "XX11 3UR", "C1", 70);
+
+    private CarRentalCompany carRentalCompany;
+
+    @BeforeEach
+    public void setUp() {
+        carRentalCompany = new CarRentalCompany();
+        carRentalCompany.addCar(POLO);
+        carRentalCompany.addCar(GOLF);
+        carRentalCompany.addCar(FOCUS);
+    }
+
+    @Test
+    public void rangesAddUpWholeAndPartialMonths() {
+        // history is imported, so the rollups are built from what the company held when they were attached
+        carRentalCompany.importBookings(List.of(
+                rental(POLO, LocalDate.of(2023, 1, 30), LocalDate.of(2023, 2, 2), 50),
+                rental(GOLF, LocalDate.of(2023, 2, 10), LocalDate.of(2023, 2, 11), 80),
+                maintenance(FOCUS, LocalDate.of(2023, 2, 27), LocalDate.of(2023, 3, 1))));
+        RentalAnalytics analytics = RentalAnalytics.attach(carRentalCompany);
+        carRentalCompany.importBookings(List.of(rental(FOCUS, LocalDate.of(2024, 6, 1), LocalDate.of(2024, 6, 1), 70)));
+
+        assertThat(analytics.revenue(LocalDate.of(2023, 1, 1), LocalDate.of(2024, 12, 31))).isEqualTo(4 * 50.0 + 2 * 80 + 70);
+        assertThat(analytics.revenue(LocalDate.of(2023, 2, 1), LocalDate.of(2023, 2, 28))).isEqualTo(2 * 50.0 + 2 * 80);
+        assertThat(analytics.revenue(LocalDate.of(2023, 1, 31), LocalDate.of(2023, 2, 10))).isEqualTo(3 * 50.0 + 80);
+
+        Map<String, GroupUsage> february = analytics.usage(LocalDate.of(2023, 2, 1), LocalDate.of(2023, 2, 28));
+        assertThat(february.get("B1").getCars()).isEqualTo(2);
+        assertThat(february.get("B1").getRentedCarDays()).isEqualTo(4L);
+        assertThat(february.get("B1").getUtilization()).isEqualTo(4.0 / (2 * 28));
+        assertThat(february.get("C1").getMaintenanceCarDays()).isEqualTo(2L);
+        assertThat(february.get("C1").getRevenue()).isEqualTo(0.0);
+
+        Map<YearMonth, Double> byMonth = analytics.revenueByMonth(LocalDate.of(2023, 1, 1), LocalDate.of(2023, 3, 31));
+        assertThat(byMonth).isEqualTo(Map.of(YearMonth.of(2023, 1), 100.0, YearMonth.of(2023, 2), 260.0));
+    }
+
+    @Test
+    public void removedBookingsAndRepricedCarsAreAccountedFor() throws BookingException {
+        RentalAnalytics analytics = RentalAnalytics.attach(carRentalCompany);
+        LocalDate start = LocalDate.now().plusDays(1);
+        carRentalCompany.addBooking(rental(POLO, start, start.plusDays(2), 65));
+        carRentalCompany.addBooking(rental(GOLF, start, start.plusDays(2), 80));
+
+        carRentalCompany.updateCarPrice(POLO.getRegistrationNumber(), 100);
+        assertThat(analytics.revenue(start, start.plusDays(2))).isEqualTo(3 * 65.0 + 3 * 80);
+
+        carRentalCompany.removeBookings(GOLF.getRegistrationNumber());
+        carRentalCompany.removeCar(GOLF.getRegistrationNumber());
+        GroupUsage usage = analytics.usage(start, start.plusDays(2)).get("B1");
+        assertThat(usage.getRevenue()).isEqualTo(3 * 65.0);
+        assertThat(usage.getCars()).isEqualTo(1);
+        assertThat(usage.getUtilization()).isEqualTo(1.0);
+    }
+
+    @Test
+    public void rangesMustNotEndBeforeTheyStart() {
+        RentalAnalytics analytics = RentalAnalytics.attach(carRentalCompany);
+
+        assertThrows(IllegalArgumentException.class, () -> analytics.usage(LocalDate.now(), LocalDate.now().minusDays(1)));
+    }
+
+    private static Booking rental(Car car, LocalDate startDate, LocalDate endDate, double dailyCost) {
+        return Booking.builder().car(car).startDate(startDate).endDate(endDate).dailyCost(dailyCost).build();
+    }
+
+    private static Booking maintenance(Car car, LocalDate startDate, LocalDate endDate) {
+        return Booking.builder().car(car).startDate(startDate).endDate(endDate).maintenance(true).build();
+    }
+}
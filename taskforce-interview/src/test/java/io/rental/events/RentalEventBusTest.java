@@ -0,0 +1,148 @@
+package io.rental.events;
+
+import io.rental.Booking;
+import io.rental.BookingException;
+import io.rental.Car;
+import io.rental.CarRentalCompany;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+public class RentalEventBusTest {
+
+    private static final Car POLO = new Car("VW", "Polo", "XX11 1UR", "B1", 65);
+    private static final LocalDate START = LocalDate.now().plusDays(1);
+
+    private CarRentalCompany carRentalCompany;
+    private RentalEventBus bus;
+
+    @BeforeEach
+    public void setUp() {
+        carRentalCompany = new CarRentalCompany();
+        bus = RentalEventBus.attach(carRentalCompany);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        bus.close();
+    }
+
+    @Test
+    public void subscribersGetEveryChangeInOrder() throws BookingException {
+        List<RentalEvent> received = Collections.synchronizedList(new ArrayList<>());
+        EventSubscription subscription = bus.subscribe(received::addAll);
+
+        carRentalCompany.addCar(POLO);
+        carRentalCompany.addBooking(booking(START));
+        carRentalCompany.registerCarMaintenance(POLO, START.plusDays(1), START.plusDays(2));
+        subscription.close();
+
+        assertThat(received.size()).isEqualTo(3);
+        assertThat(received.get(0).getType()).isEqualTo(RentalEvent.Type.CAR_ADDED);
+        assertThat(received.get(1).getType()).isEqualTo(RentalEvent.Type.BOOKING_CREATED);
+        assertThat(received.get(1).getBooking().getStartDate()).isEqualTo(START);
+        assertThat(received.get(2).getType()).isEqualTo(RentalEvent.Type.MAINTENANCE_REGISTERED);
+        assertThat(subscription.deliveredCount()).isEqualTo(3L);
+    }
+
+    @Test
+    public void aStalledSubscriberLosesEventsInsteadOfHoldingUpBookings() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<RentalEvent> newest = Collections.synchronizedList(new ArrayList<>());
+        EventSubscription stalled = bus.subscribe(events -> await(release), 4, OverflowPolicy.DROP_NEWEST, 8);
+        EventSubscription latest = bus.subscribe(events -> {
+            await(release);
+            newest.addAll(events);
+        }, 4, OverflowPolicy.DROP_OLDEST, 8);
+        EventSubscription disconnected = bus.subscribe(events -> await(release), 4, OverflowPolicy.DISCONNECT, 8);
+
+        // every subscriber takes the first event off its queue and stalls on it
+        carRentalCompany.addCar(POLO);
+        for (EventSubscription subscription : List.of(stalled, latest, disconnected)) {
+            while (subscription.backlog() > 0) {
+                Thread.sleep(1);
+            }
+        }
+        for (int i = 0; i < 20; i++) {
+            carRentalCompany.addBooking(booking(START.plusDays(i)));
+        }
+        release.countDown();
+        stalled.close();
+        latest.close();
+
+        assertThat(stalled.deliveredCount()).isEqualTo(5L);
+        assertThat(stalled.droppedCount()).isEqualTo(16L);
+        assertThat(latest.deliveredCount()).isEqualTo(5L);
+        assertThat(newest.get(newest.size() - 1).getBooking().getStartDate()).isEqualTo(START.plusDays(19));
+        assertThat(disconnected.isClosed()).isTrue();
+        assertThat(disconnected.droppedCount()).isEqualTo(1L);
+    }
+
+    @Test
+    public void ringBufferHandsOutEveryElementOnceUnderContention() throws Exception {
+        RingBuffer<Integer> ring = new RingBuffer<>(64);
+        int perProducer = 20_000;
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<Long>> consumers = new ArrayList<>();
+        for (int p = 0; p < 2; p++) {
+            executor.submit(() -> {
+                for (int i = 1; i <= perProducer; i++) {
+                    while (!ring.offer(i)) {
+                        Thread.yield();
+                    }
+                }
+            });
+        }
+        AtomicLong taken = new AtomicLong();
+        for (int c = 0; c < 2; c++) {
+            consumers.add(executor.submit(() -> {
+                long sum = 0;
+                while (true) {
+                    Integer element = ring.poll();
+                    if (element == null) {
+                        if (taken.get() == 2L * perProducer) {
+                            return sum;
+                        }
+                        Thread.yield();
+                        continue;
+                    }
+                    sum += element;
+                    taken.incrementAndGet();
+                }
+            }));
+        }
+        long sum = 0;
+        for (Future<Long> consumer : consumers) {
+            sum += consumer.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertThat(sum).isEqualTo(2L * perProducer * (perProducer + 1) / 2);
+        assertThat(ring.isEmpty()).isTrue();
+    }
+
+    private static Booking booking(LocalDate day) {
+        return Booking.builder().car(POLO).startDate(day).endDate(day).dailyCost(65).build();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
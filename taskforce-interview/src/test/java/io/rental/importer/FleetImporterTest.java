@@ -0,0 +1,117 @@
+package io.rental.importer;
+
+import io.rental.Booking;
+import io.rental.Car;
+import io.rental.CarRentalCompany;
+import io.rental.journal.JournalCodec;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+public class FleetImporterTest {
+
+    private static final String CSV = String.join("\n",
+            "# historical fleet",
+            "car,VW,Golf,XX11 1UR,B2,90",
+            "car,\"Mercedes, Benz\",A Class,XX12 1UR,C1,120",
+            "",
+            "booking,XX11 1UR,2001-01-01,2001-01-05,90,Doe,\"Jane \"\"JD\"\"\",DL1,1980-02-03",
+            "booking,XX11 1UR,2001-01-06,2001-01-06,90,Doe,John,DL2,",
+            "booking,XX11 1UR,2001-01-05,2001-01-07,90",
+            "maintenance,XX12 1UR,2001-01-02,2001-01-03",
+            "booking,NOPE,2001-01-02,2001-01-03,50",
+            "booking,XX12 1UR,2001-13-02,2001-01-03,50",
+            "lorry,XX12 1UR",
+            "booking,XX11 1UR,2000-12-20,2000-12-31,90");
+
+    @Test
+    public void importsHistoryAndReportsRejectedRows() throws IOException {
+        CarRentalCompany company = new CarRentalCompany();
+        // a tiny chunk makes later chunks check against bookings imported by earlier ones
+        ImportReport report = new FleetImporter(company, 2).importCsv(new StringReader(CSV));
+
+        assertThat(report.getRows()).isEqualTo(10L);
+        assertThat(report.getCars()).isEqualTo(2L);
+        assertThat(report.getBookings()).isEqualTo(4L);
+        assertThat(report.getRejectedRowCount()).isEqualTo(4L);
+        List<RejectedRow> rejected = report.getRejectedRows();
+        assertThat(rejected.get(0).getRow()).isEqualTo(7L);
+        assertThat(rejected.get(0).getReason()).isEqualTo("A booking already exists for these dates");
+        assertThat(rejected.get(1).getReason()).isEqualTo("Unknown car NOPE");
+        assertThat(rejected.get(2).getRow()).isEqualTo(10L);
+        assertThat(rejected.get(3).getReason()).isEqualTo("Unknown row type lorry");
+
+        assertThat(company.getCar("XX12 1UR").getMake()).isEqualTo("Mercedes, Benz");
+        List<Booking> bookings = company.getBookings("XX11 1UR");
+        assertThat(bookings.size()).isEqualTo(3);
+        assertThat(bookings.get(0).getStartDate()).isEqualTo(LocalDate.of(2000, 12, 20));
+        assertThat(bookings.get(1).getRenter().getFirstName()).isEqualTo("Jane \"JD\"");
+        assertThat(bookings.get(2).getRenter().getDateOfBirth()).isNull();
+        assertThat(company.rentalsStartingBetween(LocalDate.of(2001, 1, 2), LocalDate.of(2001, 1, 2)).get(0).isMaintenance()).isTrue();
+    }
+
+    @Test
+    public void clashesInsideAChunkAreRejected() throws IOException {
+        CarRentalCompany company = new CarRentalCompany();
+        ImportReport report = new FleetImporter(company).importCsv(new StringReader(CSV));
+
+        assertThat(report.getBookings()).isEqualTo(4L);
+        assertThat(report.getRejectedRows().get(0).getReason()).isEqualTo("Booking clashes with another booking in the batch");
+    }
+
+    @Test
+    public void binaryExportImportsIntoAnotherCompany() throws IOException {
+        CarRentalCompany source = new CarRentalCompany();
+        new FleetImporter(source).importCsv(new StringReader(CSV));
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        FleetImporter.exportBinary(source, bytes);
+
+        CarRentalCompany target = new CarRentalCompany();
+        ImportReport report = new FleetImporter(target, 3).importBinary(new ByteArrayInputStream(bytes.toByteArray()));
+
+        assertThat(report.getRejectedRowCount()).isEqualTo(0L);
+        assertThat(report.getRows()).isEqualTo(6L);
+        assertThat(target.getCars().size()).isEqualTo(2);
+        assertThat(target.getBookings("XX11 1UR").size()).isEqualTo(3);
+        assertThat(target.getBookings("XX12 1UR").get(0).isMaintenance()).isTrue();
+    }
+
+    @Test
+    public void malformedBinaryRecordsAreRejectedAndTheImportCarriesOn() throws IOException {
+        Car golf = new Car("VW", "Golf", "XX11 1UR", "B2", 90);
+        int day = (int) LocalDate.of(2001, 1, 1).toEpochDay();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(FleetImporter.MAGIC);
+        out.writeInt(FleetImporter.VERSION);
+        out.writeByte(FleetImporter.CAR);
+        JournalCodec.writeCar(out, golf);
+        for (int[] days : new int[][]{{day, day + 2}, {day + 5, day + 4}, {day + 6, day + 6}}) {
+            out.writeByte(FleetImporter.BOOKING);
+            JournalCodec.writeCar(out, golf);
+            out.writeInt(days[0]);
+            out.writeInt(days[1]);
+            out.writeDouble(90);
+            out.writeBoolean(false);
+            out.writeBoolean(false);
+        }
+
+        CarRentalCompany company = new CarRentalCompany();
+        ImportReport report = new FleetImporter(company, 1).importBinary(new ByteArrayInputStream(bytes.toByteArray()));
+
+        // the booking ending before it starts is reported, the chunk before it and the record after it are kept
+        assertThat(report.getRows()).isEqualTo(4L);
+        assertThat(report.getBookings()).isEqualTo(2L);
+        assertThat(report.getRejectedRowCount()).isEqualTo(1L);
+        assertThat(report.getRejectedRows().get(0).getRow()).isEqualTo(3L);
+        assertThat(company.getBookings("XX11 1UR").size()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,166 @@
+package io.rental.journal;
+
+import io.rental.Booking;
+import io.rental.BookingException;
+import io.rental.Car;
+import io.rental.CarRentalCompany;
+import io.rental.Renter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+class BookingJournalTest {
+    private static final Renter RENTER = new Renter("Hydrogen", "Joe", "HYDRO010190JX8NM", LocalDate.of(1990, 1, 1));
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testRestartReplaysJournal() throws IOException, BookingException {
+        CarRentalCompany company = new CarRentalCompany();
+        try (BookingJournal journal = BookingJournal.open(directory, company, 10)) {
+            company.addCar(new Car("VW", "Golf", "XX11 1UR", "B2", 90));
+            company.addCar(new Car("VW", "Polo", "XX13 3UR", "A1", 65));
+            company.addBooking(booking(company.getCar("XX11 1UR"), 1, 5));
+            company.registerCarMaintenance(company.getCar("XX13 3UR"), LocalDate.now().plusDays(2), LocalDate.now().plusDays(3));
+            company.updateCarPrice("XX13 3UR", 70);
+        }
+
+        CarRentalCompany restarted = new CarRentalCompany();
+        try (BookingJournal journal = BookingJournal.open(directory, restarted, 10)) {
+            assertThat(journal.lastSequence()).isEqualTo(5L);
+        }
+        assertThat(restarted.getCars().size()).isEqualTo(2);
+        assertThat(restarted.getCar("XX13 3UR").getCostPerDay()).isEqualTo(70.0);
+        assertThat(restarted.getBookings().size()).isEqualTo(2);
+        assertThat(restarted.getBookings().get(0).getRenter().getDrivingLicenseNumber()).isEqualTo("HYDRO010190JX8NM");
+        assertThat(restarted.getBookings().get(1).isMaintenance()).isTrue();
+    }
+
+    @Test
+    void testRestartLoadsSnapshotAndReplaysTail() throws IOException, BookingException {
+        CarRentalCompany company = new CarRentalCompany();
+        try (BookingJournal journal = BookingJournal.open(directory, company, 0)) {
+            company.addCar(new Car("VW", "Golf", "XX11 1UR", "B2", 90));
+            company.addBooking(booking(company.getCar("XX11 1UR"), 1, 5));
+            journal.snapshot();
+            company.addBooking(booking(company.getCar("XX11 1UR"), 6, 8));
+        }
+
+        // the snapshot replaced the segments it covers
+        assertThat(files("snapshot-").size()).isEqualTo(1);
+        assertThat(files("journal-").size()).isEqualTo(1);
+
+        CarRentalCompany restarted = new CarRentalCompany();
+        BookingJournal.open(directory, restarted, 0).close();
+        assertThat(restarted.getBookings().size()).isEqualTo(2);
+    }
+
+    @Test
+    void testTornRecordIsDropped() throws IOException, BookingException {
+        CarRentalCompany company = new CarRentalCompany();
+        try (BookingJournal journal = BookingJournal.open(directory, company, 0)) {
+            company.addCar(new Car("VW", "Golf", "XX11 1UR", "B2", 90));
+            company.addBooking(booking(company.getCar("XX11 1UR"), 1, 5));
+        }
+        Path segment = files("journal-").get(0);
+        Files.write(segment, new byte[]{0, 0, 0, 40, 1, 2}, StandardOpenOption.APPEND);
+
+        CarRentalCompany restarted = new CarRentalCompany();
+        try (BookingJournal journal = BookingJournal.open(directory, restarted, 0)) {
+            assertThat(journal.lastSequence()).isEqualTo(2L);
+            restarted.addBooking(booking(restarted.getCar("XX11 1UR"), 6, 8));
+        }
+
+        CarRentalCompany again = new CarRentalCompany();
+        BookingJournal.open(directory, again, 0).close();
+        assertThat(again.getBookings().size()).isEqualTo(2);
+    }
+
+    @Test
+    void testChangeIsAppliedOnlyOnceItIsDurable() throws Exception {
+        CarRentalCompany company = new CarRentalCompany();
+        try (BookingJournal journal = BookingJournal.open(directory, company, 60_000)) {
+            Thread committer = Thread.ofVirtual().start(() -> company.addCar(new Car("VW", "Golf", "XX11 1UR", "B2", 90)));
+            committer.join(200);
+
+            // appended but waiting for the group fsync, and not visible yet
+            assertThat(committer.isAlive()).isTrue();
+            assertThat(journal.lastSequence()).isEqualTo(1L);
+            assertThat(company.getCars().size()).isEqualTo(0);
+
+            journal.sync();
+            committer.join();
+            assertThat(company.getCars().size()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void testCloseWhileBookingsAreInFlight() throws Exception {
+        CarRentalCompany company = new CarRentalCompany();
+        BookingJournal journal = BookingJournal.open(directory, company, 1);
+        for (int i = 0; i < 8; i++) {
+            company.addCar(new Car("VW", "Golf", String.format("XX%02d ABC", i), "B2", 90));
+        }
+
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        List<Thread> bookers = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            Car car = company.getCar(String.format("XX%02d ABC", i));
+            bookers.add(Thread.ofVirtual().start(() -> {
+                for (int day = 1; day <= 200; day++) {
+                    try {
+                        company.addBooking(booking(car, day, day));
+                    } catch (IllegalStateException e) {
+                        // reached the journal after it closed, not applied
+                    } catch (Exception e) {
+                        failure.set(e);
+                        return;
+                    }
+                }
+            }));
+        }
+        Thread.sleep(20);
+        int committed = company.getBookings().size();
+        journal.close();
+        for (Thread booker : bookers) {
+            booker.join(10_000);
+            assertThat(booker.isAlive()).isFalse();
+        }
+        assertThat(failure.get()).isNull();
+
+        // every booking committed before the close is durable
+        CarRentalCompany restarted = new CarRentalCompany();
+        BookingJournal.open(directory, restarted, 0).close();
+        assertThat(restarted.getBookings().size() >= committed).isTrue();
+        assertThat(company.getBookings().containsAll(restarted.getBookings())).isTrue();
+    }
+
+    private List<Path> files(String prefix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(f -> f.getFileName().toString().startsWith(prefix)).sorted().collect(Collectors.toList());
+        }
+    }
+
+    private static Booking booking(Car car, int fromDays, int toDays) {
+        return Booking.builder()
+                .car(car)
+                .renter(RENTER)
+                .startDate(LocalDate.now().plusDays(fromDays))
+                .endDate(LocalDate.now().plusDays(toDays))
+                .dailyCost(car.getCostPerDay())
+                .build();
+    }
+}
@@ -0,0 +1,97 @@
+package io.rental.metrics;
+
+import io.rental.BatchBookingException;
+import io.rental.Booking;
+import io.rental.BookingException;
+import io.rental.Car;
+import io.rental.CarRentalCompany;
+import io.rental.RejectionReason;
+import org.junit.jupiter.api.Test;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+public class RentalMetricsTest {
+
+    private static final Car CAR = new Car("VW", "Polo", "XX11 1UR", "B1", 65);
+
+    @Test
+    public void histogramReportsPercentilesWithinABucket() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long i = 1; i <= 1_000; i++) {
+            histogram.record(i * 1_000);
+        }
+
+        assertThat(histogram.count()).isEqualTo(1_000L);
+        assertThat(histogram.mean()).isEqualTo(500_500.0);
+        assertThat(histogram.max()).isEqualTo(1_000_000L);
+        assertThat(histogram.percentile(50)).isBetween(500_000L, 500_000L + 500_000L / 16);
+        assertThat(histogram.percentile(99)).isBetween(990_000L, 1_000_000L);
+        assertThat(histogram.percentile(100)).isEqualTo(1_000_000L);
+    }
+
+    @Test
+    public void bucketsCoverEveryValue() {
+        for (long value : new long[]{0, 1, 15, 16, 17, 31, 32, 1_000_003, Long.MAX_VALUE}) {
+            int bucket = LatencyHistogram.bucket(value);
+            assertThat(LatencyHistogram.highestValueIn(bucket)).isGreaterThanOrEqualTo(value);
+            assertThat(LatencyHistogram.highestValueIn(bucket) - value).isLessThanOrEqualTo(value / 16);
+        }
+    }
+
+    @Test
+    public void operationsAndRejectionsAreRecorded() throws Exception {
+        CarRentalCompany carRentalCompany = new CarRentalCompany();
+        RentalMetrics metrics = new RentalMetrics();
+        carRentalCompany.setMetrics(metrics);
+        carRentalCompany.addCar(CAR);
+
+        LocalDate startDate = LocalDate.now().plusDays(3);
+        carRentalCompany.addBooking(booking(startDate, startDate.plusDays(2)));
+        try {
+            carRentalCompany.addBooking(booking(startDate.plusDays(1), startDate.plusDays(1)));
+        } catch (BookingException e) {
+            assertThat(e.getReason()).isEqualTo(RejectionReason.ALREADY_BOOKED);
+        }
+        try {
+            carRentalCompany.addBookings(List.of(booking(LocalDate.now().minusDays(1), LocalDate.now()),
+                    booking(startDate.plusDays(10), startDate.plusDays(12)), booking(startDate.plusDays(11), startDate.plusDays(11))));
+        } catch (BatchBookingException e) {
+            assertThat(e.getRejections().size()).isEqualTo(2);
+        }
+        carRentalCompany.availableCars("VW", "Polo", startDate, startDate);
+        carRentalCompany.upcomingRentals();
+        carRentalCompany.getBlendedPrice();
+
+        assertThat(metrics.histogram(Operation.BOOKING).count()).isEqualTo(2L);
+        assertThat(metrics.histogram(Operation.BATCH_BOOKING).count()).isEqualTo(1L);
+        assertThat(metrics.histogram(Operation.SEARCH).count()).isEqualTo(1L);
+        assertThat(metrics.histogram(Operation.UPCOMING_RENTALS).count()).isEqualTo(1L);
+        assertThat(metrics.histogram(Operation.BLENDED_PRICE).count()).isEqualTo(1L);
+        assertThat(metrics.rejections(RejectionReason.ALREADY_BOOKED)).isEqualTo(1L);
+        assertThat(metrics.rejections(RejectionReason.BOOKING_IN_THE_PAST)).isEqualTo(1L);
+        assertThat(metrics.rejections(RejectionReason.CLASH_IN_BATCH)).isEqualTo(1L);
+        assertThat(metrics.dump()).contains("BOOKING ").contains("rejected ALREADY_BOOKED     1");
+
+        ObjectName name = metrics.register("test");
+        try {
+            Object count = ManagementFactory.getPlatformMBeanServer().getAttribute(name, "Rejections");
+            assertThat(count).isNotNull();
+            assertThat(ManagementFactory.getPlatformMBeanServer().getAttribute(name, "LockWait")).isNotNull();
+        } finally {
+            metrics.unregister(name);
+        }
+    }
+
+    private static Booking booking(LocalDate startDate, LocalDate endDate) {
+        return Booking.builder()
+                .car(CAR)
+                .startDate(startDate)
+                .endDate(endDate)
+                .build();
+    }
+}
@@ -0,0 +1,193 @@
+package io.rental.server;
+
+import io.rental.Booking;
+import io.rental.Car;
+import io.rental.CarRentalCompany;
+import io.rental.RentalEventListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.stream.Collectors.groupingBy;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+public class RentalServerTest {
+
+    private static final int CARS = 20;
+    private static final int REQUESTS = 2_000;
+    private static final int MAX_IN_FLIGHT = 64;
+
+    private CarRentalCompany carRentalCompany;
+    private RentalServer server;
+    private HttpClient client;
+
+    @BeforeEach
+    public void setUp() {
+        carRentalCompany = new CarRentalCompany();
+        for (int i = 0; i < CARS; i++) {
+            carRentalCompany.addCar(new Car("VW", "Polo", String.format("XX%02d ABC", i), "A1", 60 + i));
+        }
+        client = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    public void searchesBooksAndPrices() throws Exception {
+        server = RentalServer.start(carRentalCompany, new InetSocketAddress("localhost", 0), MAX_IN_FLIGHT);
+        String from = LocalDate.now().plusDays(2).toString();
+        String to = LocalDate.now().plusDays(4).toString();
+
+        HttpResponse<String> booked = post("/bookings", "car=XX01+ABC&from=" + from + "&to=" + to
+                + "&lastName=Doe&firstName=Jane&drivingLicenseNumber=DL1&dateOfBirth=1990-01-01&dailyCost=1");
+        assertThat(booked.statusCode()).isEqualTo(201);
+        // the price comes from the fleet, not from the caller
+        assertThat(carRentalCompany.getBookings("XX01 ABC").get(0).getDailyCost()).isEqualTo(69.5);
+        assertThat(booked.body()).contains("\"drivingLicenseNumber\":\"DL1\"");
+
+        assertThat(post("/bookings", "car=XX01+ABC&from=" + from + "&to=" + to).statusCode()).isEqualTo(409);
+        assertThat(post("/bookings", "car=NOPE&from=" + from + "&to=" + to).statusCode()).isEqualTo(404);
+        assertThat(post("/bookings", "car=XX02+ABC&from=tomorrow&to=" + to).statusCode()).isEqualTo(400);
+        assertThat(post("/bookings", "car=XX03+ABC&from=" + from + "&to=" + to + "&drivingLicenseNumber=DL2").statusCode())
+                .isEqualTo(400);
+        assertThat(post("/maintenance", "car=XX02+ABC&from=" + from + "&to=" + to).statusCode()).isEqualTo(201);
+
+        HttpResponse<String> available = get("/cars?make=VW&model=Polo&from=" + from + "&to=" + to);
+        assertThat(available.statusCode()).isEqualTo(200);
+        assertThat(available.body()).doesNotContain("XX01 ABC").doesNotContain("XX02 ABC").contains("XX03 ABC");
+
+        assertThat(get("/rentals/upcoming").body()).contains("XX01 ABC");
+        assertThat(get("/rentals/renter?drivingLicenseNumber=DL1&when=future").body()).contains("XX01 ABC");
+        assertThat(get("/rentals/renter?drivingLicenseNumber=DL1&when=past").body()).isEqualTo("[]");
+        assertThat(get("/prices?rentalGroup=A1").body()).contains("\"costPerDay\":69.5");
+        assertThat(get("/quotes?make=VW&model=Polo&from=" + from + "&to=" + to).body()).contains("\"costPerDay\":69.5");
+        assertThat(get("/alternatives?make=VW&model=Polo&from=" + from + "&to=" + to + "&limit=2").body())
+                .startsWith("[{\"kind\":\"AVAILABLE\"").contains("XX00 ABC").doesNotContain("XX01 ABC");
+        assertThat(get("/cars/page?make=VW&model=Polo&from=" + from + "&to=" + to + "&order=price&pageSize=2").body())
+                .contains("XX00 ABC").doesNotContain("XX01 ABC").endsWith("\"nextCursor\":\"P:63.0:XX03 ABC\"}");
+        assertThat(get("/cars/page?make=VW&model=Polo&cursor=bogus").statusCode()).isEqualTo(400);
+        assertThat(get("/bookings").statusCode()).isEqualTo(405);
+    }
+
+    @Test
+    public void unexpectedFailuresAreAnswered() throws Exception {
+        server = RentalServer.start(carRentalCompany, new InetSocketAddress("localhost", 0), MAX_IN_FLIGHT);
+        carRentalCompany.addListener(new RentalEventListener() {
+            @Override
+            public void bookingAdded(Booking booking) {
+                throw new IllegalStateException("listener failed");
+            }
+        });
+        String from = LocalDate.now().plusDays(2).toString();
+
+        HttpResponse<String> response = post("/bookings", "car=XX01+ABC&from=" + from + "&to=" + from);
+        assertThat(response.statusCode()).isEqualTo(500);
+        assertThat(response.body()).doesNotContain("listener failed");
+    }
+
+    /* Load generator: a burst of random bookings far above the admission limit */
+    @Test
+    public void burstOfBookingsIsAdmittedOrTurnedAway() throws Exception {
+        server = RentalServer.start(carRentalCompany, new InetSocketAddress("localhost", 0), MAX_IN_FLIGHT);
+
+        Map<Integer, AtomicInteger> statuses = Map.of(201, new AtomicInteger(), 409, new AtomicInteger(), 503, new AtomicInteger());
+        List<CompletableFuture<?>> responses = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            LocalDate from = LocalDate.now().plusDays(1 + random.nextInt(365));
+            String form = String.format("car=XX%02d+ABC&from=%s&to=%s", random.nextInt(CARS), from, from.plusDays(random.nextInt(5)));
+            responses.add(client.sendAsync(postRequest("/bookings", form), HttpResponse.BodyHandlers.ofString())
+                    .thenAccept(r -> statuses.get(r.statusCode()).incrementAndGet()));
+        }
+        CompletableFuture.allOf(responses.toArray(new CompletableFuture[0])).get(60, TimeUnit.SECONDS);
+
+        // every request got an answer, clashes on the busy fleet were turned away and only bookings made changes
+        assertThat(statuses.values().stream().mapToInt(AtomicInteger::get).sum()).isEqualTo(REQUESTS);
+        assertThat(statuses.get(201).get()).isGreaterThan(0);
+        assertThat(statuses.get(409).get()).isGreaterThan(0);
+        assertThat(carRentalCompany.getBookings().size()).isEqualTo(statuses.get(201).get());
+
+        Map<String, List<Booking>> byCar = carRentalCompany.getBookings().stream()
+                .collect(groupingBy(b -> b.getCar().getRegistrationNumber()));
+        for (List<Booking> carBookings : byCar.values()) {
+            carBookings.sort((a, b) -> a.getStartDate().compareTo(b.getStartDate()));
+            for (int i = 0; i < carBookings.size() - 1; i++) {
+                assertThat(carBookings.get(i).getEndDate().isBefore(carBookings.get(i + 1).getStartDate())).isTrue();
+            }
+        }
+    }
+
+    @Test
+    public void requestsOverTheAdmissionLimitAreTurnedAway() throws Exception {
+        server = RentalServer.start(carRentalCompany, new InetSocketAddress("localhost", 0), 1);
+
+        // hold the only permit inside a booking until the second request has been answered
+        CountDownLatch committing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        carRentalCompany.addListener(new RentalEventListener() {
+            @Override
+            public void bookingAdded(Booking booking) {
+                committing.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+
+        String from = LocalDate.now().plusDays(2).toString();
+        CompletableFuture<HttpResponse<String>> held = client.sendAsync(
+                postRequest("/bookings", "car=XX01+ABC&from=" + from + "&to=" + from), HttpResponse.BodyHandlers.ofString());
+        assertThat(committing.await(10, TimeUnit.SECONDS)).isTrue();
+
+        HttpResponse<String> rejected = get("/prices");
+        assertThat(rejected.statusCode()).isEqualTo(503);
+        assertThat(rejected.headers().firstValue("Retry-After").isPresent()).isTrue();
+
+        release.countDown();
+        assertThat(held.get(10, TimeUnit.SECONDS).statusCode()).isEqualTo(201);
+        assertThat(get("/prices").statusCode()).isEqualTo(200);
+    }
+
+    private HttpResponse<String> get(String path) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(uri(path)).GET().build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> post(String path, String form) throws Exception {
+        return client.send(postRequest(path, form), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpRequest postRequest(String path, String form) {
+        return HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form))
+                .build();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + server.getPort() + path);
+    }
+}
@@ -0,0 +1,145 @@
+package io.rental.shard;
+
+import io.rental.Booking;
+import io.rental.BookingException;
+import io.rental.Car;
+import io.rental.CarRentalCompany;
+import io.rental.Criteria;
+import io.rental.RejectionReason;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ShardedCarRentalCompanyTest {
+
+    private static final int CARS = 12;
+
+    private final CarRentalCompany remoteCompany = new CarRentalCompany();
+    private ShardServer server;
+    private ShardedCarRentalCompany company;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        server = ShardServer.start(remoteCompany, new InetSocketAddress("localhost", 0));
+        List<RentalShard> shards = List.of(new LocalShard(new CarRentalCompany()), new LocalShard(new CarRentalCompany()),
+                new RemoteShard(URI.create("http://localhost:" + server.getPort())));
+        company = new ShardedCarRentalCompany(shards, ShardRouter.byRegistrationHash());
+        for (int i = 0; i < CARS; i++) {
+            company.addCar(new Car("VW", i % 2 == 0 ? "Polo" : "Golf", String.format("XX%02d ABC", i), "A1", 60 + i));
+        }
+    }
+
+    @AfterEach
+    public void tearDown() {
+        company.close();
+        server.close();
+    }
+
+    @Test
+    public void searchesAndRentalsAreMergedAcrossShards() throws BookingException {
+        LocalDate from = LocalDate.now().plusDays(3);
+        for (int i = CARS - 1; i >= 0; i -= 3) {
+            company.addBooking(booking(String.format("XX%02d ABC", i), from.plusDays(i), from.plusDays(i + 1)));
+        }
+
+        List<Car> cars = company.matchingCars(new Criteria());
+        assertThat(cars.size()).isEqualTo(CARS);
+        for (int i = 0; i < CARS; i++) {
+            assertThat(cars.get(i).getRegistrationNumber()).isEqualTo(String.format("XX%02d ABC", i));
+        }
+        assertThat(remoteCompany.getCars().isEmpty()).isFalse();
+
+        List<Car> available = company.availableCars("VW", "Golf", from.plusDays(11), from.plusDays(11));
+        assertThat(available.stream().noneMatch(c -> c.getRegistrationNumber().equals("XX11 ABC"))).isTrue();
+        assertThat(available.size()).isEqualTo(CARS / 2 - 1);
+
+        List<Booking> upcoming = company.upcomingRentals(30);
+        assertThat(upcoming.size()).isEqualTo(4);
+        for (int i = 0; i < upcoming.size() - 1; i++) {
+            assertThat(upcoming.get(i).getStartDate().isBefore(upcoming.get(i + 1).getStartDate())).isTrue();
+        }
+
+        assertThat(company.getBlendedPrice("A1")).isEqualTo(65.5);
+        assertThat(company.getBlendedPrice().get("A1")).isEqualTo(65.5);
+    }
+
+    @Test
+    public void bookingsAreCheckedOnTheOwningShard() throws BookingException {
+        LocalDate from = LocalDate.now().plusDays(2);
+        for (int i = 0; i < CARS; i++) {
+            String registrationNumber = String.format("XX%02d ABC", i);
+            company.addBooking(booking(registrationNumber, from, from.plusDays(2)));
+            BookingException clash = assertThrows(BookingException.class,
+                    () -> company.addBooking(booking(registrationNumber, from.plusDays(1), from.plusDays(3))));
+            assertThat(clash.getReason()).isEqualTo(RejectionReason.ALREADY_BOOKED);
+        }
+        BookingException unknown = assertThrows(BookingException.class, () -> company.addBooking(booking("NOPE", from, from)));
+        assertThat(unknown.getReason()).isEqualTo(RejectionReason.UNKNOWN_CAR);
+    }
+
+    @Test
+    public void movedCarTakesItsBookingsAlong() throws BookingException {
+        String registrationNumber = "XX05 ABC";
+        LocalDate from = LocalDate.now().plusDays(5);
+        company.addBooking(booking(registrationNumber, from, from.plusDays(1)));
+        company.registerCarMaintenance(company.getCar(registrationNumber), from.plusDays(4), from.plusDays(6));
+
+        int source = company.shardOf(registrationNumber);
+        int target = (source + 1) % company.getShardCount();
+        company.moveCar(registrationNumber, target);
+
+        assertThat(company.shardOf(registrationNumber)).isEqualTo(target);
+        assertThat(company.matchingCars(new Criteria()).stream()
+                .filter(c -> c.getRegistrationNumber().equals(registrationNumber)).count()).isEqualTo(1L);
+        assertThat(company.rentalsStartingBetween(from, from.plusDays(10)).size()).isEqualTo(2);
+        assertThrows(BookingException.class, () -> company.addBooking(booking(registrationNumber, from, from)));
+        company.addBooking(booking(registrationNumber, from.plusDays(2), from.plusDays(3)));
+    }
+
+    @Test
+    public void searchesSeeACarExactlyOnceWhileItMoves() throws Exception {
+        String registrationNumber = "XX05 ABC";
+        LocalDate from = LocalDate.now().plusDays(5);
+        company.addBooking(booking(registrationNumber, from, from.plusDays(1)));
+
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        Thread mover = new Thread(() -> {
+            try {
+                for (int i = 0; i < 200; i++) {
+                    company.moveCar(registrationNumber, company.shardOf(registrationNumber) == 0 ? 1 : 0);
+                }
+            } catch (Exception e) {
+                failure.set(e);
+            }
+        });
+        mover.start();
+        int searches = 0;
+        while (mover.isAlive() || searches == 0) {
+            assertThat(company.matchingCars(new Criteria()).stream()
+                    .filter(c -> c.getRegistrationNumber().equals(registrationNumber)).count()).isEqualTo(1L);
+            assertThat(company.rentalsStartingBetween(from, from).size()).isEqualTo(1);
+            searches++;
+        }
+        mover.join();
+        assertThat(failure.get()).isNull();
+    }
+
+    private Booking booking(String registrationNumber, LocalDate startDate, LocalDate endDate) {
+        Car car = company.getCar(registrationNumber);
+        return Booking.builder()
+                .car(car != null ? car : new Car("VW", "Polo", registrationNumber, "A1", 60))
+                .startDate(startDate)
+                .endDate(endDate)
+                .dailyCost(60)
+                .build();
+    }
+}
@@ -0,0 +1,222 @@
+package io.rental.store;
+
+import io.rental.Booking;
+import io.rental.BookingStore;
+import io.rental.BookingException;
+import io.rental.Car;
+import io.rental.CarRentalCompany;
+import io.rental.Renter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MappedBookingStoreTest {
+    private static final Car GOLF = new Car("VW", "Golf", "XX11 1UR", "B2", 90);
+    private static final Car POLO = new Car("VW", "Polo", "XX13 3UR", "A1", 65);
+    private static final Renter RENTER = new Renter("Hydrogen", "Joe", "HYDRO010190JX8NM", LocalDate.of(1990, 1, 1));
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testCompanyRunsOnMappedStore() throws IOException, BookingException {
+        try (MappedBookingStore store = new MappedBookingStore(directory)) {
+            CarRentalCompany company = new CarRentalCompany(store);
+            company.addCar(GOLF);
+            company.addCar(POLO);
+
+            company.addBooking(booking(GOLF, 1, 7));
+            company.addBooking(booking(POLO, 3, 5));
+            company.registerCarMaintenance(POLO, LocalDate.now().plusDays(2), LocalDate.now().plusDays(2));
+            assertThrows(BookingException.class, () -> company.addBooking(booking(GOLF, 7, 9)));
+
+            assertThat(company.availableCars("VW", "Golf", LocalDate.now().plusDays(5), LocalDate.now().plusDays(6)).size()).isEqualTo(0);
+            assertThat(company.availableCars("VW", "Golf", LocalDate.now().plusDays(8), LocalDate.now().plusDays(9)).size()).isEqualTo(1);
+
+            List<Booking> upcoming = company.upcomingRentals();
+            assertThat(upcoming.size()).isEqualTo(3);
+            assertThat(upcoming.get(0).getCar().getRegistrationNumber()).isEqualTo(GOLF.getRegistrationNumber());
+            assertThat(upcoming.get(0).getRenter().getDrivingLicenseNumber()).isEqualTo(RENTER.getDrivingLicenseNumber());
+            assertThat(upcoming.get(1).isMaintenance()).isTrue();
+            assertThat(upcoming.get(2).getDailyCost()).isEqualTo(65.0);
+
+            assertThat(company.getBookings().size()).isEqualTo(3);
+            assertThat(store.size()).isEqualTo(3);
+        }
+    }
+
+    @Test
+    void testBookingsOfACarCanBeRemoved() throws IOException, BookingException {
+        try (MappedBookingStore store = new MappedBookingStore(directory)) {
+            CarRentalCompany company = new CarRentalCompany(store);
+            company.addCar(GOLF);
+            company.addCar(POLO);
+            Booking later = booking(GOLF, 5, 6);
+            Booking sooner = booking(GOLF, 1, 2);
+            company.addBooking(later);
+            company.addBooking(sooner);
+            company.addBooking(booking(POLO, 1, 2));
+
+            List<Booking> removed = company.removeBookings(GOLF.getRegistrationNumber());
+            assertThat(removed.size()).isEqualTo(2);
+            assertThat(removed.get(0).getStartDate()).isEqualTo(sooner.getStartDate());
+            assertThat(removed.get(1).getStartDate()).isEqualTo(later.getStartDate());
+
+            assertThat(store.size()).isEqualTo(1);
+            assertThat(store.bookingsOf(GOLF.getRegistrationNumber()).isEmpty()).isTrue();
+            assertThat(company.upcomingRentals().size()).isEqualTo(1);
+            assertThat(company.upcomingRentals().get(0).getCar().getRegistrationNumber()).isEqualTo(POLO.getRegistrationNumber());
+
+            // the car is free again and takes new bookings
+            company.addBooking(booking(GOLF, 1, 2));
+            assertThat(company.getBookings().size()).isEqualTo(2);
+            assertThat(company.removeBookings(GOLF.getRegistrationNumber()).size()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void testReadsBackWhatTheHeapStoreDoes() throws IOException, BookingException {
+        try (MappedBookingStore store = new MappedBookingStore(directory)) {
+            List<String> heap = replaceAndRemove(new CarRentalCompany());
+            List<String> mapped = replaceAndRemove(new CarRentalCompany(store));
+            assertThat(mapped).isEqualTo(heap);
+            // the repriced Golf and the renamed renter come back with the booking made after the change
+            assertThat(heap.get(1)).contains("100.0").contains("Joseph");
+        }
+    }
+
+    @Test
+    void testGapLookupsMatchACheckOfEveryDay() throws IOException {
+        try (MappedBookingStore store = new MappedBookingStore(directory)) {
+            List<Booking> added = new ArrayList<>();
+            BookingStore reference = new BookingStore() {
+                @Override
+                public boolean isBooked(Car car, int fromDay, int toDay) {
+                    return added.stream().anyMatch(b -> b.getCar().equals(car) && b.getStartDay() <= toDay && fromDay <= b.getEndDay());
+                }
+
+                @Override
+                public void add(Booking booking) {
+                    added.add(booking);
+                }
+
+                @Override
+                public List<Booking> startingBetween(LocalDate fromDate, LocalDate toDate) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public List<Booking> bookings() {
+                    return new ArrayList<>(added);
+                }
+            };
+
+            // bookings of two cars added in random order, each car's never overlapping
+            Random random = new Random(42);
+            int today = (int) LocalDate.now().toEpochDay();
+            for (Car car : List.of(GOLF, POLO)) {
+                List<Booking> bookings = new ArrayList<>();
+                for (int day = today - 300; day < today + 300; day += 2 + random.nextInt(8)) {
+                    int end = day + random.nextInt(3);
+                    bookings.add(Booking.builder().car(car).startDate(LocalDate.ofEpochDay(day))
+                            .endDate(LocalDate.ofEpochDay(end)).dailyCost(car.getCostPerDay()).build());
+                    day = end;
+                }
+                Collections.shuffle(bookings, random);
+                for (Booking booking : bookings) {
+                    store.add(booking);
+                    reference.add(booking);
+                }
+            }
+
+            for (int i = 0; i < 2_000; i++) {
+                Car car = random.nextBoolean() ? GOLF : POLO;
+                int from = today - 320 + random.nextInt(640);
+                int days = 1 + random.nextInt(6);
+                int to = from + days - 1;
+                int bound = random.nextInt(20);
+                assertThat(store.isBooked(car, from, to)).isEqualTo(reference.isBooked(car, from, to));
+                assertThat(store.firstFreeStart(car, from, days, from + bound))
+                        .isEqualTo(reference.firstFreeStart(car, from, days, from + bound));
+                assertThat(store.lastFreeStart(car, from, days, from - bound))
+                        .isEqualTo(reference.lastFreeStart(car, from, days, from - bound));
+                assertThat(store.lastFreeDay(car, from, from + bound)).isEqualTo(reference.lastFreeDay(car, from, from + bound));
+
+                int[] marked = new int[bound + 2];
+                int[] expected = new int[bound + 2];
+                store.markBookedDays(car, from, marked);
+                reference.markBookedDays(car, from, expected);
+                assertThat(Arrays.equals(marked, expected)).isTrue();
+            }
+            assertThat(store.bookingsOf(GOLF.getRegistrationNumber())).isEqualTo(reference.bookingsOf(GOLF.getRegistrationNumber()));
+        }
+    }
+
+    @Test
+    void testRentersAreReadBackFromTheRenterLog() throws IOException {
+        try (MappedBookingStore store = new MappedBookingStore(directory)) {
+            Renter unknownBirthday = new Renter("Ørsted", "Zoë", "ORSTE010190ZX8NM", null);
+            store.add(booking(GOLF, 1, 2));
+            store.add(Booking.builder().car(POLO).renter(unknownBirthday)
+                    .startDate(LocalDate.now()).endDate(LocalDate.now()).dailyCost(65).build());
+
+            Renter first = store.bookingsOf(GOLF.getRegistrationNumber()).get(0).getRenter();
+            assertThat(first.getFirstName()).isEqualTo(RENTER.getFirstName());
+            assertThat(first.getDateOfBirth()).isEqualTo(RENTER.getDateOfBirth());
+            Renter second = store.bookingsOf(POLO.getRegistrationNumber()).get(0).getRenter();
+            assertThat(second.getLastName()).isEqualTo("Ørsted");
+            assertThat(second.getFirstName()).isEqualTo("Zoë");
+            assertThat(second.getDrivingLicenseNumber()).isEqualTo("ORSTE010190ZX8NM");
+            assertThat(second.getDateOfBirth()).isNull();
+        }
+    }
+
+    // books a car, replaces it with a new price, books it for a renter who changed name, then removes the Polo
+    private static List<String> replaceAndRemove(CarRentalCompany company) throws BookingException {
+        company.addCar(GOLF);
+        company.addCar(POLO);
+        company.addBooking(booking(GOLF, 1, 2));
+        company.addBooking(booking(POLO, 1, 2));
+
+        Car repriced = GOLF.withCostPerDay(100);
+        company.addCar(repriced);
+        Renter renamed = new Renter("Hydrogen", "Joseph", RENTER.getDrivingLicenseNumber(), RENTER.getDateOfBirth());
+        company.addBooking(Booking.builder().car(repriced).renter(renamed)
+                .startDate(LocalDate.now().plusDays(4)).endDate(LocalDate.now().plusDays(5))
+                .dailyCost(repriced.getCostPerDay()).build());
+        company.removeBookings(POLO.getRegistrationNumber());
+
+        List<String> read = company.getBookings(GOLF.getRegistrationNumber()).stream()
+                .map(MappedBookingStoreTest::describe).collect(Collectors.toList());
+        read.add("upcoming " + company.upcomingRentals().size());
+        read.add("polo " + company.getBookings(POLO.getRegistrationNumber()).size());
+        return read;
+    }
+
+    private static String describe(Booking booking) {
+        return booking.getCar() + " " + booking.getRenter().getFirstName() + " " + booking.getRenter().getLastName()
+                + " " + booking.getStartDate() + " " + booking.getDailyCost();
+    }
+
+    private static Booking booking(Car car, int fromDays, int toDays) {
+        return Booking.builder()
+                .car(car)
+                .renter(RENTER)
+                .startDate(LocalDate.now().plusDays(fromDays))
+                .endDate(LocalDate.now().plusDays(toDays))
+                .dailyCost(car.getCostPerDay())
+                .build();
+    }
+}
@@ -0,0 +1,49 @@
+package io.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+class DayBitmapTest {
+
+    @Test
+    void testWindowIsAlignedToWords() {
+        DayBitmap bitmap = new DayBitmap(19370, 730);
+        assertThat(bitmap.getFirstDay()).isEqualTo(19328);
+        assertThat(bitmap.covers(19370, 19370 + 729)).isTrue();
+        assertThat(bitmap.covers(19327, 19400)).isFalse();
+    }
+
+    @Test
+    void testRangeChecksAcrossWords() {
+        DayBitmap bitmap = new DayBitmap(0, 256);
+        bitmap.set(60, 130);
+
+        assertThat(bitmap.isAnySet(0, 59)).isFalse();
+        assertThat(bitmap.isAnySet(0, 60)).isTrue();
+        assertThat(bitmap.isAnySet(64, 127)).isTrue();
+        assertThat(bitmap.isAnySet(130, 200)).isTrue();
+        assertThat(bitmap.isAnySet(131, 255)).isFalse();
+    }
+
+    @Test
+    void testSetIsClippedToWindow() {
+        DayBitmap bitmap = new DayBitmap(64, 64);
+        bitmap.set(0, 64);
+        bitmap.set(127, 500);
+
+        assertThat(bitmap.isAnySet(64, 64)).isTrue();
+        assertThat(bitmap.isAnySet(65, 126)).isFalse();
+        assertThat(bitmap.isAnySet(127, 127)).isTrue();
+    }
+
+    @Test
+    void testCopyIsIndependent() {
+        DayBitmap bitmap = new DayBitmap(0, 64);
+        DayBitmap copy = bitmap.copy();
+        copy.set(5, 5);
+
+        assertThat(bitmap.isAnySet(0, 63)).isFalse();
+        assertThat(copy.isAnySet(5, 5)).isTrue();
+    }
+}
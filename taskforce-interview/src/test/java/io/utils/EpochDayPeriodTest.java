@@ -0,0 +1,40 @@
+package io.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+class EpochDayPeriodTest {
+    private static final long BASE_PERIOD = EpochDayPeriod.of(LocalDate.of(2023, 01, 14), LocalDate.of(2023, 02, 05));
+
+    @Test
+    void testPackingKeepsBounds() {
+        long period = EpochDayPeriod.of(-3, 19372);
+        assertThat(EpochDayPeriod.start(period)).isEqualTo(-3);
+        assertThat(EpochDayPeriod.end(period)).isEqualTo(19372);
+    }
+
+    @Test
+    void testPackedPeriodsSortByStart() {
+        assertThat(EpochDayPeriod.of(10, 20) < EpochDayPeriod.of(11, 11)).isTrue();
+        assertThat(EpochDayPeriod.of(-2, 5) < EpochDayPeriod.of(-1, -1)).isTrue();
+        assertThat(EpochDayPeriod.of(10, 20) <= EpochDayPeriod.latestStartingOn(10)).isTrue();
+        assertThat(EpochDayPeriod.of(11, 11) <= EpochDayPeriod.latestStartingOn(10)).isFalse();
+    }
+
+    @Test
+    void testOverlapIsInclusive() {
+        long startDay = EpochDayPeriod.of(LocalDate.of(2023, 01, 13), LocalDate.of(2023, 01, 14));
+        long endDay = EpochDayPeriod.of(LocalDate.of(2023, 02, 05), LocalDate.of(2023, 02, 06));
+        long before = EpochDayPeriod.of(LocalDate.of(2023, 01, 01), LocalDate.of(2023, 01, 13));
+        long after = EpochDayPeriod.of(LocalDate.of(2023, 02, 06), LocalDate.of(2023, 02, 12));
+
+        assertThat(EpochDayPeriod.areOverlapping(BASE_PERIOD, startDay)).isTrue();
+        assertThat(EpochDayPeriod.areOverlapping(BASE_PERIOD, endDay)).isTrue();
+        assertThat(EpochDayPeriod.areOverlapping(BASE_PERIOD, before)).isFalse();
+        assertThat(EpochDayPeriod.areOverlapping(BASE_PERIOD, after)).isFalse();
+        assertThat(EpochDayPeriod.isInPeriod((int) LocalDate.of(2023, 02, 05).toEpochDay(), BASE_PERIOD)).isTrue();
+    }
+}
@@ -0,0 +1,65 @@
+package io.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+class OrdinalDictionaryTest {
+
+    @Test
+    void testOrdinalsAreDenseAndKeptAcrossGrowth() {
+        OrdinalDictionary<Integer> dictionary = new OrdinalDictionary<>();
+        for (int i = 0; i < 1000; i++) {
+            assertThat(dictionary.add(String.format("XX%03d ABC", i), i)).isEqualTo(i);
+        }
+
+        assertThat(dictionary.size()).isEqualTo(1000);
+        for (int i = 0; i < 1000; i++) {
+            String key = String.format("XX%03d ABC", i);
+            assertThat(dictionary.ordinalOf(new String(key))).isEqualTo(i);
+            assertThat(dictionary.key(i)).isEqualTo(key);
+            assertThat(dictionary.get(i)).isEqualTo(i);
+        }
+        assertThat(dictionary.ordinalOf("YY000 ABC")).isEqualTo(OrdinalDictionary.NONE);
+        assertThat(dictionary.get("YY000 ABC")).isNull();
+    }
+
+    @Test
+    void testAddingAKeyAgainKeepsItsOrdinalAndValue() {
+        OrdinalDictionary<String> dictionary = new OrdinalDictionary<>();
+        dictionary.add("XX11 1UR", "first");
+        dictionary.add("XX12 2UR", "second");
+
+        assertThat(dictionary.add("XX11 1UR", "again")).isEqualTo(0);
+        assertThat(dictionary.get("XX11 1UR")).isEqualTo("first");
+        assertThat(dictionary.size()).isEqualTo(2);
+    }
+
+    @Test
+    void testRemovedKeysGiveTheirOrdinalsToLaterKeys() {
+        OrdinalDictionary<String> dictionary = new OrdinalDictionary<>();
+        dictionary.add("XX11 1UR", "first");
+        dictionary.add("XX12 2UR", "second");
+
+        assertThat(dictionary.remove("XX11 1UR")).isEqualTo("first");
+        assertThat(dictionary.remove("XX11 1UR")).isNull();
+        assertThat(dictionary.ordinalOf("XX11 1UR")).isEqualTo(OrdinalDictionary.NONE);
+        assertThat(dictionary.get(0)).isNull();
+        assertThat(dictionary.get("XX12 2UR")).isEqualTo("second");
+        assertThat(dictionary.size()).isEqualTo(1);
+
+        assertThat(dictionary.add("XX13 3UR", "third")).isEqualTo(0);
+        assertThat(dictionary.key(0)).isEqualTo("XX13 3UR");
+
+        // keys coming and going keep reusing the same ordinals however many there were
+        for (int i = 0; i < 10_000; i++) {
+            String key = String.format("YY%05d ABC", i);
+            assertThat(dictionary.add(key, key)).isEqualTo(2);
+            assertThat(dictionary.get(new String(key))).isEqualTo(key);
+            assertThat(dictionary.remove(key)).isEqualTo(key);
+        }
+        assertThat(dictionary.size()).isEqualTo(2);
+        assertThat(dictionary.get("XX12 2UR")).isEqualTo("second");
+        assertThat(dictionary.get("XX13 3UR")).isEqualTo("third");
+    }
+}